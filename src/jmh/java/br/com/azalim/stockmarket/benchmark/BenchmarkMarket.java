@@ -0,0 +1,86 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.B3Company;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Holds the stock market shared by the benchmarks of a forked JVM, since the stock market is a singleton.
+ */
+public class BenchmarkMarket {
+
+    /**
+     * The lowest ask price of the books filled by {@link #fill(OperationBook, int)}. Bids rest one tick below it.
+     */
+    public static final double BEST_ASK_PRICE = 50D;
+
+    /**
+     * The number of price levels of each side of the books filled by {@link #fill(OperationBook, int)}.
+     */
+    public static final int LEVELS_PER_SIDE = 100;
+
+    /**
+     * The singleton stock market.
+     */
+    private static StockMarket stockMarket;
+
+    /**
+     * @return the singleton stock market, created with every B3 company and broker.
+     */
+    public static synchronized StockMarket getStockMarket() {
+
+        if (stockMarket == null) {
+            Set<Company> companies = new HashSet<>(Arrays.asList(B3Company.values()));
+            Set<Broker> brokers = new HashSet<>(Arrays.asList(B3Broker.values()));
+            stockMarket = new StockMarket(companies, brokers);
+        }
+
+        return stockMarket;
+
+    }
+
+    /**
+     * @return the common asset used by the benchmarks.
+     */
+    public static Asset getAsset() {
+        return getStockMarket().getOperationBooks().keySet().stream()
+                .filter(asset -> asset.getMarketType() == MarketType.COMMON)
+                .findFirst().orElseThrow();
+    }
+
+    /**
+     * Fills a book with resting offers that do not cross: half of them are asks from {@link #BEST_ASK_PRICE} up
+     * and the other half are bids from one tick below it down, spread over {@link #LEVELS_PER_SIDE} levels each.
+     *
+     * @param operationBook the book to be filled.
+     * @param depth         the number of resting offers.
+     */
+    public static void fill(OperationBook operationBook, int depth) {
+
+        Asset asset = getAsset();
+
+        for (int index = 0; index < depth; index++) {
+
+            double ticks = (index / 2) % LEVELS_PER_SIDE / 100D;
+            OfferOperation offerOperation = index % 2 == 0
+                    ? new OfferOperation(B3Broker.XPIN, asset, OfferOperationType.SELL, 100, BEST_ASK_PRICE + ticks)
+                    : new OfferOperation(B3Broker.CCLR, asset, OfferOperationType.BUY, 100, BEST_ASK_PRICE - 0.01D - ticks);
+
+            operationBook.register(offerOperation);
+
+        }
+
+    }
+
+}
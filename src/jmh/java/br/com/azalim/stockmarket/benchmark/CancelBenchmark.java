@@ -0,0 +1,64 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a market maker requoting in a book of varying depth: each invocation registers a new bid
+ * at the best bid level, behind the offers resting there, and cancels the previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bookDepth;
+
+    private Asset asset;
+    private OperationBook operationBook;
+    private OfferOperation quote;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        this.asset = BenchmarkMarket.getAsset();
+        this.operationBook = new OperationBook();
+
+        BenchmarkMarket.fill(this.operationBook, this.bookDepth);
+        this.quote = this.register();
+
+    }
+
+    @Benchmark
+    public OfferOperation requote() {
+
+        OfferOperation previousQuote = this.quote;
+
+        this.quote = this.register();
+        return this.operationBook.cancel(previousQuote.getSequence());
+
+    }
+
+    /**
+     * @return a new bid registered at the best bid price.
+     */
+    private OfferOperation register() {
+
+        OfferOperation offerOperation = new OfferOperation(B3Broker.RICO, this.asset, OfferOperationType.BUY, 100, BenchmarkMarket.BEST_ASK_PRICE - 0.01D);
+
+        this.operationBook.register(offerOperation);
+        return offerOperation;
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.persistence.Journal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost that journaling adds to the registration of an offer and to the execution of a trade.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private Path path;
+    private Journal journal;
+    private OfferOperation sellOfferOperation;
+    private OfferOperation buyOfferOperation;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        Asset asset = BenchmarkMarket.getAsset();
+
+        this.path = Files.createTempFile("benchmark", ".journal");
+        this.journal = new Journal(this.path);
+        this.sellOfferOperation = new OfferOperation(B3Broker.XPIN, asset, OfferOperationType.SELL, 100, 10D);
+        this.buyOfferOperation = new OfferOperation(B3Broker.CCLR, asset, OfferOperationType.BUY, 100, 10D);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.journal.close();
+        Files.delete(this.path);
+    }
+
+    @Benchmark
+    public Journal appendRegister() {
+        this.journal.appendRegister(this.sellOfferOperation);
+        return this.journal;
+    }
+
+    @Benchmark
+    public Journal appendTrade() {
+        this.journal.appendTrade(System.nanoTime(), this.sellOfferOperation, this.buyOfferOperation, 100, 10D);
+        return this.journal;
+    }
+
+}
@@ -0,0 +1,87 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the matching of an incoming offer against a book of varying depth. Before each incoming offer,
+ * a resting offer is added behind the best level of the opposite side, so the depth of the book stays the same.
+ * The price levels are kept either in sorted trees or in a price ladder around the best prices, and the retired
+ * offers either in the heap or off it, so {@code -prof gc} shows what each option saves per incoming offer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferOperationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bookDepth;
+
+    @Param({"0.5", "0.9"})
+    public double buyRatio;
+
+    @Param({"false", "true"})
+    public boolean priceLadder;
+
+    @Param({"false", "true"})
+    public boolean offHeapArchive;
+
+    private StockMarket stockMarket;
+    private Asset asset;
+    private OperationBook operationBook;
+    private long incomingOffers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        this.stockMarket = BenchmarkMarket.getStockMarket();
+        this.asset = BenchmarkMarket.getAsset();
+        this.operationBook = new OperationBook();
+
+        if (this.priceLadder) {
+            this.operationBook.usePriceLadder(this.asset.toTicks(BenchmarkMarket.BEST_ASK_PRICE), 1_000);
+        }
+
+        if (this.offHeapArchive) {
+            this.operationBook.useOffHeapArchive();
+        }
+
+        BenchmarkMarket.fill(this.operationBook, this.bookDepth);
+
+    }
+
+    @Benchmark
+    public OfferOperation process() {
+
+        boolean buy = (this.incomingOffers++ * 0.6180339887D) % 1 < this.buyRatio;
+        double bestAskPrice = BenchmarkMarket.BEST_ASK_PRICE, bestBidPrice = BenchmarkMarket.BEST_ASK_PRICE - 0.01D;
+
+        OfferOperation restingOfferOperation = buy
+                ? new OfferOperation(B3Broker.XPIN, this.asset, OfferOperationType.SELL, 100, bestAskPrice)
+                : new OfferOperation(B3Broker.CCLR, this.asset, OfferOperationType.BUY, 100, bestBidPrice);
+
+        OfferOperation incomingOfferOperation = buy
+                ? new OfferOperation(B3Broker.RICO, this.asset, OfferOperationType.BUY, 100, bestAskPrice)
+                : new OfferOperation(B3Broker.EASY, this.asset, OfferOperationType.SELL, 100, bestBidPrice);
+
+        this.operationBook.register(restingOfferOperation);
+        this.operationBook.register(incomingOfferOperation);
+
+        incomingOfferOperation.process(this.stockMarket, this.operationBook);
+        this.operationBook.retire(incomingOfferOperation);
+
+        return incomingOfferOperation;
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the registration of resting offers and the periodic processing of a book at varying depths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationBookBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bookDepth;
+
+    @Param({"0.5", "0.9"})
+    public double buyRatio;
+
+    private StockMarket stockMarket;
+    private Asset asset;
+    private OperationBook operationBook;
+    private long registeredOffers;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+
+        this.stockMarket = BenchmarkMarket.getStockMarket();
+        this.asset = BenchmarkMarket.getAsset();
+        this.operationBook = new OperationBook();
+        this.registeredOffers = 0;
+
+        BenchmarkMarket.fill(this.operationBook, this.bookDepth);
+
+    }
+
+    /**
+     * Registers an offer that rests deep in the book without crossing, on the side given by the buy ratio.
+     */
+    @Benchmark
+    public OperationBook register() {
+
+        boolean buy = (this.registeredOffers++ * 0.6180339887D) % 1 < this.buyRatio;
+
+        OfferOperation offerOperation = buy
+                ? new OfferOperation(B3Broker.CCLR, this.asset, OfferOperationType.BUY, 100, 1D)
+                : new OfferOperation(B3Broker.XPIN, this.asset, OfferOperationType.SELL, 100, 99D);
+
+        this.operationBook.register(offerOperation);
+        return this.operationBook;
+
+    }
+
+    /**
+     * Processes every live operation of a book whose offers do not cross.
+     */
+    @Benchmark
+    public OperationBook processOperations() {
+        this.operationBook.processOperations(this.stockMarket);
+        return this.operationBook;
+    }
+
+}
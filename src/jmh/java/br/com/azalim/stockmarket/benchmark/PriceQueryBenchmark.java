@@ -0,0 +1,48 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.operation.OperationBook;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures historical price queries against books with a varying number of recorded trades.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int trades;
+
+    private OperationBook operationBook;
+    private Instant[] instants;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        this.operationBook = new OperationBook();
+        this.instants = new Instant[1024];
+
+        for (int index = 0; index < this.trades; index++) {
+            this.operationBook.getTradeTape().record(index * 1_000_000L, 10D + index % 100 / 100D, 100);
+        }
+
+        for (int index = 0; index < this.instants.length; index++) {
+            this.instants[index] = Instant.ofEpochMilli((long) index * this.trades / this.instants.length);
+        }
+
+    }
+
+    @Benchmark
+    public double getPriceAtInstant() {
+        return this.operationBook.getPriceAtInstant(this.instants[this.query++ & (this.instants.length - 1)]);
+    }
+
+}
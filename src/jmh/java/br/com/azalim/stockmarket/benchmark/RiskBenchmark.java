@@ -0,0 +1,54 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.broker.B3Broker;
+import br.com.azalim.stockmarket.clock.CachedClock;
+import br.com.azalim.stockmarket.clock.SystemClock;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.risk.RiskLimits;
+import br.com.azalim.stockmarket.risk.RiskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pre-trade risk check of an offer, reserving its quantity, and the release of the reservation,
+ * as done when an offer is registered and later executed or canceled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiskBenchmark {
+
+    private CachedClock clock;
+    private OperationBook operationBook;
+    private RiskManager riskManager;
+    private OfferOperation offerOperation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        // The order rate window reads the clock of the book, so it is cached like the one of the application
+        this.clock = new CachedClock(SystemClock.INSTANCE, 1_000_000);
+        this.operationBook = new OperationBook(this.clock);
+        this.riskManager = new RiskManager(new RiskLimits(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, Double.MAX_VALUE, Integer.MAX_VALUE));
+        this.offerOperation = new OfferOperation(B3Broker.RICO, BenchmarkMarket.getAsset(), OfferOperationType.BUY, 100, BenchmarkMarket.BEST_ASK_PRICE);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.clock.close();
+    }
+
+    @Benchmark
+    public void checkAndRelease() {
+        this.riskManager.check(this.operationBook, this.offerOperation);
+        this.riskManager.release(this.offerOperation);
+    }
+
+}
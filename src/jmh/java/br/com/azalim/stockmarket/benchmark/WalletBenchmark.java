@@ -0,0 +1,52 @@
+package br.com.azalim.stockmarket.benchmark;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures position queries and updates of a wallet with a varying number of past transactions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletBenchmark {
+
+    @Param({"100", "100000"})
+    public int transactions;
+
+    @Param({"false", "true"})
+    public boolean keepHistory;
+
+    private Asset asset;
+    private Wallet wallet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        this.asset = BenchmarkMarket.getAsset();
+        this.wallet = new Wallet(this.keepHistory);
+
+        for (int index = 0; index < this.transactions; index++) {
+            this.wallet.registerTransaction(this.asset, index % 2 == 0 ? 100 : -100, 10D);
+        }
+
+    }
+
+    @Benchmark
+    public long getQuantity() {
+        return this.wallet.getQuantity(this.asset);
+    }
+
+    @Benchmark
+    public Wallet registerTransaction() {
+        this.wallet.registerTransaction(this.asset, 100, 10D);
+        return this.wallet;
+    }
+
+}
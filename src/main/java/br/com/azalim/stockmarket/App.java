@@ -2,26 +2,85 @@ package br.com.azalim.stockmarket;
 
 import br.com.azalim.stockmarket.broker.B3Broker;
 import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.CachedClock;
+import br.com.azalim.stockmarket.clock.SystemClock;
+import br.com.azalim.stockmarket.clock.VirtualClock;
 import br.com.azalim.stockmarket.company.B3Company;
 import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.load.ArrivalProcess;
+import br.com.azalim.stockmarket.load.LoadGenerator;
+import br.com.azalim.stockmarket.load.LoadProfile;
+import br.com.azalim.stockmarket.metrics.MetricsReporter;
+import br.com.azalim.stockmarket.persistence.Journal;
+import br.com.azalim.stockmarket.persistence.JournalReplayer;
+import br.com.azalim.stockmarket.persistence.Snapshotter;
+import br.com.azalim.stockmarket.replay.OrderFileReplayer;
+import br.com.azalim.stockmarket.risk.RiskLimits;
+import br.com.azalim.stockmarket.risk.RiskManager;
 
+import javax.management.JMException;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class App {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, JMException, InterruptedException {
 
         // These companies and brokers could be retrieved from a database or file.
         Set<Company> companies = new HashSet<>(Arrays.asList(B3Company.values()));
         Set<Broker> brokers = new HashSet<>(Arrays.asList(B3Broker.values()));
 
-        // Initializes the stock market.
-        StockMarket stockMarket = new StockMarket(companies, brokers);
+        // Replays a recorded order file instead of running the simulation: replay <orders.csv> [speed]
+        if (args.length > 0 && args[0].equals("replay")) {
+            replay(companies, brokers, args);
+            return;
+        }
 
-        // Starts processing the registered operations.
-        stockMarket.startProcessingOperations();
+        // Offers an open-loop load of random orders instead of running the simulation: load <orders/s> [seconds] [arrival] [brokers] [warm-up seconds]
+        if (args.length > 0 && args[0].equals("load")) {
+            load(companies, args);
+            return;
+        }
+
+        // Initializes the stock market, timestamping orders and trades with a clock refreshed every millisecond.
+        StockMarket stockMarket = new StockMarket(companies, brokers, new CachedClock(SystemClock.INSTANCE, 1_000_000));
+
+        // Keeps the price levels of every book in arrays indexed by price over the band the simulation quotes in, up to 100.
+        stockMarket.getOperationBooks().keySet().forEach(asset -> stockMarket.usePriceLadder(asset, 50, 5_000));
+
+        // Keeps the executed and canceled offers off the heap, so long runs do not grow the heap and its pauses.
+        stockMarket.useOffHeapArchives();
+
+        // Rebuilds the books and wallets left by the previous runs from the latest snapshot and the journal tail,
+        // then keeps journaling to the same file and takes a new snapshot every minute.
+        Path journalPath = Path.of(System.getProperty("stockmarket.journal", "stockmarket.journal"));
+        Path snapshotPath = Path.of(System.getProperty("stockmarket.snapshot", "stockmarket.snapshot"));
+
+        JournalReplayer journalReplayer = new JournalReplayer(stockMarket);
+        journalReplayer.loadSnapshot(snapshotPath);
+        journalReplayer.replay(journalPath);
+
+        Journal journal = new Journal(journalPath);
+        stockMarket.setJournal(journal);
+
+        Snapshotter snapshotter = new Snapshotter(stockMarket, snapshotPath);
+        snapshotter.start(60_000);
+
+        // Checks every registered operation against the same limits for every broker before it reaches its book.
+        stockMarket.setRiskManager(new RiskManager(new RiskLimits(1_000_000, 1_000_000, 10_000_000, 1_000)));
+
+        // Exposes the counters and latency histograms of every book through JMX and dumps them every 30 seconds.
+        MetricsReporter metricsReporter = new MetricsReporter(stockMarket);
+        metricsReporter.registerMBeans();
+        metricsReporter.start(30_000, System.err);
+
+        // Starts processing the registered operations as soon as they are registered, one shard per processor.
+        stockMarket.startProcessingOperations(ProcessingMode.SHARDED);
 
         // Starts the simulation.
         Simulation.start();
@@ -30,8 +89,81 @@ public class App {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             stockMarket.stopProcessingOperations();
             Simulation.stop();
+
+            snapshotter.close();
+            metricsReporter.close();
+
+            try {
+                journal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }));
 
     }
 
+    /**
+     * Offers an open-loop load of random orders to a stock market of simulated brokers,
+     * processed by the sharded matching engine, and writes the report of the load to the standard error.
+     *
+     * @param companies the companies of the stock market.
+     * @param args      the arguments: "load", the target rate of orders per second and, optionally, the duration in seconds
+     *                  (30 by default), the arrival process (POISSON by default), the number of brokers (1000 by default)
+     *                  and the warm-up in seconds (5 by default).
+     * @throws InterruptedException if the main thread is interrupted while the load is offered.
+     */
+    private static void load(Set<Company> companies, String[] args) throws InterruptedException {
+
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: load <orders/s> [seconds] [CONSTANT|POISSON|BURSTY] [brokers] [warm-up seconds]");
+        }
+
+        double ordersPerSecond = Double.parseDouble(args[1]);
+        long durationSeconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+        ArrivalProcess arrivalProcess = args.length > 3 ? ArrivalProcess.valueOf(args[3]) : ArrivalProcess.POISSON;
+        int brokerCount = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        long warmupSeconds = args.length > 5 ? Long.parseLong(args[5]) : 5;
+
+        List<Broker> brokers = LoadGenerator.createBrokers(brokerCount);
+        StockMarket stockMarket = new StockMarket(companies, brokers, new CachedClock(SystemClock.INSTANCE, 1_000_000));
+        stockMarket.getOperationBooks().keySet().forEach(asset -> stockMarket.usePriceLadder(asset, 50, 1_000));
+        stockMarket.useOffHeapArchives();
+        stockMarket.startProcessingOperations(ProcessingMode.SHARDED);
+
+        LoadProfile profile = new LoadProfile(ordersPerSecond, arrivalProcess, warmupSeconds * 1_000_000_000L, durationSeconds * 1_000_000_000L,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+        System.err.println(new LoadGenerator(stockMarket, brokers, System.nanoTime()).run(profile));
+        stockMarket.stopProcessingOperations();
+
+    }
+
+    /**
+     * Replays a recorded order file with a virtual clock, writing the executed trades to the standard output
+     * and the report of the replay to the standard error.
+     *
+     * @param companies the companies of the stock market.
+     * @param brokers   the brokers of the stock market.
+     * @param args      the arguments: "replay", the path of the order file and, optionally, the speed (0 by default, as fast as possible).
+     * @throws IOException if the order file cannot be read.
+     */
+    private static void replay(Set<Company> companies, Set<Broker> brokers, String[] args) throws IOException {
+
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: replay <orders.csv> [speed]");
+        }
+
+        StockMarket stockMarket = new StockMarket(companies, brokers, new VirtualClock());
+        Writer tradeOutput = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        OrderFileReplayer orderFileReplayer = new OrderFileReplayer(stockMarket, tradeOutput);
+
+        try (BufferedReader orders = Files.newBufferedReader(Path.of(args[1]))) {
+            System.err.println(orderFileReplayer.replay(orders, args.length > 2 ? Double.parseDouble(args[2]) : 0));
+        }
+
+        tradeOutput.flush();
+        stockMarket.stopProcessingOperations();
+
+    }
+
 }
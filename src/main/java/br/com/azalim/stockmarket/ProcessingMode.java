@@ -0,0 +1,26 @@
+package br.com.azalim.stockmarket;
+
+/**
+ * Represents how the stock market processes the operations registered to its operation books.
+ */
+public enum ProcessingMode {
+
+    /**
+     * Every operation book is processed as a whole every one second.
+     */
+    POLLING,
+
+    /**
+     * Every operation is processed right away, by the thread that registers it.
+     * Operation books that receive no operations cost nothing.
+     */
+    CONTINUOUS,
+
+    /**
+     * Every operation is processed right away by the shard its asset is pinned to.
+     * Each shard is a single thread, so the shards process different assets in parallel
+     * while the operations of each asset are always processed in the order they were registered.
+     */
+    SHARDED;
+
+}
@@ -3,12 +3,17 @@ package br.com.azalim.stockmarket;
 import br.com.azalim.stockmarket.asset.Asset;
 import br.com.azalim.stockmarket.asset.MarketType;
 import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.observer.dispatch.AsyncTransactionObserver;
+import br.com.azalim.stockmarket.observer.dispatch.BackpressurePolicy;
 import br.com.azalim.stockmarket.observer.impl.OperationBookObserver;
+import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
 import br.com.azalim.stockmarket.operation.Operation;
 import br.com.azalim.stockmarket.operation.OperationFactory;
 import br.com.azalim.stockmarket.operation.info.InfoOperation;
 import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
 import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.risk.RiskViolationException;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -95,10 +100,12 @@ public class Simulation {
 
         log("Observing transactions...");
 
-        StockMarket.getInstance().observe((from, to, asset, quantity, price) ->
+        TransactionObserver transactionObserver = (from, to, asset, quantity, price) ->
                 log(ansi().fgGreen().a("New transaction! ").reset().a(quantity).a(" shares of ").a(asset)
-                        .a(" were transfered from ").a(from).a(" to ").a(to).a("."))
-        );
+                        .a(" were transfered from ").a(from).a(" to ").a(to).a("."));
+
+        // Printing is slow, so the transactions are printed by another thread and merged if it falls behind
+        StockMarket.getInstance().observe(new AsyncTransactionObserver(transactionObserver, BackpressurePolicy.COALESCE, 1024));
 
     }
 
@@ -148,11 +155,16 @@ public class Simulation {
             log(ansi().fgGreen().a("New offer! ").reset().a(broker).a(" wants to ")
                     .a(offerOperation.getType() == OfferOperationType.BUY ? "buy " : "sell ")
                     .a(offerOperation.getQuantity()).a(" shares of ").a(offerOperation.getAsset())
-                    .a(" for ").a(offerOperation.getPrice()).a(" each."));
+                    .a(offerOperation.getKind() == OfferOperationKind.MARKET ? " at any price" : " for " + offerOperation.getPrice() + " each")
+                    .a(offerOperation.getKind() == OfferOperationKind.LIMIT ? "." : " (" + offerOperation.getKind() + ")."));
 
         }
 
-        StockMarket.getInstance().getOperationBook(randomAsset).register(randomOperation);
+        try {
+            StockMarket.getInstance().getOperationBook(randomAsset).register(randomOperation);
+        } catch (RiskViolationException e) {
+            log(ansi().fgRed().a("Rejected! ").reset().a(e.getMessage()).a("."));
+        }
 
     }
 
@@ -196,10 +208,13 @@ public class Simulation {
         int randomQuantity = asset.getMarketType() == MarketType.COMMON
                 ? RANDOM.nextInt(1, 16) * 100 // random multiple of 100 from 100 to 1500
                 : RANDOM.nextInt(1, 100); // random integer value from 1 to 99
-        double randomPrice = RANDOM.nextInt(1, 10001) / 100D; // random double value from 1 to 100 with two decimal cases
+        double randomPrice = asset.toPrice(RANDOM.nextLong(1, asset.toTicks(100) + 1)); // random multiple of the tick size up to 100
+        OfferOperationKind randomOfferOperationKind = RANDOM.nextDouble() < 0.5D
+                ? OfferOperationKind.LIMIT // half of the offers rest in the book
+                : OfferOperationKind.values()[RANDOM.nextInt(1, OfferOperationKind.values().length)];
 
         return OperationFactory.createOfferOperation(
-                broker, asset, randomOfferOperationType, randomQuantity, randomPrice
+                broker, asset, randomOfferOperationType, randomOfferOperationKind, randomQuantity, randomPrice
         );
 
     }
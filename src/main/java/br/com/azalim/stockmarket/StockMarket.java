@@ -3,10 +3,15 @@ package br.com.azalim.stockmarket;
 import br.com.azalim.stockmarket.asset.Asset;
 import br.com.azalim.stockmarket.asset.MarketType;
 import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.Clock;
+import br.com.azalim.stockmarket.clock.SystemClock;
 import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.engine.MatchingEngine;
 import br.com.azalim.stockmarket.observer.Observable;
 import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
 import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.persistence.Journal;
+import br.com.azalim.stockmarket.risk.RiskManager;
 
 import java.util.*;
 import java.util.concurrent.Executors;
@@ -33,10 +38,36 @@ public class StockMarket implements Observable<TransactionObserver> {
      */
     private Set<Broker> brokers = new HashSet<>();
 
+    /**
+     * The source of time of the stock market.
+     */
+    private final Clock clock;
+
     /**
      * The observers of the transactions.
+     * The array is replaced when an observer subscribes, so notifying them never allocates.
+     */
+    private volatile TransactionObserver[] observers = new TransactionObserver[0];
+
+    /**
+     * The mode used to process the registered operations, or null if they are not being processed.
+     */
+    private ProcessingMode processingMode;
+
+    /**
+     * The sharded matching engine, or null if the operations are not being processed in sharded mode.
+     */
+    private MatchingEngine matchingEngine;
+
+    /**
+     * The journal that records the offers and trades of every operation book, or null if they are not journaled.
+     */
+    private volatile Journal journal;
+
+    /**
+     * The pre-trade risk stage that checks the operations registered to every operation book, or null if they are not checked.
      */
-    private final Set<TransactionObserver> observers = new HashSet<>();
+    private volatile RiskManager riskManager;
 
     /**
      * The executor service that runs the processing of the registered operations.
@@ -50,15 +81,29 @@ public class StockMarket implements Observable<TransactionObserver> {
     });
 
     /**
-     * Creates a new stock market.
+     * Creates a new stock market that uses the wall clock of the system.
      *
      * @param companies the companies of the stock market.
      * @param brokers   the brokers of the stock market.
      */
     public StockMarket(Collection<Company> companies, Collection<Broker> brokers) {
+        this(companies, brokers, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Creates a new stock market.
+     *
+     * @param companies the companies of the stock market.
+     * @param brokers   the brokers of the stock market.
+     * @param clock     the source of time of the stock market.
+     */
+    public StockMarket(Collection<Company> companies, Collection<Broker> brokers, Clock clock) {
 
         Objects.requireNonNull(companies);
         Objects.requireNonNull(brokers);
+        Objects.requireNonNull(clock);
+
+        this.clock = clock;
 
         if (!Utils.isJUnitTest()) { // No singleton behaviour when unit testing
 
@@ -82,7 +127,7 @@ public class StockMarket implements Observable<TransactionObserver> {
 
                 })
                 .map(Asset.class::cast)
-                .forEach(stock -> this.operationBooks.put(stock, new OperationBook())));
+                .forEach(stock -> this.operationBooks.put(stock, new OperationBook(clock))));
 
         this.operationBooks = Collections.unmodifiableMap(this.operationBooks);
 
@@ -126,27 +171,150 @@ public class StockMarket implements Observable<TransactionObserver> {
         return this.brokers;
     }
 
+    /**
+     * @return the source of time of the stock market.
+     */
+    public Clock getClock() {
+        return this.clock;
+    }
+
     /**
      * Starts processing the registered operations every one second.
      */
     public void startProcessingOperations() {
+        this.startProcessingOperations(ProcessingMode.POLLING);
+    }
+
+    /**
+     * Starts processing the registered operations using the given mode.
+     * The sharded mode uses one shard for each available processor.
+     *
+     * @param processingMode the mode used to process the registered operations.
+     * @throws IllegalStateException if the operations are already being processed.
+     */
+    public void startProcessingOperations(ProcessingMode processingMode) {
+        this.startProcessingOperations(processingMode, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts processing the registered operations using the given mode.
+     *
+     * @param processingMode the mode used to process the registered operations.
+     * @param shardCount     the number of shards of the sharded mode. Ignored by the other modes.
+     * @throws IllegalStateException if the operations are already being processed.
+     */
+    public synchronized void startProcessingOperations(ProcessingMode processingMode, int shardCount) {
 
-        this.getOperationBooks().values().forEach(operationBook -> this.operationProcessorExecutorService.scheduleWithFixedDelay(
-                () -> operationBook.processOperations(this),
-                1, 1, TimeUnit.SECONDS
-        ));
+        Objects.requireNonNull(processingMode);
+
+        if (this.processingMode != null) {
+            throw new IllegalStateException("Operations are already being processed: " + this.processingMode);
+        }
+
+        this.processingMode = processingMode;
+
+        switch (processingMode) {
+            case POLLING -> this.getOperationBooks().values().forEach(operationBook -> this.operationProcessorExecutorService.scheduleWithFixedDelay(
+                    () -> operationBook.processOperations(this),
+                    1, 1, TimeUnit.SECONDS
+            ));
+            case CONTINUOUS -> this.getOperationBooks().values().forEach(operationBook -> operationBook.startContinuousProcessing(this));
+            case SHARDED -> {
+                this.matchingEngine = new MatchingEngine(this.getOperationBooks().keySet(), shardCount);
+                this.getOperationBooks().forEach((asset, operationBook) -> operationBook.startContinuousProcessing(this, this.matchingEngine.getShard(asset)));
+            }
+        }
 
     }
 
     /**
-     * Shutdowns the executor service that processes the registered operations.
+     * Stops processing the registered operations and shutdowns the executor service that processes them.
      */
-    public void stopProcessingOperations() {
+    public synchronized void stopProcessingOperations() {
+
+        if (this.processingMode == ProcessingMode.CONTINUOUS || this.processingMode == ProcessingMode.SHARDED) {
+            this.getOperationBooks().values().forEach(OperationBook::stopContinuousProcessing);
+        }
+
+        if (this.matchingEngine != null) {
+            this.matchingEngine.shutdown();
+            this.matchingEngine = null;
+        }
+
+        this.processingMode = null;
         this.operationProcessorExecutorService.shutdown();
+
+    }
+
+    /**
+     * @return the mode used to process the registered operations, or null if they are not being processed.
+     */
+    public synchronized ProcessingMode getProcessingMode() {
+        return this.processingMode;
+    }
+
+    /**
+     * @return the journal that records the offers and trades of every operation book, or null if they are not journaled.
+     */
+    public Journal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Starts or stops recording the offers and trades of every operation book.
+     * To recover from a previous run, the journal should be replayed by a
+     * {@link br.com.azalim.stockmarket.persistence.JournalReplayer} before being set.
+     *
+     * @param journal the journal to record to, or null to stop recording.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+        this.getOperationBooks().values().forEach(operationBook -> operationBook.setJournal(journal));
+    }
+
+    /**
+     * @return the pre-trade risk stage that checks the operations registered to every operation book, or null if they are not checked.
+     */
+    public RiskManager getRiskManager() {
+        return this.riskManager;
+    }
+
+    /**
+     * Starts or stops checking the operations registered to every operation book against the limits of their brokers.
+     * Offers registered before the risk manager is set are not reserved in it.
+     *
+     * @param riskManager the risk stage to check with, or null to stop checking.
+     */
+    public void setRiskManager(RiskManager riskManager) {
+        this.riskManager = riskManager;
+        this.getOperationBooks().values().forEach(operationBook -> operationBook.setRiskManager(riskManager));
+    }
+
+    /**
+     * Keeps the price levels of the operation book of an asset in arrays indexed by price, over a band around a reference
+     * price, which suits assets that trade in a narrow band of ticks. Prices outside of the band are still accepted.
+     *
+     * @param asset          the asset of the operation book.
+     * @param referencePrice the price in the middle of the band. It must be a multiple of the tick size of the asset.
+     * @param bandTicks      the number of ticks of the band above and below the reference price.
+     * @throws IllegalArgumentException if the asset does not exist.
+     */
+    public void usePriceLadder(Asset asset, double referencePrice, int bandTicks) {
+        this.getOperationBook(asset).usePriceLadder(asset.toTicks(referencePrice), bandTicks);
+    }
+
+    /**
+     * Keeps the offers that every operation book retires off the heap, as fixed-size records.
+     * It should be called before the books start processing operations.
+     */
+    public void useOffHeapArchives() {
+        this.getOperationBooks().values().forEach(OperationBook::useOffHeapArchive);
     }
 
     /**
      * Notifies the observers that a new transaction has been registered.
+     * The observers are called by the thread that executed the transaction, so slow observers
+     * should be decorated with {@link br.com.azalim.stockmarket.observer.dispatch.AsyncTransactionObserver}.
      *
      * @param from     the broker that sold the asset.
      * @param to       the broker that bought the asset.
@@ -155,7 +323,9 @@ public class StockMarket implements Observable<TransactionObserver> {
      * @param price    the price of the asset that was bought and sold.
      */
     public void notifyTransactionObservers(Broker from, Broker to, Asset asset, int quantity, double price) {
-        this.observers.forEach(transactionObserver -> transactionObserver.onNewTransactionRegistered(from, to, asset, quantity, price));
+        for (TransactionObserver observer : this.observers) {
+            observer.onNewTransactionRegistered(from, to, asset, quantity, price);
+        }
     }
 
     /**
@@ -164,9 +334,16 @@ public class StockMarket implements Observable<TransactionObserver> {
      * @param observer the observer that is going to be notified when new transactions are registered.
      */
     @Override
-    public void observe(TransactionObserver observer) {
+    public synchronized void observe(TransactionObserver observer) {
+
         Objects.requireNonNull(observer);
-        this.observers.add(observer);
+
+        if (!Arrays.asList(this.observers).contains(observer)) {
+            TransactionObserver[] observers = Arrays.copyOf(this.observers, this.observers.length + 1);
+            observers[observers.length - 1] = observer;
+            this.observers = observers;
+        }
+
     }
 
     /**
@@ -174,7 +351,7 @@ public class StockMarket implements Observable<TransactionObserver> {
      */
     @Override
     public Collection<TransactionObserver> getObservers() {
-        return Collections.unmodifiableSet(this.observers);
+        return List.of(this.observers);
     }
 
     /**
@@ -1,7 +1,44 @@
 package br.com.azalim.stockmarket;
 
+import java.time.Instant;
+import java.util.concurrent.locks.LockSupport;
+
 public class Utils {
 
+    /**
+     * Converts an instant to the number of nanoseconds since the epoch.
+     *
+     * @param instant the instant to be converted.
+     * @return the number of nanoseconds since the epoch, clamped to {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE}
+     * for the instants too far from the epoch, around the years 1677 and 2262.
+     */
+    public static long toEpochNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Waits until the given time of {@link System#nanoTime()}, parking while it is far and spinning when it is close.
+     *
+     * @param nanoTime the time to wait for.
+     */
+    public static void awaitUntil(long nanoTime) {
+
+        long remaining;
+
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            if (remaining > 50_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+    }
+
     /**
      * Checks if the current thread is a JUnit test. This is useful to avoid
      * singleton design pattern restrictions when unit testing.
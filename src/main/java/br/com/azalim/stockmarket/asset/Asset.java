@@ -11,6 +11,11 @@ import static org.fusesource.jansi.Ansi.ansi;
  */
 public class Asset {
 
+    /**
+     * The tick size of the assets created without one, which is the cent B3 equities are quoted in.
+     */
+    public static final double DEFAULT_TICK_SIZE = 0.01;
+
     /**
      * The parent asset of the asset. For example, PETR4F's parent asset is PETR4.
      */
@@ -36,6 +41,12 @@ public class Asset {
      */
     private final String symbol;
 
+    /**
+     * The number of ticks in a unit of price. Prices are kept as whole numbers of ticks by the matching engine,
+     * so they are compared exactly, and only converted to and from doubles at the edges of the stock market.
+     */
+    private final long ticksPerUnit;
+
     /**
      * Creates an asset with itself as its parent asset.
      *
@@ -44,34 +55,57 @@ public class Asset {
      * @param marketType the market type of the asset.
      */
     public Asset(Company company, AssetType assetType, MarketType marketType) {
-        this(null, company, assetType, marketType);
+        this(company, assetType, marketType, DEFAULT_TICK_SIZE);
+    }
+
+    /**
+     * Creates an asset with itself as its parent asset and a given tick size.
+     *
+     * @param company    the company that the asset is related to.
+     * @param assetType  the type of the asset.
+     * @param marketType the market type of the asset.
+     * @param tickSize   the smallest price increment of the asset. It must divide a unit of price, like 0.01 or 0.05.
+     */
+    public Asset(Company company, AssetType assetType, MarketType marketType, double tickSize) {
+        this(null, company, assetType, marketType, tickSize);
     }
 
     /**
-     * Creates an asset with a given parent assent.
+     * Creates an asset with a given parent assent, sharing its tick size.
      *
      * @param parentAsset the parent asset of the asset. For example, PETR4F's parent asset should be PETR4.
      * @param marketType  the market type of the asset.
      */
     public Asset(Asset parentAsset, MarketType marketType) {
-        this(parentAsset, parentAsset.getCompany(), parentAsset.getShareType(), marketType);
+        this(parentAsset, parentAsset.getCompany(), parentAsset.getShareType(), marketType, parentAsset.getTickSize());
     }
 
     /**
-     * Creates an asset with a given parent asset, company, asset type and market type.
+     * Creates an asset with a given parent asset, company, asset type, market type and tick size.
      * This constructor is private because it should only be used by the other constructors.
      *
      * @param parentAsset the parent asset of the asset. For example, PETR4F's parent asset should be PETR4.
      * @param company     the company that the asset is related to.
      * @param assetType   the type of the asset.
      * @param marketType  the market type of the asset.
+     * @param tickSize    the smallest price increment of the asset.
      */
-    private Asset(Asset parentAsset, Company company, AssetType assetType, MarketType marketType) {
+    private Asset(Asset parentAsset, Company company, AssetType assetType, MarketType marketType, double tickSize) {
+
+        // The tick size is kept as the number of ticks in a unit, so converting ticks to prices is a single exact division
+        long ticksPerUnit = Math.round(1 / tickSize);
+
+        if (!(tickSize > 0) || ticksPerUnit <= 0 || Math.abs(1D / ticksPerUnit - tickSize) > 1e-12) {
+            throw new IllegalArgumentException("Tick size must divide a unit of price: " + tickSize);
+        }
+
         this.parentAsset = parentAsset == null ? this : parentAsset;
         this.company = company;
         this.assetType = assetType;
         this.marketType = marketType;
         this.symbol = this.company.getSymbol() + assetType.getSuffix() + marketType.getSuffix();
+        this.ticksPerUnit = ticksPerUnit;
+
     }
 
     /**
@@ -102,6 +136,47 @@ public class Asset {
         return parentAsset;
     }
 
+    /**
+     * @return the smallest price increment of the asset.
+     */
+    public double getTickSize() {
+        return 1D / this.ticksPerUnit;
+    }
+
+    /**
+     * Converts a price to ticks of the asset.
+     *
+     * @param price the price.
+     * @return the price as a whole number of ticks.
+     * @throws IllegalArgumentException if the price is not finite or is not a multiple of the tick size.
+     */
+    public long toTicks(double price) {
+
+        if (!Double.isFinite(price)) {
+            throw new IllegalArgumentException("Price must be a finite number: " + price);
+        }
+
+        double ticks = price * this.ticksPerUnit;
+        long roundedTicks = Math.round(ticks);
+
+        if (Math.abs(ticks - roundedTicks) > 1e-6) {
+            throw new IllegalArgumentException("Price is not a multiple of the tick size of " + this.symbol + ": " + price);
+        }
+
+        return roundedTicks;
+
+    }
+
+    /**
+     * Converts ticks of the asset to a price.
+     *
+     * @param ticks the price as a whole number of ticks.
+     * @return the price, as the double closest to it.
+     */
+    public double toPrice(long ticks) {
+        return ticks / (double) this.ticksPerUnit;
+    }
+
     /**
      * @return the symbol of the asset, like PETR4F or BOVA11.
      */
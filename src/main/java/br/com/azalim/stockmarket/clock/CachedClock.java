@@ -0,0 +1,101 @@
+package br.com.azalim.stockmarket.clock;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents a coarse clock that caches the time of another clock, refreshed by a background thread
+ * named "Cached Clock" at a fixed resolution. Reading it is a single volatile read, which is much cheaper
+ * than reading the wall clock on every order and trade, at the cost of timestamps being up to one resolution old.
+ */
+public class CachedClock implements Clock, Closeable {
+
+    /**
+     * The clock whose time is cached.
+     */
+    private final Clock source;
+
+    /**
+     * The time between refreshes, in nanoseconds.
+     */
+    private final long resolutionNanos;
+
+    /**
+     * The cached time, in nanoseconds since the epoch.
+     */
+    private volatile long epochNanos;
+
+    /**
+     * Indicates if the clock is still being refreshed.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates a cached clock and starts refreshing it.
+     *
+     * @param source          the clock whose time is cached.
+     * @param resolutionNanos the time between refreshes, in nanoseconds.
+     */
+    public CachedClock(Clock source, long resolutionNanos) {
+
+        Objects.requireNonNull(source);
+
+        if (resolutionNanos <= 0) {
+            throw new IllegalArgumentException("Resolution must be greater than 0: " + resolutionNanos);
+        }
+
+        this.source = source;
+        this.resolutionNanos = resolutionNanos;
+        this.epochNanos = source.epochNanos();
+
+        Thread thread = new Thread(this::refresh);
+        thread.setName("Cached Clock");
+        thread.setDaemon(true);
+        thread.start();
+
+    }
+
+    /**
+     * @return the cached time, in nanoseconds since the epoch. It never goes backwards.
+     */
+    @Override
+    public long epochNanos() {
+        return this.epochNanos;
+    }
+
+    /**
+     * @return the time between refreshes, in nanoseconds.
+     */
+    public long getResolutionNanos() {
+        return this.resolutionNanos;
+    }
+
+    /**
+     * Stops refreshing the clock. The cached time is frozen afterwards.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+    }
+
+    /**
+     * Refreshes the cached time until the clock is closed.
+     */
+    private void refresh() {
+
+        while (this.running) {
+
+            LockSupport.parkNanos(this.resolutionNanos);
+
+            long epochNanos = this.source.epochNanos();
+
+            if (epochNanos > this.epochNanos) {
+                this.epochNanos = epochNanos;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package br.com.azalim.stockmarket.clock;
+
+/**
+ * Represents the source of time of the stock market.
+ * Timestamps are primitive nanoseconds since the epoch, so reading them does not allocate.
+ */
+public interface Clock {
+
+    /**
+     * @return the current time, in nanoseconds since the epoch.
+     */
+    long epochNanos();
+
+}
@@ -0,0 +1,25 @@
+package br.com.azalim.stockmarket.clock;
+
+import br.com.azalim.stockmarket.Utils;
+
+import java.time.Instant;
+
+/**
+ * Represents the wall clock of the system.
+ */
+public class SystemClock implements Clock {
+
+    /**
+     * The shared instance, for the places that have no clock injected.
+     */
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    /**
+     * @return the current time of the system, in nanoseconds since the epoch.
+     */
+    @Override
+    public long epochNanos() {
+        return Utils.toEpochNanos(Instant.now());
+    }
+
+}
@@ -0,0 +1,65 @@
+package br.com.azalim.stockmarket.clock;
+
+/**
+ * Represents a clock that only moves when it is told to, like when replaying recorded orders or testing.
+ * It never goes backwards, so timestamps taken from it are always in order.
+ */
+public class VirtualClock implements Clock {
+
+    /**
+     * The current time, in nanoseconds since the epoch.
+     */
+    private volatile long epochNanos;
+
+    /**
+     * Creates a virtual clock at the epoch.
+     */
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * Creates a virtual clock.
+     *
+     * @param epochNanos the initial time, in nanoseconds since the epoch.
+     */
+    public VirtualClock(long epochNanos) {
+        this.epochNanos = epochNanos;
+    }
+
+    /**
+     * @return the current time of the clock, in nanoseconds since the epoch.
+     */
+    @Override
+    public long epochNanos() {
+        return this.epochNanos;
+    }
+
+    /**
+     * Moves the clock forward to the given time. Earlier times are ignored.
+     *
+     * @param epochNanos the new time, in nanoseconds since the epoch.
+     */
+    public synchronized void advanceTo(long epochNanos) {
+        if (epochNanos > this.epochNanos) {
+            this.epochNanos = epochNanos;
+        }
+    }
+
+    /**
+     * Moves the clock forward by the given duration.
+     *
+     * @param nanos the duration, in nanoseconds.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public synchronized void advance(long nanos) {
+
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Cannot move the clock backwards: " + nanos);
+        }
+
+        this.epochNanos += nanos;
+
+    }
+
+}
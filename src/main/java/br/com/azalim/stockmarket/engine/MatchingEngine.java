@@ -0,0 +1,115 @@
+package br.com.azalim.stockmarket.engine;
+
+import br.com.azalim.stockmarket.asset.Asset;
+
+import java.util.*;
+
+/**
+ * Represents a sharded matching engine. Every asset is pinned to one of its shards, and each shard
+ * is a single thread that processes the operations of its assets in the order they were published
+ * to the ring buffer of the shard.
+ * Fractional assets are always pinned to the same shard as their parent assets, so every position
+ * of a broker wallet is updated by a single thread.
+ */
+public class MatchingEngine {
+
+    /**
+     * The default capacity of the ring buffer of each shard.
+     */
+    public static final int DEFAULT_RING_BUFFER_CAPACITY = 1 << 16;
+
+    /**
+     * The shards of the engine.
+     */
+    private final MatchingShard[] shards;
+
+    /**
+     * The index of the shard of each parent asset.
+     */
+    private final Map<Asset, Integer> shardIndexes = new HashMap<>();
+
+    /**
+     * Creates a matching engine and spreads the given assets over its shards.
+     * The parent assets are sorted by symbol and assigned to the shards in turns,
+     * so the same assets always end up in the same shards.
+     *
+     * @param assets     the assets to be processed by the engine.
+     * @param shardCount the number of shards, usually the number of available processors.
+     */
+    public MatchingEngine(Collection<Asset> assets, int shardCount) {
+        this(assets, shardCount, DEFAULT_RING_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Creates a matching engine and spreads the given assets over its shards.
+     * The parent assets are sorted by symbol and assigned to the shards in turns,
+     * so the same assets always end up in the same shards.
+     *
+     * @param assets             the assets to be processed by the engine.
+     * @param shardCount         the number of shards, usually the number of available processors.
+     * @param ringBufferCapacity the capacity of the ring buffer of each shard. Must be a power of two.
+     */
+    public MatchingEngine(Collection<Asset> assets, int shardCount, int ringBufferCapacity) {
+
+        Objects.requireNonNull(assets);
+
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0: " + shardCount);
+        }
+
+        this.shards = new MatchingShard[shardCount];
+
+        for (int index = 0; index < shardCount; index++) {
+            this.shards[index] = new MatchingShard("Matching Shard #" + index, ringBufferCapacity);
+        }
+
+        assets.stream()
+                .map(Asset::getParentAsset)
+                .distinct()
+                .sorted(Comparator.comparing(Asset::getSymbol))
+                .forEach(parentAsset -> this.shardIndexes.put(parentAsset, this.shardIndexes.size() % shardCount));
+
+    }
+
+    /**
+     * @return the number of shards of the engine.
+     */
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * @param asset the asset whose shard is going to be retrieved.
+     * @return the index of the shard the given asset is pinned to.
+     * @throws IllegalArgumentException if the asset is not processed by the engine.
+     */
+    public int getShardIndex(Asset asset) {
+
+        Objects.requireNonNull(asset);
+
+        Integer shardIndex = this.shardIndexes.get(asset.getParentAsset());
+
+        if (shardIndex == null) {
+            throw new IllegalArgumentException("The asset is not processed by the engine: " + asset);
+        }
+
+        return shardIndex;
+
+    }
+
+    /**
+     * @param asset the asset whose shard is going to be retrieved.
+     * @return the shard the given asset is pinned to.
+     */
+    public MatchingShard getShard(Asset asset) {
+        return this.shards[this.getShardIndex(asset)];
+    }
+
+    /**
+     * Shutdowns every shard. The operations already submitted are still processed.
+     */
+    public void shutdown() {
+        Arrays.stream(this.shards).forEach(MatchingShard::shutdown);
+    }
+
+}
@@ -0,0 +1,194 @@
+package br.com.azalim.stockmarket.engine;
+
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents a shard of the matching engine: a single thread that drains the operations
+ * published to its ring buffer and hands them to their operation books in batches.
+ * When there is nothing to drain, the thread spins for a while and then parks until
+ * a producer publishes a new operation.
+ * <p>
+ * An operation whose handling throws is logged and counted, and the shard moves on to the next one.
+ * If the thread still dies, its ring buffer is closed, so producers fail instead of waiting for it forever.
+ */
+public class MatchingShard {
+
+    /**
+     * The maximum number of operations handled before the slots of the ring buffer are released.
+     */
+    private static final int MAX_BATCH = 256;
+
+    /**
+     * The number of empty drains the thread spins before parking.
+     */
+    private static final int SPINS_BEFORE_PARKING = 1000;
+
+    /**
+     * The ring buffer where the registered operations are published.
+     */
+    private final OperationRingBuffer ringBuffer;
+
+    /**
+     * The thread that drains the ring buffer.
+     */
+    private final Thread thread;
+
+    /**
+     * The number of operations whose handling threw an exception.
+     */
+    private final AtomicLong failedOperations = new AtomicLong();
+
+    /**
+     * The handler that adds each drained operation to its book, isolating the failure of each operation.
+     */
+    private final OperationHandler handler = this::accept;
+
+    /**
+     * Indicates if the shard accepts new operations.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Indicates if the thread is parked, waiting for new operations.
+     */
+    private volatile boolean parked = false;
+
+    /**
+     * Creates and starts a shard.
+     *
+     * @param name     the name of the shard thread.
+     * @param capacity the capacity of the ring buffer of the shard. Must be a power of two.
+     */
+    public MatchingShard(String name, int capacity) {
+
+        this.ringBuffer = new OperationRingBuffer(capacity);
+
+        this.thread = new Thread(this::run);
+        this.thread.setName(name);
+        this.thread.setUncaughtExceptionHandler((t, e) -> e.printStackTrace());
+        this.thread.start();
+
+    }
+
+    /**
+     * Publishes a registered operation to be processed by this shard.
+     *
+     * @param operationBook the operation book where the operation was registered.
+     * @param operation     the registered operation.
+     * @param entryNanos    the value of {@link System#nanoTime()} when the operation was registered.
+     * @throws IllegalStateException if the shard has been shut down.
+     */
+    public void publish(OperationBook operationBook, Operation operation, long entryNanos) {
+
+        if (!this.running) {
+            throw new IllegalStateException("The shard has been shut down: " + this.thread.getName());
+        }
+
+        this.ringBuffer.publish(operationBook, operation, entryNanos);
+
+        if (this.parked) {
+            LockSupport.unpark(this.thread);
+        }
+
+    }
+
+    /**
+     * Stops accepting new operations. The operations already published are still processed.
+     */
+    public void shutdown() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+    }
+
+    /**
+     * @return the number of operations published and not processed yet.
+     */
+    public int getPendingOperations() {
+        return this.ringBuffer.size();
+    }
+
+    /**
+     * @return the number of operations whose handling threw an exception.
+     */
+    public long getFailedOperations() {
+        return this.failedOperations.get();
+    }
+
+    /**
+     * @return true if the thread of the shard is still draining its ring buffer, false otherwise.
+     */
+    public boolean isAlive() {
+        return this.thread.isAlive();
+    }
+
+    /**
+     * Adds a drained operation to its book, logging and counting the exception if it throws,
+     * so a failing observer, journal or risk check does not stop the shard.
+     *
+     * @param operationBook the operation book where the operation was registered.
+     * @param operation     the registered operation.
+     * @param entryNanos    the value of {@link System#nanoTime()} when the operation was registered.
+     */
+    private void accept(OperationBook operationBook, Operation operation, long entryNanos) {
+
+        try {
+            operationBook.accept(operation, entryNanos);
+        } catch (RuntimeException e) {
+            this.failedOperations.incrementAndGet();
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * Drains the ring buffer until the shard is shut down and every published operation is processed.
+     * The ring buffer is closed when the thread stops, normally or not.
+     */
+    private void run() {
+
+        try {
+            this.drainUntilShutdown();
+        } finally {
+            this.running = false;
+            this.ringBuffer.close();
+        }
+
+    }
+
+    /**
+     * Drains the ring buffer until the shard is shut down and every published operation is processed.
+     */
+    private void drainUntilShutdown() {
+
+        int idleDrains = 0;
+
+        while (this.running || this.ringBuffer.size() > 0) {
+
+            if (this.ringBuffer.drain(this.handler, MAX_BATCH) > 0) {
+                idleDrains = 0;
+                continue;
+            }
+
+            if (++idleDrains < SPINS_BEFORE_PARKING) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            this.parked = true;
+
+            if (this.running && this.ringBuffer.size() == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+
+            this.parked = false;
+
+        }
+
+    }
+
+}
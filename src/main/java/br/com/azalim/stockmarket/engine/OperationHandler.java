@@ -0,0 +1,21 @@
+package br.com.azalim.stockmarket.engine;
+
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+
+/**
+ * Represents the handler of the operations drained from an {@link OperationRingBuffer}.
+ */
+@FunctionalInterface
+public interface OperationHandler {
+
+    /**
+     * Handles a drained operation.
+     *
+     * @param operationBook the operation book where the operation was registered.
+     * @param operation     the registered operation.
+     * @param entryNanos    the value of {@link System#nanoTime()} when the operation was registered.
+     */
+    void handle(OperationBook operationBook, Operation operation, long entryNanos);
+
+}
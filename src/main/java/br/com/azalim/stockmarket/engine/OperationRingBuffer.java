@@ -0,0 +1,261 @@
+package br.com.azalim.stockmarket.engine;
+
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents a bounded, preallocated ring buffer of registered operations, with many producers and a single consumer.
+ * Producers claim a sequence with a compare-and-set, write their operation to the slot of that sequence and then
+ * publish it, without taking locks or allocating. The consumer drains the published operations in batches and
+ * releases their slots once the batch is handled, even if the handler throws. When the buffer is full, producers
+ * spin and then back off while waiting for the consumer, and fail once the buffer is closed because the consumer stopped.
+ */
+public class OperationRingBuffer {
+
+    /**
+     * The number of times a producer spins on a full buffer before backing off.
+     */
+    private static final int SPINS_BEFORE_BACKING_OFF = 1000;
+
+    /**
+     * The longest time, in nanoseconds, a producer parks between two checks of a full buffer.
+     */
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+    /**
+     * The mask used to find the slot of a sequence. The capacity is always a power of two.
+     */
+    private final int mask;
+
+    /**
+     * The operation books of the slots.
+     */
+    private final OperationBook[] operationBooks;
+
+    /**
+     * The operations of the slots.
+     */
+    private final Operation[] operations;
+
+    /**
+     * The values of {@link System#nanoTime()} when the operations of the slots were registered.
+     */
+    private final long[] entryNanos;
+
+    /**
+     * The last sequence published to each slot, used by the consumer to know when a slot is ready.
+     */
+    private final AtomicLongArray publishedSequences;
+
+    /**
+     * The last sequence claimed by a producer.
+     */
+    private final AtomicLong producerSequence = new AtomicLong(-1);
+
+    /**
+     * The last sequence handled by the consumer.
+     */
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+
+    /**
+     * Indicates if the consumer stopped draining the buffer, so producers must not wait for free slots anymore.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the number of slots of the buffer. Must be a power of two.
+     */
+    public OperationRingBuffer(int capacity) {
+
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+
+        this.mask = capacity - 1;
+        this.operationBooks = new OperationBook[capacity];
+        this.operations = new Operation[capacity];
+        this.entryNanos = new long[capacity];
+        this.publishedSequences = new AtomicLongArray(capacity);
+
+        for (int index = 0; index < capacity; index++) {
+            this.publishedSequences.set(index, -1);
+        }
+
+    }
+
+    /**
+     * @return the number of slots of the buffer.
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return the number of operations published and not handled by the consumer yet.
+     */
+    public int size() {
+        return (int) (this.producerSequence.get() - this.consumerSequence.get());
+    }
+
+    /**
+     * Closes the buffer, making the producers waiting for a free slot, and any later one, fail.
+     * Must be called when the consumer stops draining the buffer, normally or not.
+     */
+    public void close() {
+        this.closed = true;
+    }
+
+    /**
+     * @return true if the buffer has been closed, false otherwise.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Publishes an operation to the buffer, waiting for a free slot if the buffer is full.
+     *
+     * @param operationBook the operation book where the operation was registered.
+     * @param operation     the registered operation.
+     * @throws IllegalStateException if the buffer is closed.
+     */
+    public void publish(OperationBook operationBook, Operation operation) {
+        this.publish(operationBook, operation, System.nanoTime());
+    }
+
+    /**
+     * Publishes an operation to the buffer, waiting for a free slot if the buffer is full.
+     *
+     * @param operationBook the operation book where the operation was registered.
+     * @param operation     the registered operation.
+     * @param entryNanos    the value of {@link System#nanoTime()} when the operation was registered.
+     * @throws IllegalStateException if the buffer is closed.
+     */
+    public void publish(OperationBook operationBook, Operation operation, long entryNanos) {
+
+        Objects.requireNonNull(operationBook);
+        Objects.requireNonNull(operation);
+
+        long sequence = this.claim();
+        int index = (int) sequence & this.mask;
+
+        this.operationBooks[index] = operationBook;
+        this.operations[index] = operation;
+        this.entryNanos[index] = entryNanos;
+        this.publishedSequences.setRelease(index, sequence);
+
+    }
+
+    /**
+     * Claims the next sequence, waiting while its slot has not been released by the consumer.
+     * The producer spins at first and then parks for exponentially longer times, up to {@link #MAX_BACKOFF_NANOS}.
+     *
+     * @return the claimed sequence.
+     * @throws IllegalStateException if the buffer is closed, or is closed while waiting.
+     */
+    private long claim() {
+
+        int spins = 0;
+        long backoffNanos = 1_000;
+
+        while (true) {
+
+            if (this.closed) {
+                throw new IllegalStateException("The consumer of the ring buffer has stopped");
+            }
+
+            long current = this.producerSequence.get();
+            long next = current + 1;
+
+            if (next - this.getCapacity() > this.consumerSequence.get()) {
+
+                if (++spins < SPINS_BEFORE_BACKING_OFF) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(backoffNanos);
+                    backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+                }
+
+                continue;
+
+            }
+
+            if (this.producerSequence.compareAndSet(current, next)) {
+                return next;
+            }
+
+        }
+
+    }
+
+    /**
+     * Hands the published operations to the given handler, in publishing order, and releases their slots.
+     * This method must always be called by the same thread.
+     *
+     * @param handler  the handler of the operations.
+     * @param maxBatch the maximum number of operations handled by this call.
+     * @return the number of operations handled.
+     */
+    public int drain(BiConsumer<OperationBook, Operation> handler, int maxBatch) {
+        Objects.requireNonNull(handler);
+        return this.drain((operationBook, operation, entryNanos) -> handler.accept(operationBook, operation), maxBatch);
+    }
+
+    /**
+     * Hands the published operations to the given handler, in publishing order, along with the time they
+     * were registered, and releases their slots. This method must always be called by the same thread.
+     * If the handler throws, the slots of the operations handled so far, including the one that failed,
+     * are still released before the exception is propagated.
+     *
+     * @param handler  the handler of the operations.
+     * @param maxBatch the maximum number of operations handled by this call.
+     * @return the number of operations handled.
+     */
+    public int drain(OperationHandler handler, int maxBatch) {
+
+        long first = this.consumerSequence.get() + 1;
+        long sequence = first;
+
+        try {
+
+            while (sequence - first < maxBatch) {
+
+                int index = (int) sequence & this.mask;
+
+                if (this.publishedSequences.getAcquire(index) != sequence) {
+                    break;
+                }
+
+                OperationBook operationBook = this.operationBooks[index];
+                Operation operation = this.operations[index];
+                long entryNanos = this.entryNanos[index];
+
+                this.operationBooks[index] = null;
+                this.operations[index] = null;
+
+                sequence++;
+                handler.handle(operationBook, operation, entryNanos);
+
+            }
+
+        } finally {
+
+            if (sequence != first) {
+                this.consumerSequence.setRelease(sequence - 1);
+            }
+
+        }
+
+        return (int) (sequence - first);
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package br.com.azalim.stockmarket.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Represents how the orders of a load generator are spread over time, for a given mean interval between them.
+ */
+public enum ArrivalProcess {
+
+    /**
+     * Every order arrives exactly one mean interval after the previous one.
+     */
+    CONSTANT,
+
+    /**
+     * The intervals between orders are exponentially distributed, like independent clients sending orders at random.
+     */
+    POISSON,
+
+    /**
+     * The orders arrive back to back in bursts of {@link #BURST_SIZE}, with exponentially distributed intervals
+     * between the bursts, so the mean rate is kept but the book sees short spikes of many times the rate.
+     */
+    BURSTY;
+
+    /**
+     * The number of orders of each burst of the bursty process.
+     */
+    public static final int BURST_SIZE = 32;
+
+    /**
+     * Calculates the interval between an order and the previous one.
+     *
+     * @param index              the index of the order, starting at 0.
+     * @param meanIntervalNanos  the mean interval between orders, in nanoseconds.
+     * @param random             the source of randomness.
+     * @return the interval before the order, in nanoseconds.
+     */
+    public long nextInterval(long index, double meanIntervalNanos, SplittableRandom random) {
+        return switch (this) {
+            case CONSTANT -> (long) meanIntervalNanos;
+            case POISSON -> exponential(meanIntervalNanos, random);
+            case BURSTY -> index % BURST_SIZE == 0 ? exponential(meanIntervalNanos * BURST_SIZE, random) : 0;
+        };
+    }
+
+    /**
+     * @param meanNanos the mean of the distribution, in nanoseconds.
+     * @param random    the source of randomness.
+     * @return an exponentially distributed interval, in nanoseconds.
+     */
+    private static long exponential(double meanNanos, SplittableRandom random) {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanNanos);
+    }
+
+}
@@ -0,0 +1,227 @@
+package br.com.azalim.stockmarket.load;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.Utils;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.metrics.LatencyHistogram;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.risk.RiskViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Offers a fixed rate of random orders to a stock market, on behalf of any number of brokers, and measures
+ * how fast they are acknowledged. The load is open-loop: the time each order should be sent is given by the
+ * arrival process alone, and a generator that falls behind sends the late orders right away instead of
+ * waiting for the stock market, so a slow acknowledgement delays the following orders like it would delay
+ * independent clients. The latency of each order is measured from the time it should have been sent,
+ * which corrects the coordinated omission a closed-loop generator would suffer.
+ * <p>
+ * The orders are limit and immediate-or-cancel offers around a reference price, with overlapping prices,
+ * so part of them trade and part of them rest in the books. An order is acknowledged when
+ * {@link br.com.azalim.stockmarket.operation.OperationBook#register} returns, which includes the
+ * matching when the stock market processes operations continuously and only the hand-off to the
+ * shard of the book when it processes them in sharded mode.
+ */
+public class LoadGenerator {
+
+    /**
+     * The price the orders are spread around.
+     */
+    private static final double REFERENCE_PRICE = 50;
+
+    /**
+     * The stock market the orders are sent to.
+     */
+    private final StockMarket stockMarket;
+
+    /**
+     * The brokers the orders are sent on behalf of.
+     */
+    private final List<Broker> brokers;
+
+    /**
+     * The assets the orders are sent for.
+     */
+    private final List<Asset> assets;
+
+    /**
+     * The source of randomness, split for each generator thread.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param stockMarket the stock market the orders are sent to. It must be processing operations.
+     * @param brokers     the brokers the orders are sent on behalf of.
+     * @param seed        the seed of the random orders.
+     */
+    public LoadGenerator(StockMarket stockMarket, List<Broker> brokers, long seed) {
+
+        Objects.requireNonNull(stockMarket);
+
+        if (brokers.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one broker");
+        }
+
+        this.stockMarket = stockMarket;
+        this.brokers = List.copyOf(brokers);
+        this.assets = List.copyOf(stockMarket.getOperationBooks().keySet());
+        this.random = new SplittableRandom(seed);
+
+    }
+
+    /**
+     * Creates simulated brokers to send the orders on behalf of.
+     *
+     * @param count the number of brokers.
+     * @return the brokers, named "Load Broker #0" onwards.
+     */
+    public static List<Broker> createBrokers(int count) {
+        return IntStream.range(0, count).<Broker>mapToObj(index -> new SimulatedBroker("Load Broker #" + index)).toList();
+    }
+
+    /**
+     * Offers a load to the stock market and waits until every order is sent. Each generator runs on a
+     * thread named "Load Generator #n" and sends its share of the orders, with an arrival process of its own.
+     *
+     * @param profile the load to be offered.
+     * @return the report of the orders sent after the warm-up.
+     * @throws InterruptedException  if the calling thread is interrupted while waiting for the generators.
+     * @throws IllegalStateException if the stock market is not processing operations.
+     */
+    public LoadReport run(LoadProfile profile) throws InterruptedException {
+
+        Objects.requireNonNull(profile);
+
+        if (this.stockMarket.getProcessingMode() == null) {
+            throw new IllegalStateException("Stock market must be processing operations to receive load");
+        }
+
+        LatencyHistogram latency = new LatencyHistogram(), serviceTime = new LatencyHistogram();
+
+        // Every generator offers an equal share of the rate, so their superposition keeps the arrival process
+        double meanIntervalNanos = 1e9 * profile.generators() / profile.ordersPerSecond();
+        long startNanos = System.nanoTime() + 1_000_000;
+        long measureNanos = startNanos + profile.warmupNanos();
+        long endNanos = measureNanos + profile.durationNanos();
+
+        long[] orders = new long[profile.generators()], rejections = new long[profile.generators()], lastAckNanos = new long[profile.generators()];
+        List<Thread> threads = new ArrayList<>(profile.generators());
+
+        for (int generator = 0; generator < profile.generators(); generator++) {
+
+            int index = generator;
+            SplittableRandom random = this.random.split();
+
+            Thread thread = new Thread(() -> {
+
+                long intendedNanos = startNanos;
+
+                for (long order = 0; ; order++) {
+
+                    intendedNanos += profile.arrivalProcess().nextInterval(order, meanIntervalNanos, random);
+
+                    if (intendedNanos >= endNanos) {
+                        break;
+                    }
+
+                    Utils.awaitUntil(intendedNanos);
+
+                    OfferOperation offerOperation = this.createRandomOfferOperation(random);
+                    long sendNanos = System.nanoTime();
+                    boolean rejected = false;
+
+                    try {
+                        this.stockMarket.getOperationBook(offerOperation.getAsset()).register(offerOperation);
+                    } catch (RiskViolationException e) {
+                        rejected = true;
+                    }
+
+                    long ackNanos = System.nanoTime();
+
+                    if (intendedNanos >= measureNanos) {
+
+                        latency.record(ackNanos - intendedNanos);
+                        serviceTime.record(ackNanos - sendNanos);
+
+                        orders[index]++;
+                        rejections[index] += rejected ? 1 : 0;
+                        lastAckNanos[index] = ackNanos;
+
+                    }
+
+                }
+
+            });
+
+            thread.setName("Load Generator #" + generator);
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> e.printStackTrace());
+            threads.add(thread);
+
+        }
+
+        threads.forEach(Thread::start);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long lastAck = measureNanos;
+
+        for (long ack : lastAckNanos) {
+            lastAck = Math.max(lastAck, ack);
+        }
+
+        return new LoadReport(profile, sum(orders), sum(rejections), lastAck - measureNanos, latency.getSummary(), serviceTime.getSummary());
+
+    }
+
+    /**
+     * Creates a random offer: a limit offer half the time and an immediate-or-cancel offer otherwise,
+     * a few ticks around the reference price, with buy prices a bit lower than sell prices.
+     *
+     * @param random the source of randomness of the calling generator.
+     * @return the created offer.
+     */
+    private OfferOperation createRandomOfferOperation(SplittableRandom random) {
+
+        Broker broker = this.brokers.get(random.nextInt(this.brokers.size()));
+        Asset asset = this.assets.get(random.nextInt(this.assets.size()));
+        OfferOperationType type = random.nextBoolean() ? OfferOperationType.BUY : OfferOperationType.SELL;
+        OfferOperationKind kind = random.nextBoolean() ? OfferOperationKind.LIMIT : OfferOperationKind.IMMEDIATE_OR_CANCEL;
+
+        int quantity = asset.getMarketType() == MarketType.COMMON ? random.nextInt(1, 6) * 100 : random.nextInt(1, 100);
+        long priceTicks = asset.toTicks(REFERENCE_PRICE) + (type == OfferOperationType.BUY ? random.nextInt(-10, 5) : random.nextInt(-4, 11));
+
+        return new OfferOperation(broker, asset, type, kind, quantity, asset.toPrice(priceTicks));
+
+    }
+
+    /**
+     * @param values the values to be summed.
+     * @return the sum of the values.
+     */
+    private static long sum(long[] values) {
+
+        long sum = 0;
+
+        for (long value : values) {
+            sum += value;
+        }
+
+        return sum;
+
+    }
+
+}
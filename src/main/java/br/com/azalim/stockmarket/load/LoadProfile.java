@@ -0,0 +1,41 @@
+package br.com.azalim.stockmarket.load;
+
+import java.util.Objects;
+
+/**
+ * Represents the load a {@link LoadGenerator} offers to a stock market.
+ *
+ * @param ordersPerSecond the target rate of orders, regardless of how fast the stock market acknowledges them.
+ * @param arrivalProcess  how the orders are spread over time.
+ * @param warmupNanos     the time orders are sent before being measured, in nanoseconds.
+ * @param durationNanos   the time orders are sent and measured after the warm-up, in nanoseconds.
+ * @param generators      the number of threads sending orders, each one at an equal share of the rate.
+ */
+public record LoadProfile(double ordersPerSecond, ArrivalProcess arrivalProcess, long warmupNanos, long durationNanos, int generators) {
+
+    /**
+     * Validates the profile.
+     */
+    public LoadProfile {
+
+        if (ordersPerSecond <= 0) {
+            throw new IllegalArgumentException("Orders per second must be greater than 0: " + ordersPerSecond);
+        }
+
+        Objects.requireNonNull(arrivalProcess);
+
+        if (warmupNanos < 0) {
+            throw new IllegalArgumentException("Warm-up cannot be negative: " + warmupNanos);
+        }
+
+        if (durationNanos <= 0) {
+            throw new IllegalArgumentException("Duration must be greater than 0: " + durationNanos);
+        }
+
+        if (generators <= 0) {
+            throw new IllegalArgumentException("Generators must be greater than 0: " + generators);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package br.com.azalim.stockmarket.load;
+
+import br.com.azalim.stockmarket.metrics.LatencySummary;
+
+/**
+ * Represents the result of offering a load to a stock market. Only the orders sent after the warm-up are counted.
+ *
+ * @param profile       the offered load.
+ * @param orders        the number of orders sent.
+ * @param rejections    the number of orders rejected by the risk manager.
+ * @param durationNanos the time from the end of the warm-up until the last order was acknowledged, in nanoseconds.
+ *                      It is longer than the duration of the profile when the stock market could not keep up.
+ * @param latency       the latency of the orders, measured from the time they should have been sent,
+ *                      so the orders delayed by a slow acknowledgement count the delay.
+ * @param serviceTime   the time between sending each order and its acknowledgement, which hides those delays.
+ */
+public record LoadReport(LoadProfile profile, long orders, long rejections, long durationNanos, LatencySummary latency, LatencySummary serviceTime) {
+
+    /**
+     * @return the number of orders sent per second.
+     */
+    public double getThroughput() {
+        return this.durationNanos == 0 ? 0 : this.orders * 1e9 / this.durationNanos;
+    }
+
+    /**
+     * @return a human-readable summary of the load.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d orders (%d rejected) sent in %.3fs: %.0f orders/s achieved of %.0f orders/s offered (%s). "
+                        + "Latency: [%s]. Service time: [%s].",
+                this.orders, this.rejections, this.durationNanos / 1e9, this.getThroughput(), this.profile.ordersPerSecond(),
+                this.profile.arrivalProcess(), this.latency, this.serviceTime);
+    }
+
+}
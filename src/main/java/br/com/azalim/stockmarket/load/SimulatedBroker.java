@@ -0,0 +1,47 @@
+package br.com.azalim.stockmarket.load;
+
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.wallet.Wallet;
+
+import java.util.Objects;
+
+/**
+ * Represents a broker that only exists to send the orders of a load generator.
+ */
+public class SimulatedBroker implements Broker {
+
+    /**
+     * The name of the broker.
+     */
+    private final String name;
+
+    /**
+     * The wallet of the broker. It does not keep the history of its transactions.
+     */
+    private final Wallet wallet = new Wallet();
+
+    /**
+     * Creates a simulated broker.
+     *
+     * @param name the name of the broker.
+     */
+    public SimulatedBroker(String name) {
+        this.name = Objects.requireNonNull(name);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Wallet getWallet() {
+        return this.wallet;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+}
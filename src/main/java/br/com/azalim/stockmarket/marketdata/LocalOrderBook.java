@@ -0,0 +1,185 @@
+package br.com.azalim.stockmarket.marketdata;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.observer.impl.MarketDataObserver;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.util.*;
+
+/**
+ * Represents a local copy of the aggregate price levels of a book, kept up to date by applying the incremental
+ * updates of its market data feed on top of a snapshot. The updates received before the snapshot is applied
+ * are held back and only the ones the snapshot does not reflect are applied afterwards.
+ */
+public class LocalOrderBook implements MarketDataObserver {
+
+    /**
+     * The quantity offered at each buy price, from the highest to the lowest price.
+     */
+    private final NavigableMap<Double, Long> bids = new TreeMap<>(Comparator.reverseOrder());
+
+    /**
+     * The quantity offered at each sell price, from the lowest to the highest price.
+     */
+    private final NavigableMap<Double, Long> asks = new TreeMap<>();
+
+    /**
+     * The updates received before the snapshot was applied, or null once it is applied.
+     */
+    private List<PendingUpdate> pendingUpdates = new ArrayList<>();
+
+    /**
+     * The sequence number of the last applied update.
+     */
+    private long sequence = -1;
+
+    /**
+     * The price of the last trade, or -1 if no trade was received.
+     */
+    private double lastPrice = -1;
+
+    /**
+     * The quantity of the last trade, or 0 if no trade was received.
+     */
+    private int lastQuantity;
+
+    /**
+     * Creates a local order book subscribed to a feed and initialized with its snapshot.
+     *
+     * @param marketDataFeed the feed of the book to be copied.
+     * @return the local order book.
+     */
+    public static LocalOrderBook subscribe(MarketDataFeed marketDataFeed) {
+
+        LocalOrderBook localOrderBook = new LocalOrderBook();
+
+        marketDataFeed.observe(localOrderBook);
+        localOrderBook.apply(marketDataFeed.snapshot());
+
+        return localOrderBook;
+
+    }
+
+    /**
+     * Replaces the levels with the ones of a snapshot and applies the held back updates it does not reflect.
+     *
+     * @param snapshot the snapshot of the book.
+     */
+    public synchronized void apply(MarketDataSnapshot snapshot) {
+
+        this.bids.clear();
+        this.asks.clear();
+
+        snapshot.bids().forEach(level -> this.bids.put(level.price(), level.quantity()));
+        snapshot.asks().forEach(level -> this.asks.put(level.price(), level.quantity()));
+
+        this.sequence = snapshot.sequence();
+
+        List<PendingUpdate> pendingUpdates = this.pendingUpdates;
+        this.pendingUpdates = null;
+
+        if (pendingUpdates != null) {
+            pendingUpdates.stream()
+                    .filter(pendingUpdate -> pendingUpdate.sequence() > snapshot.sequence())
+                    .forEach(pendingUpdate -> pendingUpdate.update().run());
+        }
+
+    }
+
+    @Override
+    public synchronized void onPriceLevelUpdated(Asset asset, long sequence, OfferOperationType side, PriceLevelAction action, double price, long quantity) {
+
+        if (this.pendingUpdates != null) {
+            this.pendingUpdates.add(new PendingUpdate(sequence, () -> this.onPriceLevelUpdated(asset, sequence, side, action, price, quantity)));
+            return;
+        }
+
+        this.advance(sequence);
+
+        NavigableMap<Double, Long> levels = side == OfferOperationType.BUY ? this.bids : this.asks;
+
+        if (action == PriceLevelAction.DELETE) {
+            levels.remove(price);
+        } else {
+            levels.put(price, quantity);
+        }
+
+    }
+
+    @Override
+    public synchronized void onTradeExecuted(Asset asset, long sequence, double price, int quantity, long timestamp) {
+
+        if (this.pendingUpdates != null) {
+            this.pendingUpdates.add(new PendingUpdate(sequence, () -> this.onTradeExecuted(asset, sequence, price, quantity, timestamp)));
+            return;
+        }
+
+        this.advance(sequence);
+
+        this.lastPrice = price;
+        this.lastQuantity = quantity;
+
+    }
+
+    /**
+     * Moves to the sequence number of a new update.
+     *
+     * @param sequence the sequence number of the update.
+     * @throws IllegalStateException if an update was missed.
+     */
+    private void advance(long sequence) {
+
+        if (sequence != this.sequence + 1) {
+            throw new IllegalStateException("Missed market data updates: expected " + (this.sequence + 1) + " but got " + sequence);
+        }
+
+        this.sequence = sequence;
+
+    }
+
+    /**
+     * @return the sequence number of the last applied update, or -1 if no snapshot was applied yet.
+     */
+    public synchronized long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @param side the side of the book.
+     * @return a copy of the quantity offered at each price of the given side, from the best to the worst price.
+     */
+    public synchronized NavigableMap<Double, Long> getLevels(OfferOperationType side) {
+        NavigableMap<Double, Long> levels = side == OfferOperationType.BUY ? this.bids : this.asks;
+        return Collections.unmodifiableNavigableMap(new TreeMap<>(levels));
+    }
+
+    /**
+     * @param side the side of the book.
+     * @return the best price of the given side, or -1 if the side is empty.
+     */
+    public synchronized double getBestPrice(OfferOperationType side) {
+        NavigableMap<Double, Long> levels = side == OfferOperationType.BUY ? this.bids : this.asks;
+        return levels.isEmpty() ? -1 : levels.firstKey();
+    }
+
+    /**
+     * @return the price of the last trade, or -1 if no trade was received.
+     */
+    public synchronized double getLastPrice() {
+        return this.lastPrice;
+    }
+
+    /**
+     * @return the quantity of the last trade, or 0 if no trade was received.
+     */
+    public synchronized int getLastQuantity() {
+        return this.lastQuantity;
+    }
+
+    /**
+     * An update received before the snapshot was applied.
+     */
+    private record PendingUpdate(long sequence, Runnable update) {
+    }
+
+}
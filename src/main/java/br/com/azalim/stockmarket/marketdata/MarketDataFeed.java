@@ -0,0 +1,185 @@
+package br.com.azalim.stockmarket.marketdata;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.observer.Observable;
+import br.com.azalim.stockmarket.observer.impl.MarketDataObserver;
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.operation.offer.PriceLevel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Represents the incremental market data feed of the book of an asset. Every change to the aggregate quantity
+ * of a price level and every trade is published to the observers with the next sequence number of the feed.
+ * Updates are published while the offer book is locked, so they are totally ordered and a snapshot taken
+ * under the same lock reflects exactly the updates up to its sequence number. Nothing is published, and no
+ * sequence number is consumed, while there are no observers.
+ */
+public class MarketDataFeed implements Observable<MarketDataObserver> {
+
+    /**
+     * The resting offers of the book.
+     */
+    private final OfferBook offerBook;
+
+    /**
+     * The observers that are going to be notified of every update.
+     */
+    private final List<MarketDataObserver> observers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The sequence number of the last published update. Guarded by the lock of the offer book.
+     */
+    private long sequence;
+
+    /**
+     * Creates the market data feed of a book.
+     *
+     * @param offerBook the resting offers of the book.
+     */
+    public MarketDataFeed(OfferBook offerBook) {
+        this.offerBook = Objects.requireNonNull(offerBook);
+    }
+
+    /**
+     * @return true if there is any observer to publish the updates to, false otherwise.
+     */
+    public boolean hasObservers() {
+        return !this.observers.isEmpty();
+    }
+
+    /**
+     * Publishes the current aggregate quantity of a price level after it changed.
+     * Must be called while the offer book is locked.
+     *
+     * @param asset      the asset of the book.
+     * @param side       the side of the book of the level.
+     * @param priceTicks the price of the level, in ticks of the asset. It is published converted to a price.
+     * @param change     the change of the quantity of shares offered at the level.
+     */
+    public void publishLevel(Asset asset, OfferOperationType side, long priceTicks, long change) {
+
+        double price = asset.toPrice(priceTicks);
+        long quantity = this.offerBook.getQuantity(side, priceTicks);
+        long previousQuantity = quantity - change;
+
+        PriceLevelAction action = previousQuantity == 0 ? PriceLevelAction.ADD
+                : quantity == 0 ? PriceLevelAction.DELETE
+                : PriceLevelAction.MODIFY;
+
+        long sequence = ++this.sequence;
+
+        for (MarketDataObserver observer : this.observers) {
+            observer.onPriceLevelUpdated(asset, sequence, side, action, price, quantity);
+        }
+
+    }
+
+    /**
+     * Publishes a trade. Must be called while the offer book is locked.
+     *
+     * @param asset     the asset that was traded.
+     * @param price     the price of each share.
+     * @param quantity  the quantity of shares traded.
+     * @param timestamp the timestamp of the trade, in nanoseconds since the epoch.
+     */
+    public void publishTrade(Asset asset, double price, int quantity, long timestamp) {
+
+        long sequence = ++this.sequence;
+
+        for (MarketDataObserver observer : this.observers) {
+            observer.onTradeExecuted(asset, sequence, price, quantity, timestamp);
+        }
+
+    }
+
+    /**
+     * Takes a snapshot of the aggregate price levels of the book. An observer should subscribe before
+     * taking the snapshot and then discard every update whose sequence number is not greater than the snapshot's.
+     *
+     * @return the snapshot of the book.
+     */
+    public MarketDataSnapshot snapshot() {
+        return this.snapshot(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Takes a snapshot of the best aggregate price levels of the book. The offer book is locked
+     * only while the given number of levels of each side is copied.
+     *
+     * @param depth the maximum number of levels of each side.
+     * @return the snapshot of the book.
+     */
+    public MarketDataSnapshot snapshot(int depth) {
+
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be greater than 0: " + depth);
+        }
+
+        synchronized (this.offerBook) {
+            return new MarketDataSnapshot(this.sequence, this.copy(OfferOperationType.BUY, depth), this.copy(OfferOperationType.SELL, depth));
+        }
+
+    }
+
+    /**
+     * @return the sequence number of the last published update.
+     */
+    public long getSequence() {
+        synchronized (this.offerBook) {
+            return this.sequence;
+        }
+    }
+
+    /**
+     * Copies the best price levels of a side of the book that still have shares offered.
+     *
+     * @param side  the side of the book.
+     * @param depth the maximum number of levels to be copied.
+     * @return the levels of the given side, from the best to the worst price.
+     */
+    private List<MarketDataSnapshot.Level> copy(OfferOperationType side, int depth) {
+
+        List<MarketDataSnapshot.Level> levels = new ArrayList<>();
+        Iterator<PriceLevel> priceLevels = this.offerBook.getLevels(side).iterator();
+
+        while (levels.size() < depth && priceLevels.hasNext()) {
+
+            PriceLevel priceLevel = priceLevels.next();
+
+            if (priceLevel.getQuantity() > 0) {
+                levels.add(new MarketDataSnapshot.Level(priceLevel.getPrice(), priceLevel.getQuantity()));
+            }
+
+        }
+
+        return levels;
+
+    }
+
+    /**
+     * Subscribes to the updates of the feed.
+     *
+     * @param observer the observer that is going to be notified of every update.
+     */
+    @Override
+    public void observe(MarketDataObserver observer) {
+        this.observers.add(Objects.requireNonNull(observer));
+    }
+
+    /**
+     * @return the observers that are going to be notified of every update.
+     */
+    @Override
+    public Collection<MarketDataObserver> getObservers() {
+        return Collections.unmodifiableList(this.observers);
+    }
+
+}
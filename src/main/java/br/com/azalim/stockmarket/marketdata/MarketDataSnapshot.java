@@ -0,0 +1,24 @@
+package br.com.azalim.stockmarket.marketdata;
+
+import java.util.List;
+
+/**
+ * Represents the aggregate price levels of a book at a given sequence number of its market data feed.
+ * Only the updates with a greater sequence number are not reflected by the snapshot.
+ *
+ * @param sequence the sequence number of the last update reflected by the snapshot.
+ * @param bids     the buy levels, from the highest to the lowest price.
+ * @param asks     the sell levels, from the lowest to the highest price.
+ */
+public record MarketDataSnapshot(long sequence, List<Level> bids, List<Level> asks) {
+
+    /**
+     * Represents a price level of a snapshot.
+     *
+     * @param price    the price of the level.
+     * @param quantity the quantity of shares offered at the level.
+     */
+    public record Level(double price, long quantity) {
+    }
+
+}
@@ -0,0 +1,23 @@
+package br.com.azalim.stockmarket.marketdata;
+
+/**
+ * Represents what happened to a price level in an incremental market data update.
+ */
+public enum PriceLevelAction {
+
+    /**
+     * The level had no shares offered and now has.
+     */
+    ADD,
+
+    /**
+     * The quantity of shares offered at the level changed.
+     */
+    MODIFY,
+
+    /**
+     * The level has no shares offered anymore.
+     */
+    DELETE
+
+}
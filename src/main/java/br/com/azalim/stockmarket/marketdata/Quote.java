@@ -0,0 +1,27 @@
+package br.com.azalim.stockmarket.marketdata;
+
+/**
+ * Represents the best bid and ask of a book at a given moment.
+ *
+ * @param bidPrice    the best buy price, or -1 if there is no buy offer.
+ * @param bidQuantity the quantity of shares offered at the best buy price.
+ * @param askPrice    the best sell price, or -1 if there is no sell offer.
+ * @param askQuantity the quantity of shares offered at the best sell price.
+ */
+public record Quote(double bidPrice, long bidQuantity, double askPrice, long askQuantity) {
+
+    /**
+     * @return the difference between the best sell and buy prices, or -1 if any side is empty.
+     */
+    public double getSpread() {
+        return this.bidPrice < 0 || this.askPrice < 0 ? -1 : this.askPrice - this.bidPrice;
+    }
+
+    /**
+     * @return the average of the best sell and buy prices, or -1 if any side is empty.
+     */
+    public double getMidPrice() {
+        return this.bidPrice < 0 || this.askPrice < 0 ? -1 : (this.askPrice + this.bidPrice) / 2;
+    }
+
+}
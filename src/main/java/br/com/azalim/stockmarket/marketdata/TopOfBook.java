@@ -0,0 +1,149 @@
+package br.com.azalim.stockmarket.marketdata;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Represents the best bid and ask of a book, maintained by the thread that matches it and read by any other
+ * thread without locking. The fields are guarded by a sequence lock: the writer makes the version odd,
+ * writes the fields and makes it even again, and a reader retries until it reads the same even version
+ * before and after reading the fields. Readers never delay the writer. Updates and the price getters, which are
+ * what the hot readers like the risk stage use, do not allocate; {@link #getQuote()} allocates the copy it returns.
+ */
+public class TopOfBook {
+
+    /**
+     * The version of the fields. It is odd while they are being written.
+     */
+    private volatile long version;
+
+    /**
+     * The best buy price, or -1 if there is no buy offer.
+     */
+    private double bidPrice = -1;
+
+    /**
+     * The quantity of shares offered at the best buy price.
+     */
+    private long bidQuantity;
+
+    /**
+     * The best sell price, or -1 if there is no sell offer.
+     */
+    private double askPrice = -1;
+
+    /**
+     * The quantity of shares offered at the best sell price.
+     */
+    private long askQuantity;
+
+    /**
+     * Replaces the best bid and ask. Must only be called by one thread at a time, like while the offer book is locked.
+     *
+     * @param bidPrice    the best buy price, or -1 if there is no buy offer.
+     * @param bidQuantity the quantity of shares offered at the best buy price.
+     * @param askPrice    the best sell price, or -1 if there is no sell offer.
+     * @param askQuantity the quantity of shares offered at the best sell price.
+     */
+    public void update(double bidPrice, long bidQuantity, double askPrice, long askQuantity) {
+
+        if (bidPrice == this.bidPrice && bidQuantity == this.bidQuantity && askPrice == this.askPrice && askQuantity == this.askQuantity) {
+            return;
+        }
+
+        long version = this.version;
+
+        this.version = version + 1;
+        VarHandle.storeStoreFence();
+
+        this.bidPrice = bidPrice;
+        this.bidQuantity = bidQuantity;
+        this.askPrice = askPrice;
+        this.askQuantity = askQuantity;
+
+        this.version = version + 2;
+
+    }
+
+    /**
+     * Reads the best bid and ask consistently. Each call allocates a new quote, so readers on the matching
+     * path should use {@link #getBidPrice()} and {@link #getAskPrice()} instead.
+     *
+     * @return a consistent copy of the best bid and ask.
+     */
+    public Quote getQuote() {
+
+        while (true) {
+
+            long version = this.version;
+
+            if ((version & 1) == 0) {
+
+                double bidPrice = this.bidPrice, askPrice = this.askPrice;
+                long bidQuantity = this.bidQuantity, askQuantity = this.askQuantity;
+
+                VarHandle.loadLoadFence();
+
+                if (this.version == version) {
+                    return new Quote(bidPrice, bidQuantity, askPrice, askQuantity);
+                }
+
+            }
+
+            Thread.onSpinWait();
+
+        }
+
+    }
+
+    /**
+     * @return the best buy price, or -1 if there is no buy offer.
+     */
+    public double getBidPrice() {
+
+        while (true) {
+
+            long version = this.version;
+            double bidPrice = this.bidPrice;
+
+            VarHandle.loadLoadFence();
+
+            if ((version & 1) == 0 && this.version == version) {
+                return bidPrice;
+            }
+
+            Thread.onSpinWait();
+
+        }
+
+    }
+
+    /**
+     * @return the best sell price, or -1 if there is no sell offer.
+     */
+    public double getAskPrice() {
+
+        while (true) {
+
+            long version = this.version;
+            double askPrice = this.askPrice;
+
+            VarHandle.loadLoadFence();
+
+            if ((version & 1) == 0 && this.version == version) {
+                return askPrice;
+            }
+
+            Thread.onSpinWait();
+
+        }
+
+    }
+
+    /**
+     * @return the number of times the best bid and ask changed.
+     */
+    public long getVersion() {
+        return this.version >>> 1;
+    }
+
+}
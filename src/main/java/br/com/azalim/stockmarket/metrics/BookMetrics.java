@@ -0,0 +1,202 @@
+package br.com.azalim.stockmarket.metrics;
+
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents the metrics of an operation book: counters of orders and fills and histograms of the latencies
+ * of its hot path. Every metric is preallocated and updated with atomic increments, so recording never takes
+ * locks or allocates. The depth of the book is not tracked on the hot path; it is counted when it is read,
+ * under the lock of the offer book.
+ */
+public class BookMetrics implements BookMetricsMXBean {
+
+    /**
+     * The resting offers of the book.
+     */
+    private final OfferBook offerBook;
+
+    /**
+     * The number of operations accepted by the book.
+     */
+    private final AtomicLong orders = new AtomicLong();
+
+    /**
+     * The number of operations rejected by the risk manager before reaching the book.
+     */
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * The number of trades executed in the book.
+     */
+    private final AtomicLong fills = new AtomicLong();
+
+    /**
+     * The number of shares traded in the book.
+     */
+    private final AtomicLong filledQuantity = new AtomicLong();
+
+    /**
+     * The time from the registration of each operation until it is added and processed by the book.
+     */
+    private final LatencyHistogram entryToAck = new LatencyHistogram();
+
+    /**
+     * The time spent processing each operation.
+     */
+    private final LatencyHistogram match = new LatencyHistogram();
+
+    /**
+     * The time spent notifying the transaction observers of each trade.
+     */
+    private final LatencyHistogram observerDispatch = new LatencyHistogram();
+
+    /**
+     * Creates the metrics of a book.
+     *
+     * @param offerBook the resting offers of the book.
+     */
+    public BookMetrics(OfferBook offerBook) {
+        this.offerBook = Objects.requireNonNull(offerBook);
+    }
+
+    /**
+     * Records an operation accepted by the book.
+     *
+     * @param entryToAckNanos the time from its registration until it was added and processed, in nanoseconds.
+     */
+    public void recordOrder(long entryToAckNanos) {
+        this.orders.incrementAndGet();
+        this.entryToAck.record(entryToAckNanos);
+    }
+
+    /**
+     * Records an operation rejected by the risk manager.
+     */
+    public void recordRejection() {
+        this.rejections.incrementAndGet();
+    }
+
+    /**
+     * Records the processing of an operation.
+     *
+     * @param matchNanos the time spent processing the operation, in nanoseconds.
+     */
+    public void recordMatch(long matchNanos) {
+        this.match.record(matchNanos);
+    }
+
+    /**
+     * Records a trade executed in the book.
+     *
+     * @param quantity              the quantity of shares traded.
+     * @param observerDispatchNanos the time spent notifying the transaction observers, in nanoseconds.
+     */
+    public void recordFill(int quantity, long observerDispatchNanos) {
+        this.fills.incrementAndGet();
+        this.filledQuantity.addAndGet(quantity);
+        this.observerDispatch.record(observerDispatchNanos);
+    }
+
+    @Override
+    public long getOrders() {
+        return this.orders.get();
+    }
+
+    @Override
+    public long getRejections() {
+        return this.rejections.get();
+    }
+
+    @Override
+    public long getFills() {
+        return this.fills.get();
+    }
+
+    @Override
+    public long getFilledQuantity() {
+        return this.filledQuantity.get();
+    }
+
+    @Override
+    public int getBidDepth() {
+        synchronized (this.offerBook) {
+            return this.offerBook.getDepth(OfferOperationType.BUY);
+        }
+    }
+
+    @Override
+    public int getAskDepth() {
+        synchronized (this.offerBook) {
+            return this.offerBook.getDepth(OfferOperationType.SELL);
+        }
+    }
+
+    @Override
+    public int getBidLevels() {
+        synchronized (this.offerBook) {
+            return this.offerBook.getLevelCount(OfferOperationType.BUY);
+        }
+    }
+
+    @Override
+    public int getAskLevels() {
+        synchronized (this.offerBook) {
+            return this.offerBook.getLevelCount(OfferOperationType.SELL);
+        }
+    }
+
+    @Override
+    public LatencySummary getEntryToAck() {
+        return this.entryToAck.getSummary();
+    }
+
+    @Override
+    public LatencySummary getMatch() {
+        return this.match.getSummary();
+    }
+
+    @Override
+    public LatencySummary getObserverDispatch() {
+        return this.observerDispatch.getSummary();
+    }
+
+    /**
+     * @return the histogram of the time from the registration of each operation until it is added and processed by the book.
+     */
+    public LatencyHistogram getEntryToAckHistogram() {
+        return this.entryToAck;
+    }
+
+    /**
+     * @return the histogram of the time spent processing each operation.
+     */
+    public LatencyHistogram getMatchHistogram() {
+        return this.match;
+    }
+
+    /**
+     * @return the histogram of the time spent notifying the transaction observers of each trade.
+     */
+    public LatencyHistogram getObserverDispatchHistogram() {
+        return this.observerDispatch;
+    }
+
+    @Override
+    public void reset() {
+
+        this.orders.set(0);
+        this.rejections.set(0);
+        this.fills.set(0);
+        this.filledQuantity.set(0);
+
+        this.entryToAck.reset();
+        this.match.reset();
+        this.observerDispatch.reset();
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package br.com.azalim.stockmarket.metrics;
+
+/**
+ * Represents the management interface of the metrics of an operation book, as exposed through JMX.
+ */
+public interface BookMetricsMXBean {
+
+    /**
+     * @return the number of operations accepted by the book.
+     */
+    long getOrders();
+
+    /**
+     * @return the number of operations rejected by the risk manager before reaching the book.
+     */
+    long getRejections();
+
+    /**
+     * @return the number of trades executed in the book.
+     */
+    long getFills();
+
+    /**
+     * @return the number of shares traded in the book.
+     */
+    long getFilledQuantity();
+
+    /**
+     * @return the number of resting buy offers that can still be executed.
+     */
+    int getBidDepth();
+
+    /**
+     * @return the number of resting sell offers that can still be executed.
+     */
+    int getAskDepth();
+
+    /**
+     * @return the number of buy price levels with offers that can still be executed.
+     */
+    int getBidLevels();
+
+    /**
+     * @return the number of sell price levels with offers that can still be executed.
+     */
+    int getAskLevels();
+
+    /**
+     * @return the time from the registration of each operation until it is added and processed by the book.
+     */
+    LatencySummary getEntryToAck();
+
+    /**
+     * @return the time spent processing each operation, matching it against the resting offers.
+     */
+    LatencySummary getMatch();
+
+    /**
+     * @return the time spent notifying the transaction observers of each trade.
+     */
+    LatencySummary getObserverDispatch();
+
+    /**
+     * Discards the recorded latencies and resets the counters.
+     */
+    void reset();
+
+}
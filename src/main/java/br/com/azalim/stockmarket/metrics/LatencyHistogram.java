@@ -0,0 +1,183 @@
+package br.com.azalim.stockmarket.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a histogram of latencies in nanoseconds, with buckets laid out like an HDR histogram:
+ * values below 32 have a bucket each, and every power of two above that is split into 32 linear buckets,
+ * so any recorded value is reported with an error below 3.2%. The buckets are preallocated,
+ * so recording a value is a couple of atomic increments, without locks or allocations.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of bits of the linear buckets of each power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of linear buckets of each power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The total number of buckets, enough for any positive long value.
+     */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The number of recorded values.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the recorded values, in nanoseconds.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The greatest recorded value, in nanoseconds.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency. Negative values are recorded as zero.
+     *
+     * @param nanos the latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+
+        long value = Math.max(0, nanos);
+
+        this.counts.incrementAndGet(bucketOf(value));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(value);
+
+        long max;
+
+        while (value > (max = this.max.get()) && !this.max.compareAndSet(max, value)) {
+            Thread.onSpinWait();
+        }
+
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, in nanoseconds, or 0 if there are none.
+     */
+    public double getMean() {
+        long count = this.count.get();
+        return count == 0 ? 0 : (double) this.sum.get() / count;
+    }
+
+    /**
+     * @return the greatest recorded value, in nanoseconds.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Finds the value below which a given percentage of the recorded values are.
+     * Values recorded while the percentile is calculated may or may not be considered.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the greatest value of the bucket that contains the percentile, in nanoseconds, or 0 if there are no values.
+     */
+    public long getPercentile(double percentile) {
+
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+
+        long total = 0;
+
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            total += this.counts.get(bucket);
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total)), seen = 0;
+
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if ((seen += this.counts.get(bucket)) >= target) {
+                return Math.min(highestValueOf(bucket), this.getMax());
+            }
+        }
+
+        return this.getMax();
+
+    }
+
+    /**
+     * @return an immutable summary of the recorded values.
+     */
+    public LatencySummary getSummary() {
+        return new LatencySummary(this.getCount(), this.getMean(), this.getPercentile(50), this.getPercentile(99), this.getPercentile(99.9), this.getMax());
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void reset() {
+
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            this.counts.set(bucket, 0);
+        }
+
+        this.count.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+
+    }
+
+    /**
+     * @param value a non-negative value.
+     * @return the bucket of the value.
+     */
+    static int bucketOf(long value) {
+
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+
+    }
+
+    /**
+     * @param bucket a bucket.
+     * @return the greatest value of the bucket.
+     */
+    static long highestValueOf(int bucket) {
+
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = SUB_BUCKET_COUNT + (bucket - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+
+    }
+
+}
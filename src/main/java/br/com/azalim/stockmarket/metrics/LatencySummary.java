@@ -0,0 +1,111 @@
+package br.com.azalim.stockmarket.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Represents an immutable summary of a {@link LatencyHistogram}, in nanoseconds.
+ * It follows the JavaBeans conventions, so JMX clients see it as a composite value.
+ */
+public class LatencySummary {
+
+    /**
+     * The number of recorded values.
+     */
+    private final long count;
+
+    /**
+     * The mean of the recorded values.
+     */
+    private final double mean;
+
+    /**
+     * The median of the recorded values.
+     */
+    private final long p50;
+
+    /**
+     * The 99th percentile of the recorded values.
+     */
+    private final long p99;
+
+    /**
+     * The 99.9th percentile of the recorded values.
+     */
+    private final long p999;
+
+    /**
+     * The greatest recorded value.
+     */
+    private final long max;
+
+    /**
+     * Creates a summary.
+     *
+     * @param count the number of recorded values.
+     * @param mean  the mean of the recorded values.
+     * @param p50   the median of the recorded values.
+     * @param p99   the 99th percentile of the recorded values.
+     * @param p999  the 99.9th percentile of the recorded values.
+     * @param max   the greatest recorded value.
+     */
+    @ConstructorProperties({"count", "mean", "p50", "p99", "p999", "max"})
+    public LatencySummary(long count, double mean, long p50, long p99, long p999, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the mean of the recorded values.
+     */
+    public double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * @return the median of the recorded values.
+     */
+    public long getP50() {
+        return this.p50;
+    }
+
+    /**
+     * @return the 99th percentile of the recorded values.
+     */
+    public long getP99() {
+        return this.p99;
+    }
+
+    /**
+     * @return the 99.9th percentile of the recorded values.
+     */
+    public long getP999() {
+        return this.p999;
+    }
+
+    /**
+     * @return the greatest recorded value.
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return the summary in a compact form, like "n=10 p50=1200ns p99=5300ns p99.9=5300ns max=5312ns".
+     */
+    @Override
+    public String toString() {
+        return "n=" + this.count + " p50=" + this.p50 + "ns p99=" + this.p99 + "ns p99.9=" + this.p999 + "ns max=" + this.max + "ns";
+    }
+
+}
@@ -0,0 +1,183 @@
+package br.com.azalim.stockmarket.metrics;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.operation.OperationBook;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the metrics of every operation book of a stock market through JMX, one MBean per asset
+ * named like "br.com.azalim.stockmarket:type=OperationBook,asset=PETR4", and dumps them periodically.
+ * Reading the metrics never blocks the matching engine for longer than it takes to count the depth of a book.
+ */
+public class MetricsReporter implements Closeable {
+
+    /**
+     * The domain of the names of the MBeans.
+     */
+    public static final String DOMAIN = "br.com.azalim.stockmarket";
+
+    /**
+     * The operation books whose metrics are reported, sorted by the symbol of their assets.
+     */
+    private final SortedMap<String, OperationBook> operationBooks = new TreeMap<>();
+
+    /**
+     * The names of the MBeans registered by this reporter.
+     */
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+
+    /**
+     * The number of orders and fills of each book at the last dump, used to calculate their rates.
+     */
+    private final Map<String, long[]> lastCounts = new HashMap<>();
+
+    /**
+     * The value of {@link System#nanoTime()} at the last dump.
+     */
+    private long lastDumpNanos = System.nanoTime();
+
+    /**
+     * The executor service that dumps the metrics periodically.
+     * The thread generated by this executor is going to be named "Metrics Reporter".
+     */
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setName("Metrics Reporter");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> e.printStackTrace());
+        return thread;
+    });
+
+    /**
+     * Creates a reporter of the metrics of every operation book of a stock market.
+     *
+     * @param stockMarket the stock market whose metrics are reported.
+     */
+    public MetricsReporter(StockMarket stockMarket) {
+
+        Objects.requireNonNull(stockMarket);
+
+        stockMarket.getOperationBooks().forEach((asset, operationBook) -> this.operationBooks.put(asset.getSymbol(), operationBook));
+
+    }
+
+    /**
+     * Registers the metrics of every operation book to the platform MBean server.
+     *
+     * @throws JMException if an MBean cannot be registered, like when another reporter already registered it.
+     */
+    public synchronized void registerMBeans() throws JMException {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        for (Map.Entry<String, OperationBook> entry : this.operationBooks.entrySet()) {
+
+            ObjectName objectName = getObjectName(entry.getKey());
+
+            mBeanServer.registerMBean(entry.getValue().getMetrics(), objectName);
+            this.registeredNames.add(objectName);
+
+        }
+
+    }
+
+    /**
+     * Starts dumping the metrics at a fixed rate, in the background.
+     *
+     * @param intervalMillis the time between dumps, in milliseconds.
+     * @param output         the stream the metrics are dumped to.
+     */
+    public void start(long intervalMillis, PrintStream output) {
+
+        Objects.requireNonNull(output);
+
+        this.executorService.scheduleAtFixedRate(() -> output.print(this.dump()), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Formats the metrics of every book that accepted an operation, one line per book, with the rates
+     * of orders and fills since the previous dump.
+     *
+     * @return the formatted metrics.
+     */
+    public synchronized String dump() {
+
+        long nowNanos = System.nanoTime();
+        double elapsedSeconds = Math.max(1, nowNanos - this.lastDumpNanos) / 1e9;
+        StringBuilder builder = new StringBuilder();
+
+        this.lastDumpNanos = nowNanos;
+
+        for (Map.Entry<String, OperationBook> entry : this.operationBooks.entrySet()) {
+
+            BookMetrics metrics = entry.getValue().getMetrics();
+            long orders = metrics.getOrders(), fills = metrics.getFills();
+
+            if (orders == 0) {
+                continue;
+            }
+
+            long[] lastCounts = this.lastCounts.computeIfAbsent(entry.getKey(), symbol -> new long[2]);
+
+            builder.append(entry.getKey())
+                    .append(" orders=").append(orders).append(String.format(" (%.0f/s)", (orders - lastCounts[0]) / elapsedSeconds))
+                    .append(" rejections=").append(metrics.getRejections())
+                    .append(" fills=").append(fills).append(String.format(" (%.0f/s)", (fills - lastCounts[1]) / elapsedSeconds))
+                    .append(" depth=").append(metrics.getBidDepth()).append('/').append(metrics.getAskDepth())
+                    .append(" entryToAck=[").append(metrics.getEntryToAck()).append(']')
+                    .append(" match=[").append(metrics.getMatch()).append(']')
+                    .append(" observerDispatch=[").append(metrics.getObserverDispatch()).append(']')
+                    .append(System.lineSeparator());
+
+            lastCounts[0] = orders;
+            lastCounts[1] = fills;
+
+        }
+
+        return builder.toString();
+
+    }
+
+    /**
+     * Stops dumping the metrics and unregisters the MBeans registered by this reporter.
+     */
+    @Override
+    public synchronized void close() {
+
+        this.executorService.shutdown();
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        for (ObjectName objectName : this.registeredNames) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+
+        this.registeredNames.clear();
+
+    }
+
+    /**
+     * @param symbol the symbol of an asset.
+     * @return the name of the MBean of the metrics of the book of the asset.
+     * @throws JMException if the symbol cannot be part of an MBean name.
+     */
+    public static ObjectName getObjectName(String symbol) throws JMException {
+        return new ObjectName(DOMAIN + ":type=OperationBook,asset=" + symbol);
+    }
+
+}
@@ -0,0 +1,312 @@
+package br.com.azalim.stockmarket.observer.dispatch;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.metrics.LatencyHistogram;
+import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates a transaction observer so it is notified asynchronously. The transactions are queued
+ * by the thread that executes them and delivered in batches by a thread dedicated to the observer,
+ * so a slow observer never delays the matching of the offers. What happens when the queue is full
+ * is decided by a {@link BackpressurePolicy}. The time each event waits before being delivered is recorded in a histogram.
+ * <p>
+ * An event the decorated observer fails to handle is logged and counted, and the delivery goes on with the next one.
+ */
+public class AsyncTransactionObserver implements TransactionObserver {
+
+    /**
+     * The maximum number of events delivered in a single batch.
+     */
+    private static final int MAX_BATCH = 256;
+
+    /**
+     * The decorated observer.
+     */
+    private final TransactionObserver transactionObserver;
+
+    /**
+     * What happens to a new event when the queue is full.
+     */
+    private final BackpressurePolicy backpressurePolicy;
+
+    /**
+     * The events waiting to be delivered.
+     */
+    private final BlockingQueue<TransactionEvent> queue;
+
+    /**
+     * The events merged while the queue was full, when coalescing.
+     */
+    private final Map<TransactionEvent, TransactionEvent> coalescedEvents = new LinkedHashMap<>();
+
+    /**
+     * The number of events discarded because the queue was full.
+     */
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    /**
+     * The number of events merged into other events because the queue was full.
+     */
+    private final AtomicLong mergedEvents = new AtomicLong();
+
+    /**
+     * The number of events whose delivery threw an exception in the decorated observer.
+     */
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    /**
+     * The time from the queueing of each event until it is delivered to the decorated observer.
+     */
+    private final LatencyHistogram dispatchLag = new LatencyHistogram();
+
+    /**
+     * The thread that delivers the events to the decorated observer.
+     */
+    private final Thread thread;
+
+    /**
+     * Indicates if new events are accepted.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates an asynchronous observer and starts its delivery thread.
+     *
+     * @param transactionObserver the observer to be decorated.
+     * @param backpressurePolicy  what happens to a new event when the queue is full.
+     * @param capacity            the maximum number of events waiting in the queue.
+     */
+    public AsyncTransactionObserver(TransactionObserver transactionObserver, BackpressurePolicy backpressurePolicy, int capacity) {
+
+        Objects.requireNonNull(transactionObserver);
+        Objects.requireNonNull(backpressurePolicy);
+
+        this.transactionObserver = transactionObserver;
+        this.backpressurePolicy = backpressurePolicy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.thread = new Thread(this::run);
+        this.thread.setName("Transaction Observer - " + transactionObserver);
+        this.thread.setDaemon(true);
+        this.thread.setUncaughtExceptionHandler((t, e) -> e.printStackTrace());
+        this.thread.start();
+
+    }
+
+    /**
+     * Queues the transaction to be delivered to the decorated observer, applying the backpressure policy if the queue is full.
+     *
+     * @param from     the broker that sold the asset.
+     * @param to       the broker that bought the asset.
+     * @param asset    the asset that was traded.
+     * @param quantity the quantity of shares that were traded.
+     * @param price    the price of each share.
+     */
+    @Override
+    public void onNewTransactionRegistered(Broker from, Broker to, Asset asset, int quantity, double price) {
+
+        if (!this.running) {
+            return;
+        }
+
+        TransactionEvent transactionEvent = new TransactionEvent(from, to, asset, quantity, price, System.nanoTime());
+
+        // While there are coalesced events, new events are coalesced too so they are not delivered before the older ones
+        if (this.backpressurePolicy == BackpressurePolicy.COALESCE && this.hasCoalescedEvents()) {
+            this.coalesce(transactionEvent);
+            return;
+        }
+
+        if (this.queue.offer(transactionEvent)) {
+            return;
+        }
+
+        switch (this.backpressurePolicy) {
+            case BLOCK -> {
+                try {
+                    this.queue.put(transactionEvent);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case DROP -> this.droppedEvents.incrementAndGet();
+            case COALESCE -> this.coalesce(transactionEvent);
+        }
+
+    }
+
+    /**
+     * Merges an event with the pending event between the same brokers, of the same asset and at the same price.
+     * Quantities are summed as longs, so merging never overflows the quantity of a single transaction.
+     *
+     * @param transactionEvent the event to be merged.
+     */
+    private void coalesce(TransactionEvent transactionEvent) {
+
+        // Events are matched by everything but their quantities and queueing times
+        TransactionEvent key = new TransactionEvent(transactionEvent.from(), transactionEvent.to(), transactionEvent.asset(), 0, transactionEvent.price(), 0);
+
+        synchronized (this.coalescedEvents) {
+            this.coalescedEvents.merge(key, transactionEvent, (pendingEvent, newEvent) -> {
+                this.mergedEvents.incrementAndGet();
+                return new TransactionEvent(pendingEvent.from(), pendingEvent.to(), pendingEvent.asset(), pendingEvent.quantity() + newEvent.quantity(), pendingEvent.price(), pendingEvent.enqueuedNanos());
+            });
+        }
+
+    }
+
+    /**
+     * Delivers the queued events in batches until the observer is closed and every queued event is delivered.
+     * If the thread stops for any other reason, new events are not accepted anymore and the queue is cleared,
+     * so threads blocked on a full queue are released.
+     */
+    private void run() {
+
+        try {
+            this.deliverUntilClosed();
+        } finally {
+            this.running = false;
+            this.queue.clear();
+        }
+
+    }
+
+    /**
+     * Delivers the queued events in batches until the observer is closed and every queued event is delivered.
+     */
+    private void deliverUntilClosed() {
+
+        List<TransactionEvent> batch = new ArrayList<>(MAX_BATCH);
+
+        while (this.running || !this.queue.isEmpty() || this.hasCoalescedEvents()) {
+
+            try {
+
+                TransactionEvent firstEvent = this.queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (firstEvent != null) {
+                    batch.add(firstEvent);
+                    this.queue.drainTo(batch, MAX_BATCH - 1);
+                }
+
+            } catch (InterruptedException e) {
+                this.running = false;
+            }
+
+            // Coalesced events are newer than the queued ones, so they are only delivered when the queue is empty
+            if (this.queue.isEmpty()) {
+                synchronized (this.coalescedEvents) {
+                    batch.addAll(this.coalescedEvents.values());
+                    this.coalescedEvents.clear();
+                }
+            }
+
+            for (TransactionEvent transactionEvent : batch) {
+                this.dispatchLag.record(System.nanoTime() - transactionEvent.enqueuedNanos());
+                this.deliver(transactionEvent);
+            }
+
+            batch.clear();
+
+        }
+
+    }
+
+    /**
+     * Delivers an event to the decorated observer, logging and counting the exception if it throws,
+     * so a failing observer does not stop the delivery thread.
+     *
+     * @param transactionEvent the event to be delivered.
+     */
+    private void deliver(TransactionEvent transactionEvent) {
+
+        try {
+            transactionEvent.deliverTo(this.transactionObserver);
+        } catch (RuntimeException e) {
+            this.failedEvents.incrementAndGet();
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * @return true if there are coalesced events waiting to be delivered, false otherwise.
+     */
+    private boolean hasCoalescedEvents() {
+        synchronized (this.coalescedEvents) {
+            return !this.coalescedEvents.isEmpty();
+        }
+    }
+
+    /**
+     * Stops accepting new events. The events already queued are still delivered.
+     */
+    public void close() {
+        this.running = false;
+    }
+
+    /**
+     * Waits for the delivery thread to finish after the observer is closed.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return true if the delivery thread finished, false if the timeout elapsed.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        this.thread.join(unit.toMillis(timeout));
+        return !this.thread.isAlive();
+    }
+
+    /**
+     * @return the number of events waiting to be delivered.
+     */
+    public int getPendingEvents() {
+        synchronized (this.coalescedEvents) {
+            return this.queue.size() + this.coalescedEvents.size();
+        }
+    }
+
+    /**
+     * @return the number of events discarded because the queue was full.
+     */
+    public long getDroppedEvents() {
+        return this.droppedEvents.get();
+    }
+
+    /**
+     * @return the number of events merged into other events because the queue was full.
+     */
+    public long getMergedEvents() {
+        return this.mergedEvents.get();
+    }
+
+    /**
+     * @return the number of events whose delivery threw an exception in the decorated observer.
+     */
+    public long getFailedEvents() {
+        return this.failedEvents.get();
+    }
+
+    /**
+     * @return the histogram of the time from the queueing of each event until it is delivered to the decorated observer.
+     */
+    public LatencyHistogram getDispatchLag() {
+        return this.dispatchLag;
+    }
+
+    /**
+     * @return the decorated observer.
+     */
+    public TransactionObserver getTransactionObserver() {
+        return this.transactionObserver;
+    }
+
+}
@@ -0,0 +1,26 @@
+package br.com.azalim.stockmarket.observer.dispatch;
+
+/**
+ * Represents what happens to a new event when the queue of a slow observer is full.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The publisher waits until the observer makes room in its queue. No event is lost,
+     * but a slow observer slows down whoever publishes the events.
+     */
+    BLOCK,
+
+    /**
+     * The event is discarded and counted. The publisher is never slowed down.
+     */
+    DROP,
+
+    /**
+     * The event is merged with the pending events between the same brokers, of the same asset
+     * and at the same price, adding up their quantities. The publisher is never slowed down and
+     * the traded quantities are preserved, although the events are delivered less granularly.
+     */
+    COALESCE;
+
+}
@@ -0,0 +1,37 @@
+package br.com.azalim.stockmarket.observer.dispatch;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
+
+/**
+ * Represents a transaction waiting to be delivered to a {@link TransactionObserver}.
+ *
+ * @param from          the broker that sold the asset.
+ * @param to            the broker that bought the asset.
+ * @param asset         the asset that was traded.
+ * @param quantity      the quantity of shares that were traded, which may exceed an int once events are coalesced.
+ * @param price         the price of each share.
+ * @param enqueuedNanos the value of {@link System#nanoTime()} when the event was queued.
+ */
+public record TransactionEvent(Broker from, Broker to, Asset asset, long quantity, double price, long enqueuedNanos) {
+
+    /**
+     * Delivers the event to an observer. A quantity larger than an int is delivered as consecutive
+     * transactions of at most {@link Integer#MAX_VALUE} shares.
+     *
+     * @param transactionObserver the observer to be notified.
+     */
+    public void deliverTo(TransactionObserver transactionObserver) {
+
+        long remaining = this.quantity;
+
+        do {
+            int quantity = (int) Math.min(remaining, Integer.MAX_VALUE);
+            transactionObserver.onNewTransactionRegistered(this.from, this.to, this.asset, quantity, this.price);
+            remaining -= quantity;
+        } while (remaining > 0);
+
+    }
+
+}
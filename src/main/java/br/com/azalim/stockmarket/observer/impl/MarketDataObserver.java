@@ -0,0 +1,37 @@
+package br.com.azalim.stockmarket.observer.impl;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.marketdata.PriceLevelAction;
+import br.com.azalim.stockmarket.observer.Observer;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+/**
+ * Represents an observer of the incremental market data of an asset. Every update carries the sequence number
+ * of the feed, so the observer can apply the updates on top of a snapshot and discard the ones it already reflects.
+ */
+public interface MarketDataObserver extends Observer {
+
+    /**
+     * Called when the aggregate quantity of a price level changes.
+     *
+     * @param asset    the asset of the book.
+     * @param sequence the sequence number of the update.
+     * @param side     the side of the book of the level.
+     * @param action   whether the level was added, modified or deleted.
+     * @param price    the price of the level.
+     * @param quantity the quantity of shares still offered at the level, 0 if it was deleted.
+     */
+    void onPriceLevelUpdated(Asset asset, long sequence, OfferOperationType side, PriceLevelAction action, double price, long quantity);
+
+    /**
+     * Called when a trade is executed.
+     *
+     * @param asset     the asset that was traded.
+     * @param sequence  the sequence number of the update.
+     * @param price     the price of each share.
+     * @param quantity  the quantity of shares traded.
+     * @param timestamp the timestamp of the trade, in nanoseconds since the epoch.
+     */
+    void onTradeExecuted(Asset asset, long sequence, double price, int quantity, long timestamp);
+
+}
@@ -5,15 +5,26 @@ import br.com.azalim.stockmarket.asset.Asset;
 import br.com.azalim.stockmarket.broker.Broker;
 import br.com.azalim.stockmarket.operation.offer.OfferOperation;
 
-import java.time.Instant;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Represents an operation. It can be a buy or sell offer ({@link OfferOperation})
- * or a request for asset price information ({@link br.com.azalim.stockmarket.operation.info.InfoOperation}).
+ * Represents an operation. It can be a buy or sell offer ({@link OfferOperation}),
+ * a request for asset price information ({@link br.com.azalim.stockmarket.operation.info.InfoOperation})
+ * or a request to cancel or replace a resting offer ({@link br.com.azalim.stockmarket.operation.cancel.CancelOperation}).
  */
 public abstract class Operation implements Comparable<Operation> {
 
+    /**
+     * The last sequence number assigned to an operation.
+     */
+    private static final AtomicLong LAST_SEQUENCE = new AtomicLong();
+
+    /**
+     * The unique sequence number of the operation. Operations created later always have greater sequence numbers.
+     */
+    private final long sequence;
+
     /**
      * The broker that made the operation.
      */
@@ -25,9 +36,9 @@ public abstract class Operation implements Comparable<Operation> {
     private final Asset asset;
 
     /**
-     * The instant that the operation was created.
+     * The time the operation was registered to its book, in nanoseconds since the epoch, or 0 if it was not registered yet.
      */
-    private final Instant instant;
+    private long timestamp;
 
     /**
      * Creates an operation.
@@ -36,16 +47,63 @@ public abstract class Operation implements Comparable<Operation> {
      * @param asset  the asset that the operation is related to.
      */
     public Operation(Broker broker, Asset asset) {
+        this(nextSequence(), 0, broker, asset);
+    }
+
+    /**
+     * Restores an operation with the sequence number and the timestamp it was given when it was first registered,
+     * like when it is replayed from a journal. Operations created afterwards always get greater sequence numbers.
+     *
+     * @param sequence  the sequence number of the operation. It must not belong to any other live operation.
+     * @param timestamp the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker    the broker that owns the operation.
+     * @param asset     the asset that the operation is related to.
+     */
+    protected Operation(long sequence, long timestamp, Broker broker, Asset asset) {
 
         Objects.requireNonNull(broker);
         Objects.requireNonNull(asset);
 
+        advanceSequence(sequence);
+
+        this.sequence = sequence;
+        this.timestamp = timestamp;
         this.broker = broker;
         this.asset = asset;
-        this.instant = Instant.now();
 
     }
 
+    /**
+     * @return a new sequence number, greater than every sequence number assigned so far.
+     */
+    protected static long nextSequence() {
+        return LAST_SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * @return the last sequence number assigned to an operation.
+     */
+    public static long getLastSequence() {
+        return LAST_SEQUENCE.get();
+    }
+
+    /**
+     * Makes operations created afterwards get greater sequence numbers than the given one, like when
+     * a snapshot or a journal refers to sequence numbers of operations that are not restored.
+     *
+     * @param sequence a sequence number already assigned to an operation.
+     */
+    public static void advanceSequence(long sequence) {
+        LAST_SEQUENCE.accumulateAndGet(sequence, Math::max);
+    }
+
+    /**
+     * @return the unique sequence number of the operation. Operations created later always have greater sequence numbers.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
     /**
      * @return the broker that owns the operation.
      */
@@ -61,10 +119,30 @@ public abstract class Operation implements Comparable<Operation> {
     }
 
     /**
-     * @return the instant that the operation was created.
+     * @return the time the operation was registered to its book, in nanoseconds since the epoch, or 0 if it was not registered yet.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Sets the time the operation was registered to its book, unless it already has one.
+     *
+     * @param timestamp the time of the registration, in nanoseconds since the epoch.
+     */
+    void stamp(long timestamp) {
+        if (this.timestamp == 0) {
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Checks if the operation reached a final state, so it does not need to be processed anymore.
+     *
+     * @return true if the operation is completed, false otherwise.
      */
-    public Instant getInstant() {
-        return instant;
+    public boolean isCompleted() {
+        return false;
     }
 
     /**
@@ -77,14 +155,15 @@ public abstract class Operation implements Comparable<Operation> {
 
     /**
      * Compares this operation with another operation.
-     * The comparison is made by the instant that the operations were created.
+     * The comparison is made by the sequence numbers of the operations, so it only
+     * returns zero when comparing an operation with itself.
      *
      * @param other the other operation to be compared.
      * @return the result of the comparison.
      */
     @Override
     public int compareTo(Operation other) {
-        return this.getInstant().compareTo(other.getInstant());
+        return Long.compare(this.getSequence(), other.getSequence());
     }
 
 }
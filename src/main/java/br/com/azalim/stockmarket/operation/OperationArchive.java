@@ -0,0 +1,132 @@
+package br.com.azalim.stockmarket.operation;
+
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferRecordStore;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents the operations of a book that reached a final state, like executed offers
+ * and answered info requests. They are kept in retirement order in a plain array, so
+ * they can still be queried without being visited again when the book is processed.
+ * <p>
+ * An archive can keep the retired offers off the heap instead, as records of an {@link OfferRecordStore},
+ * so the heap and the garbage collection pauses do not grow with the millions of offers a session retires.
+ * Only retired offers move off the heap: resting offers stay in the heap, since their price levels, the risk stage
+ * and the observers work on them as live objects, so the heap still grows with the depth of the books, but not with the session.
+ * Offers read from such an archive are copies, decoded from their records, listed in retirement order
+ * along with the operations still kept in the heap.
+ */
+public class OperationArchive {
+
+    /**
+     * The retired operations, in retirement order, except for the offers kept off the heap.
+     */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * The records of the retired offers, in retirement order, or null if they are kept in the heap.
+     */
+    private final OfferRecordStore offerRecords;
+
+    /**
+     * The retirement indexes of the offers kept off the heap, so they are listed in retirement order with the other operations.
+     */
+    private final BitSet offHeapIndexes = new BitSet();
+
+    /**
+     * Creates an archive that keeps every operation in the heap.
+     */
+    public OperationArchive() {
+        this(false);
+    }
+
+    /**
+     * Creates an archive.
+     *
+     * @param offHeap true to keep the retired offers off the heap, false to keep them in the heap.
+     */
+    public OperationArchive(boolean offHeap) {
+        this.offerRecords = offHeap ? new OfferRecordStore() : null;
+    }
+
+    /**
+     * Adds a retired operation to the archive.
+     *
+     * @param operation the retired operation.
+     */
+    public synchronized void add(Operation operation) {
+
+        Objects.requireNonNull(operation);
+
+        if (this.offerRecords != null && operation instanceof OfferOperation offerOperation) {
+            this.offHeapIndexes.set(this.size());
+            this.offerRecords.append(offerOperation);
+        } else {
+            this.operations.add(operation);
+        }
+
+    }
+
+    /**
+     * @return the number of retired operations.
+     */
+    public synchronized int size() {
+        return this.operations.size() + (this.offerRecords == null ? 0 : this.offerRecords.size());
+    }
+
+    /**
+     * @return true if the retired offers are kept off the heap, false otherwise.
+     */
+    public boolean isOffHeap() {
+        return this.offerRecords != null;
+    }
+
+    /**
+     * @return the number of bytes allocated outside of the heap for the retired offers.
+     */
+    public synchronized long getOffHeapBytes() {
+        return this.offerRecords == null ? 0 : this.offerRecords.getOffHeapBytes();
+    }
+
+    /**
+     * Finds all the retired operations that are instances of a given class.
+     *
+     * @param operationClass the class of the operations to be found.
+     * @param <T>            the type of the operations to be found.
+     * @return a copy of the retired operations that are instances of the given class, in retirement order.
+     * If the offers are kept off the heap, they are decoded copies of the retired offers.
+     */
+    public synchronized <T> List<T> getOperations(Class<T> operationClass) {
+
+        boolean decodeOffers = this.offerRecords != null && operationClass.isAssignableFrom(OfferOperation.class);
+        List<T> operations = new ArrayList<>();
+
+        for (int index = 0, heapIndex = 0, offHeapIndex = 0, size = this.size(); index < size; index++) {
+
+            Operation operation;
+
+            if (!this.offHeapIndexes.get(index)) {
+                operation = this.operations.get(heapIndex++);
+            } else if (decodeOffers) {
+                operation = this.offerRecords.get(offHeapIndex++);
+            } else {
+                offHeapIndex++;
+                continue;
+            }
+
+            if (operationClass.isInstance(operation)) {
+                operations.add(operationClass.cast(operation));
+            }
+
+        }
+
+        return Collections.unmodifiableList(operations);
+
+    }
+
+}
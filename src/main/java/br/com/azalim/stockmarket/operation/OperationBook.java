@@ -1,14 +1,28 @@
 package br.com.azalim.stockmarket.operation;
 
 import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.Utils;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.clock.Clock;
+import br.com.azalim.stockmarket.clock.SystemClock;
+import br.com.azalim.stockmarket.engine.MatchingShard;
+import br.com.azalim.stockmarket.marketdata.MarketDataFeed;
+import br.com.azalim.stockmarket.marketdata.TopOfBook;
+import br.com.azalim.stockmarket.metrics.BookMetrics;
 import br.com.azalim.stockmarket.observer.Observable;
 import br.com.azalim.stockmarket.observer.impl.OperationBookObserver;
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
 import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
 import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.operation.offer.PriceLevel;
+import br.com.azalim.stockmarket.persistence.Journal;
+import br.com.azalim.stockmarket.risk.RiskManager;
+import br.com.azalim.stockmarket.risk.RiskViolationException;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Collectors;
 
 /**
@@ -17,31 +31,224 @@ import java.util.stream.Collectors;
 public class OperationBook implements Observable<OperationBookObserver> {
 
     /**
-     * The operations registered to the book.
+     * The source of time of the book, used to timestamp registered operations and executed trades.
      */
-    private final Set<Operation> operations = new ConcurrentSkipListSet<>();
+    private final Clock clock;
+
+    /**
+     * The operations registered to the book that did not reach a final state yet, guarded by its own lock.
+     */
+    private final OperationIndex<Operation> operations = new OperationIndex<>();
+
+    /**
+     * The operations registered to the book that reached a final state.
+     */
+    private volatile OperationArchive archive = new OperationArchive();
+
+    /**
+     * The resting offers of the book, organized by price-time priority.
+     */
+    private final OfferBook offerBook = new OfferBook();
+
+    /**
+     * The resting offers of the book, indexed by their sequence numbers. Guarded by the lock of the offer book.
+     */
+    private final OperationIndex<OfferOperation> restingOffers = new OperationIndex<>();
+
+    /**
+     * The trades executed in the book, indexed by time.
+     */
+    private final TradeTape tradeTape = new TradeTape();
+
+    /**
+     * The best bid and ask of the book, readable by any thread without locking.
+     */
+    private final TopOfBook topOfBook = new TopOfBook();
+
+    /**
+     * The incremental market data feed of the book.
+     */
+    private final MarketDataFeed marketDataFeed = new MarketDataFeed(this.offerBook);
+
+    /**
+     * The counters and latency histograms of the book.
+     */
+    private final BookMetrics metrics = new BookMetrics(this.offerBook);
 
     /**
      * The observers that are going to be notified when there is a new offer operation registered.
+     * The array is replaced when an observer subscribes, so notifying them never allocates.
+     */
+    private volatile OperationBookObserver[] observers = new OperationBookObserver[0];
+
+    /**
+     * The stock market that processes every operation as soon as it is registered,
+     * or null if the book is processed as a whole from time to time.
+     */
+    private volatile StockMarket continuousProcessor;
+
+    /**
+     * The shard of the matching engine that processes the registered operations,
+     * or null if they are processed by the thread that registers them.
+     */
+    private volatile MatchingShard shard;
+
+    /**
+     * The journal that records the offers registered to the book and the trades executed in it,
+     * or null if the book is not journaled.
+     */
+    private volatile Journal journal;
+
+    /**
+     * The pre-trade risk stage that checks every registered operation, or null if they are not checked.
+     */
+    private volatile RiskManager riskManager;
+
+    /**
+     * Creates an operation book that uses the wall clock of the system.
+     */
+    public OperationBook() {
+        this(SystemClock.INSTANCE);
+    }
+
+    /**
+     * Creates an operation book.
+     *
+     * @param clock the source of time of the book, used to timestamp registered operations and executed trades.
+     */
+    public OperationBook(Clock clock) {
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * @return the source of time of the book, used to timestamp registered operations and executed trades.
+     */
+    public Clock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * @return a copy of the operations registered to the book that did not reach a final state yet, sorted by their sequence numbers.
+     */
+    public SortedSet<Operation> getOperations() {
+        synchronized (this.operations) {
+            return new TreeSet<>(this.operations.values());
+        }
+    }
+
+    /**
+     * @return the operations registered to the book that reached a final state.
+     */
+    public OperationArchive getArchive() {
+        return this.archive;
+    }
+
+    /**
+     * @return the resting offers of the book, organized by price-time priority.
+     */
+    public OfferBook getOfferBook() {
+        return this.offerBook;
+    }
+
+    /**
+     * @return the trades executed in the book, indexed by time.
+     */
+    public TradeTape getTradeTape() {
+        return this.tradeTape;
+    }
+
+    /**
+     * @return the best bid and ask of the book, readable by any thread without locking.
+     */
+    public TopOfBook getTopOfBook() {
+        return this.topOfBook;
+    }
+
+    /**
+     * @return the incremental market data feed of the book.
+     */
+    public MarketDataFeed getMarketDataFeed() {
+        return this.marketDataFeed;
+    }
+
+    /**
+     * @return the counters and latency histograms of the book.
+     */
+    public BookMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return the journal that records the offers registered to the book and the trades executed in it,
+     * or null if the book is not journaled.
+     */
+    public Journal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Starts or stops recording the offers registered to the book and the trades executed in it.
+     *
+     * @param journal the journal to record to, or null to stop recording.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return the pre-trade risk stage that checks every registered operation, or null if they are not checked.
+     */
+    public RiskManager getRiskManager() {
+        return this.riskManager;
+    }
+
+    /**
+     * Starts or stops checking the registered operations against the limits of their brokers.
+     *
+     * @param riskManager the risk stage to check with, or null to stop checking.
      */
-    private final Set<OperationBookObserver> observers = new HashSet<>();
+    public void setRiskManager(RiskManager riskManager) {
+        this.riskManager = riskManager;
+    }
 
     /**
-     * @return the operations registered to the book.
+     * Keeps the price levels of the book in arrays indexed by price, over a band of ticks around a reference price,
+     * instead of sorted trees. Offers in the band are added and matched in constant time, whatever the depth of the book,
+     * while prices outside of the band fall back to sorted trees. The resting offers are moved along with their priority.
+     *
+     * @param referencePriceTicks the price in the middle of the band, in ticks of the asset.
+     * @param bandTicks           the number of ticks of the band above and below the reference price.
      */
-    public Set<Operation> getOperations() {
-        return this.operations;
+    public void usePriceLadder(long referencePriceTicks, int bandTicks) {
+        synchronized (this.offerBook) {
+            this.offerBook.usePriceLadder(referencePriceTicks, bandTicks);
+        }
     }
 
     /**
-     * Finds all the operations that are instances of a given class.
+     * Keeps the offers that reach a final state off the heap, as fixed-size records, so the heap does not grow
+     * with the offers the book retires. The operations already archived are moved to the new archive.
+     * It should be called before the book starts processing operations, since offers retired while
+     * the archives are being swapped may be left in the old one.
+     */
+    public void useOffHeapArchive() {
+
+        OperationArchive archive = new OperationArchive(true);
+
+        this.archive.getOperations(Operation.class).forEach(archive::add);
+        this.archive = archive;
+
+    }
+
+    /**
+     * Finds all the operations not in a final state that are instances of a given class.
      *
      * @param operationClass the class of the operations to be found.
      * @param <T>            the type of the operations to be found.
      * @return the operations that are instances of the given class.
      */
     public <T> Set<T> getOperations(Class<T> operationClass) {
-        return this.operations.stream()
+        return this.getOperations().stream()
                 .filter(operationClass::isInstance)
                 .map(operationClass::cast)
                 .collect(Collectors.toCollection(TreeSet::new));
@@ -49,49 +256,453 @@ public class OperationBook implements Observable<OperationBookObserver> {
 
     /**
      * Registers a new operation to the book.
-     * If the operation is an offer operation, the observers will be notified.
+     * If the operation is an offer operation, it is queued in its price level and the observers will be notified.
+     * When the book is pinned to a shard of the matching engine, the operation is published
+     * to the ring buffer of the shard, which adds and processes it right away.
+     * If there is a risk manager, the operation is first checked against the limits of its broker by the calling thread.
      *
      * @param operation the operation to be registered.
+     * @throws RiskViolationException if the operation would exceed any limit of its broker.
      */
     public void register(Operation operation) {
 
         Objects.requireNonNull(operation);
 
-        this.operations.add(operation);
+        long entryNanos = System.nanoTime();
+        RiskManager riskManager = this.riskManager;
+
+        if (riskManager != null) {
+            try {
+                riskManager.check(this, operation);
+            } catch (RiskViolationException e) {
+                this.metrics.recordRejection();
+                throw e;
+            }
+        }
+
+        MatchingShard shard = this.shard;
+
+        if (shard != null) {
+
+            try {
+                shard.publish(this, operation, entryNanos);
+            } catch (RuntimeException e) {
+
+                // The operation never reaches the book, so the quantity reserved for it is never executed or canceled
+                if (riskManager != null && operation instanceof OfferOperation offerOperation) {
+                    riskManager.release(offerOperation);
+                }
+
+                throw e;
+
+            }
+
+        } else {
+            this.accept(operation, entryNanos);
+        }
+
+    }
+
+    /**
+     * Adds an operation to the book and processes it if the book is being processed continuously.
+     * The operation is timestamped with the clock of the book, unless it already has a timestamp.
+     * Limit offers that can still be executed are recorded in the journal, if there is one, before being added to the offer book.
+     * Offers of the other kinds are never added to the offer book; they are matched and canceled the first time they are processed.
+     * Must only be called by the thread that owns the book; any other thread should use {@link #register(Operation)}.
+     *
+     * @param operation the operation to be added.
+     */
+    public void accept(Operation operation) {
+        this.accept(operation, System.nanoTime());
+    }
+
+    /**
+     * Adds an operation to the book and processes it if the book is being processed continuously,
+     * recording the time since it was registered in the metrics of the book.
+     * Limit offers rest in the offer book right away only if the book is not processed continuously;
+     * otherwise they are matched first, and only the quantity left rests.
+     * Must only be called by the thread that owns the book; any other thread should use {@link #register(Operation)}.
+     *
+     * @param operation  the operation to be added.
+     * @param entryNanos the value of {@link System#nanoTime()} when the operation was registered.
+     */
+    public void accept(Operation operation, long entryNanos) {
+
+        Objects.requireNonNull(operation);
+
+        operation.stamp(this.clock.epochNanos());
+
+        synchronized (this.operations) {
+            this.operations.put(operation);
+        }
+
+        StockMarket stockMarket = this.continuousProcessor;
 
         if (operation instanceof OfferOperation offerOperation) {
-            this.observers.forEach(operationBookObserver -> operationBookObserver.onNewOfferRegistered(offerOperation));
+
+            // Offers processed right away are matched first, and only their remainder rests in the book
+            if (stockMarket == null && !offerOperation.getStatus().isFinal() && offerOperation.getKind() == OfferOperationKind.LIMIT) {
+
+                synchronized (this.offerBook) {
+                    this.journalRegister(offerOperation);
+                    this.rest(offerOperation);
+                    this.refreshTopOfBook();
+                }
+
+            }
+
+            for (OperationBookObserver observer : this.observers) {
+                observer.onNewOfferRegistered(offerOperation);
+            }
+
         }
 
+        if (stockMarket != null) {
+            this.process(stockMarket, operation);
+        }
+
+        this.metrics.recordOrder(System.nanoTime() - entryNanos);
+
     }
 
     /**
-     * Retrieves the price of the last executed offer operation before a given instant.
-     * If there is no executed offer operation before the given instant, -1 will be returned.
+     * Processes an operation and retires it if it reached a final state.
      *
-     * @param instant the instant to be used to find the last executed offer operation.
-     * @return the price of the last executed offer operation before the given instant.
+     * @param stockMarket the stock market where the operation is being processed.
+     * @param operation   the operation to be processed.
      */
-    public double getPriceAtInstant(Instant instant) {
+    private void process(StockMarket stockMarket, Operation operation) {
 
-        return this.getOperations(OfferOperation.class)
-                .stream()
-                .filter(offerOperation -> offerOperation.getStatus() == OfferOperationStatus.EXECUTED || offerOperation.getStatus() == OfferOperationStatus.PARTIALLY_EXECUTED)
-                .filter(offerOperation -> offerOperation.getInstant().isBefore(instant))
-                .sorted(Comparator.reverseOrder())
-                .limit(1)
-                .map(OfferOperation::getPrice)
-                .findFirst().orElse(-1D);
+        long startNanos = System.nanoTime();
+
+        operation.process(stockMarket, this);
+        this.metrics.recordMatch(System.nanoTime() - startNanos);
+
+        if (operation.isCompleted()) {
+            this.retire(operation);
+        }
 
     }
 
     /**
-     * Processes the registered operations.
+     * Moves an operation that reached a final state from the active operations to the archive.
+     * The quantity a canceled offer reserved in the risk manager, if there is one, is released.
+     *
+     * @param operation the completed operation.
+     */
+    public void retire(Operation operation) {
+
+        Objects.requireNonNull(operation);
+
+        if (operation instanceof OfferOperation offerOperation) {
+            synchronized (this.offerBook) {
+                this.restingOffers.remove(offerOperation.getSequence());
+            }
+        }
+
+        boolean removed;
+
+        synchronized (this.operations) {
+            removed = this.operations.remove(operation.getSequence()) != null;
+        }
+
+        if (removed) {
+
+            this.archive.add(operation);
+
+            RiskManager riskManager = this.riskManager;
+
+            if (riskManager != null && operation instanceof OfferOperation offerOperation && offerOperation.getStatus() == OfferOperationStatus.CANCELED) {
+                riskManager.release(offerOperation);
+            }
+
+        }
+
+    }
+
+    /**
+     * @param sequence the sequence number of the offer.
+     * @return the offer of the book with the given sequence number that can still be executed, or null if there is none.
+     */
+    public OfferOperation getRestingOffer(long sequence) {
+        synchronized (this.offerBook) {
+            return this.restingOffers.get(sequence);
+        }
+    }
+
+    /**
+     * Cancels a resting offer of the book: it is unlinked from its price level in constant time, recorded
+     * in the journal, if there is one, published to the market data feed and retired.
+     * Must only be called by the thread that owns the book.
+     *
+     * @param sequence the sequence number of the offer.
+     * @return the canceled offer, or null if there is no offer with the given sequence number that can still be executed.
+     */
+    public OfferOperation cancel(long sequence) {
+
+        OfferOperation offerOperation;
+
+        synchronized (this.offerBook) {
+
+            offerOperation = this.restingOffers.remove(sequence);
+
+            if (offerOperation == null) {
+                return null;
+            }
+
+            offerOperation.cancel();
+
+            Journal journal = this.journal;
+
+            if (journal != null) {
+                journal.appendCancel(this.clock.epochNanos(), offerOperation);
+            }
+
+            if (this.marketDataFeed.hasObservers()) {
+                this.marketDataFeed.publishLevel(offerOperation.getAsset(), offerOperation.getType(), offerOperation.getPriceTicks(), -offerOperation.getQuantity());
+            }
+
+            this.refreshTopOfBook();
+
+        }
+
+        this.retire(offerOperation);
+        return offerOperation;
+
+    }
+
+    /**
+     * Adds a limit offer to its price level and to the index of resting offers, and publishes
+     * the quantity added to the level. The best bid and ask are left for the caller to refresh.
+     * Must be called while the offer book is locked, and only for the quantity that did not cross the book
+     * if the offer is being processed, so the market data never shows a crossed book.
+     *
+     * @param offerOperation the offer to be rested.
+     */
+    public void rest(OfferOperation offerOperation) {
+
+        this.offerBook.add(offerOperation);
+        this.restingOffers.put(offerOperation);
+
+        if (this.marketDataFeed.hasObservers()) {
+            this.marketDataFeed.publishLevel(offerOperation.getAsset(), offerOperation.getType(), offerOperation.getPriceTicks(), offerOperation.getQuantity());
+        }
+
+    }
+
+    /**
+     * Records an offer that is not resting in the book yet in the journal, if there is one.
+     * Must be called while the offer book is locked, right before the offer is matched or rested.
+     *
+     * @param offerOperation the offer to be recorded.
+     */
+    public void journalRegister(OfferOperation offerOperation) {
+
+        Journal journal = this.journal;
+
+        if (journal != null) {
+            journal.appendRegister(offerOperation);
+        }
+
+    }
+
+    /**
+     * Cancels the quantity an offer that does not rest in the book could not execute, like the remainder
+     * of an immediate-or-cancel offer: it is recorded in the journal, if there is one, and retired.
+     *
+     * @param offerOperation the offer to be canceled.
+     */
+    public void expire(OfferOperation offerOperation) {
+
+        synchronized (this.offerBook) {
+
+            offerOperation.cancel();
+
+            Journal journal = this.journal;
+
+            if (journal != null) {
+                journal.appendCancel(this.clock.epochNanos(), offerOperation);
+            }
+
+        }
+
+        this.retire(offerOperation);
+
+    }
+
+    /**
+     * Executes a trade between two offers of the book: the shares are transferred between the wallets
+     * of the brokers, the trade is recorded in the tape and in the journal, if there is one, the executed quantity
+     * is released from the risk manager, if there is one,
+     * the changed price levels and the trade are published to the market data feed
+     * and the transaction observers are notified. The time spent notifying them is recorded in the metrics of the book.
+     *
+     * @param stockMarket        the stock market where the trade is being executed.
+     * @param sellOfferOperation the sell offer of the trade.
+     * @param buyOfferOperation  the buy offer of the trade.
+     * @param quantity           the quantity of shares traded.
+     * @param price              the price of each share.
+     */
+    public void executeTrade(StockMarket stockMarket, OfferOperation sellOfferOperation, OfferOperation buyOfferOperation, int quantity, double price) {
+
+        long timestamp = this.clock.epochNanos();
+        Journal journal = this.journal;
+
+        RiskManager riskManager = this.riskManager;
+
+        this.settleTrade(sellOfferOperation, buyOfferOperation, quantity, price, timestamp);
+
+        if (riskManager != null) {
+            riskManager.release(sellOfferOperation, quantity);
+            riskManager.release(buyOfferOperation, quantity);
+        }
+
+        if (journal != null) {
+            journal.appendTrade(timestamp, sellOfferOperation, buyOfferOperation, quantity, price);
+        }
+
+        if (this.marketDataFeed.hasObservers()) {
+            this.publishTrade(sellOfferOperation, buyOfferOperation, quantity, price, timestamp);
+        }
+
+        long dispatchNanos = System.nanoTime();
+
+        stockMarket.notifyTransactionObservers(sellOfferOperation.getBroker(), buyOfferOperation.getBroker(), sellOfferOperation.getAsset(), quantity, price);
+        this.metrics.recordFill(quantity, System.nanoTime() - dispatchNanos);
+
+    }
+
+    /**
+     * Updates the best bid and ask from the best price level of each side of the offer book.
+     * Must be called while the offer book is locked, after the offer book changes.
+     */
+    public void refreshTopOfBook() {
+
+        PriceLevel bestBid = this.offerBook.getBestLevel(OfferOperationType.BUY);
+        PriceLevel bestAsk = this.offerBook.getBestLevel(OfferOperationType.SELL);
+
+        this.topOfBook.update(
+                bestBid == null ? -1 : bestBid.getPrice(), bestBid == null ? 0 : bestBid.getQuantity(),
+                bestAsk == null ? -1 : bestAsk.getPrice(), bestAsk == null ? 0 : bestAsk.getQuantity()
+        );
+
+    }
+
+    /**
+     * Publishes a trade and the price levels it changed to the market data feed.
+     * Must be called while the offer book is locked.
+     *
+     * @param sellOfferOperation the sell offer of the trade.
+     * @param buyOfferOperation  the buy offer of the trade.
+     * @param quantity           the quantity of shares traded.
+     * @param price              the price of each share.
+     * @param timestamp          the timestamp of the trade, in nanoseconds since the epoch.
+     */
+    private void publishTrade(OfferOperation sellOfferOperation, OfferOperation buyOfferOperation, int quantity, double price, long timestamp) {
+
+        Asset asset = sellOfferOperation.getAsset();
+
+        if (sellOfferOperation.isInBook()) {
+            this.marketDataFeed.publishLevel(asset, OfferOperationType.SELL, sellOfferOperation.getPriceTicks(), -quantity);
+        }
+
+        if (buyOfferOperation.isInBook()) {
+            this.marketDataFeed.publishLevel(asset, OfferOperationType.BUY, buyOfferOperation.getPriceTicks(), -quantity);
+        }
+
+        this.marketDataFeed.publishTrade(asset, price, quantity, timestamp);
+
+    }
+
+    /**
+     * Settles a trade between two offers of the book, without notifying anyone: the shares are
+     * transferred between the wallets of the brokers and the trade is recorded in the tape.
+     *
+     * @param sellOfferOperation the sell offer of the trade.
+     * @param buyOfferOperation  the buy offer of the trade.
+     * @param quantity           the quantity of shares traded.
+     * @param price              the price of each share.
+     * @param timestamp          the timestamp of the trade, in nanoseconds since the epoch.
+     */
+    public void settleTrade(OfferOperation sellOfferOperation, OfferOperation buyOfferOperation, int quantity, double price, long timestamp) {
+
+        Asset asset = sellOfferOperation.getAsset();
+
+        sellOfferOperation.getBroker().getWallet().registerTransaction(asset, -quantity, price, timestamp);
+        buyOfferOperation.getBroker().getWallet().registerTransaction(asset, quantity, price, timestamp);
+
+        this.tradeTape.record(timestamp, price, quantity);
+
+    }
+
+    /**
+     * Retrieves the price of the last trade executed before a given instant.
+     * If there is no trade before the given instant, -1 will be returned.
+     *
+     * @param instant the instant to be used to find the last trade.
+     * @return the price of the last trade before the given instant.
+     */
+    public double getPriceAtInstant(Instant instant) {
+        return this.tradeTape.getPriceBefore(Utils.toEpochNanos(instant));
+    }
+
+    /**
+     * Processes the registered operations that did not reach a final state yet.
+     * The operations that reach a final state are moved to the archive.
      *
      * @param stockMarket the stock market where the operations are being processed.
      */
     public void processOperations(StockMarket stockMarket) {
-        this.getOperations().forEach(operation -> operation.process(stockMarket, this));
+
+        List<Operation> operations;
+
+        synchronized (this.operations) {
+            operations = this.operations.values();
+        }
+
+        for (Operation operation : operations) {
+            this.process(stockMarket, operation);
+        }
+
+    }
+
+    /**
+     * Starts processing every operation as soon as it is registered, by the thread that registers it.
+     * The operations registered so far are processed once before returning.
+     *
+     * @param stockMarket the stock market where the operations are going to be processed.
+     */
+    public void startContinuousProcessing(StockMarket stockMarket) {
+
+        Objects.requireNonNull(stockMarket);
+
+        this.continuousProcessor = stockMarket;
+        this.processOperations(stockMarket);
+
+    }
+
+    /**
+     * Starts processing every operation as soon as it is registered, by the given shard of the matching engine.
+     * The operations registered so far are processed once before returning.
+     *
+     * @param stockMarket the stock market where the operations are going to be processed.
+     * @param shard       the shard that processes the operations of this book.
+     */
+    public void startContinuousProcessing(StockMarket stockMarket, MatchingShard shard) {
+
+        Objects.requireNonNull(shard);
+
+        this.startContinuousProcessing(stockMarket);
+        this.shard = shard;
+
+    }
+
+    /**
+     * Stops processing the operations as soon as they are registered.
+     */
+    public void stopContinuousProcessing() {
+        this.shard = null;
+        this.continuousProcessor = null;
     }
 
     /**
@@ -100,8 +711,16 @@ public class OperationBook implements Observable<OperationBookObserver> {
      * @param observer the observer that is going to be notified when new offer operations are registered.
      */
     @Override
-    public void observe(OperationBookObserver observer) {
-        this.observers.add(observer);
+    public synchronized void observe(OperationBookObserver observer) {
+
+        Objects.requireNonNull(observer);
+
+        if (!Arrays.asList(this.observers).contains(observer)) {
+            OperationBookObserver[] observers = Arrays.copyOf(this.observers, this.observers.length + 1);
+            observers[observers.length - 1] = observer;
+            this.observers = observers;
+        }
+
     }
 
     /**
@@ -109,7 +728,7 @@ public class OperationBook implements Observable<OperationBookObserver> {
      */
     @Override
     public Collection<OperationBookObserver> getObservers() {
-        return Collections.unmodifiableSet(this.observers);
+        return List.of(this.observers);
     }
 
 }
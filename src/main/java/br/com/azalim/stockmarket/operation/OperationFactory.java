@@ -2,8 +2,11 @@ package br.com.azalim.stockmarket.operation;
 
 import br.com.azalim.stockmarket.asset.Asset;
 import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.cancel.CancelOperation;
+import br.com.azalim.stockmarket.operation.cancel.ReplaceOperation;
 import br.com.azalim.stockmarket.operation.info.InfoOperation;
 import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
 import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
 
 import java.time.Instant;
@@ -19,6 +22,14 @@ public class OperationFactory {
         return new OfferOperation(broker, asset, type, quantity, price);
     }
 
+    /**
+     * Creates an offer operation of a given kind.
+     * {@link OfferOperation}
+     */
+    public static OfferOperation createOfferOperation(Broker broker, Asset asset, OfferOperationType type, OfferOperationKind kind, int quantity, double price) {
+        return new OfferOperation(broker, asset, type, kind, quantity, price);
+    }
+
     /**
      * Creates an info operation.
      * {@link InfoOperation}
@@ -27,4 +38,20 @@ public class OperationFactory {
         return new InfoOperation(broker, asset, infoInstant, answerConsumer);
     }
 
+    /**
+     * Creates a cancel operation.
+     * {@link CancelOperation}
+     */
+    public static CancelOperation createCancelOperation(Broker broker, Asset asset, long offerSequence) {
+        return new CancelOperation(broker, asset, offerSequence);
+    }
+
+    /**
+     * Creates a replace operation.
+     * {@link ReplaceOperation}
+     */
+    public static ReplaceOperation createReplaceOperation(Broker broker, Asset asset, long offerSequence, int quantity, double price) {
+        return new ReplaceOperation(broker, asset, offerSequence, quantity, price);
+    }
+
 }
@@ -0,0 +1,240 @@
+package br.com.azalim.stockmarket.operation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents an index of operations by their sequence numbers, as an open addressing hash table with linear probing.
+ * The sequence numbers are kept as primitive longs, so lookups, insertions and removals never allocate,
+ * except when the table grows. Removals shift the following entries back instead of leaving tombstones,
+ * so a table that sees many insertions and removals, like one of orders that are constantly requoted,
+ * does not degrade over time.
+ * <p>
+ * The index is not thread-safe: it must be guarded by the lock of its owner.
+ *
+ * @param <T> the type of the indexed operations.
+ */
+public class OperationIndex<T extends Operation> {
+
+    /**
+     * The default number of slots of the table.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The sequence numbers of the slots.
+     */
+    private long[] keys;
+
+    /**
+     * The operations of the slots, or null for empty slots.
+     */
+    private Operation[] values;
+
+    /**
+     * The mask used to find the home slot of a sequence number. The capacity is always a power of two.
+     */
+    private int mask;
+
+    /**
+     * The number of indexed operations.
+     */
+    private int size;
+
+    /**
+     * Creates an index with the default capacity.
+     */
+    public OperationIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an index.
+     *
+     * @param capacity the initial number of slots of the table. It is rounded up to a power of two.
+     */
+    public OperationIndex(int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0: " + capacity);
+        }
+
+        this.allocate(Math.max(2, Integer.highestOneBit(capacity - 1) << 1));
+
+    }
+
+    /**
+     * Indexes an operation by its sequence number, replacing any operation with the same sequence number.
+     *
+     * @param operation the operation to be indexed.
+     */
+    public void put(T operation) {
+
+        Objects.requireNonNull(operation);
+
+        long sequence = operation.getSequence();
+        int slot = this.slotOf(sequence);
+
+        while (this.values[slot] != null) {
+
+            if (this.keys[slot] == sequence) {
+                this.values[slot] = operation;
+                return;
+            }
+
+            slot = (slot + 1) & this.mask;
+
+        }
+
+        this.keys[slot] = sequence;
+        this.values[slot] = operation;
+
+        // The table is kept at most half full, so the probe sequences stay short
+        if (++this.size > this.values.length >>> 1) {
+            this.grow();
+        }
+
+    }
+
+    /**
+     * @param sequence the sequence number of the operation.
+     * @return the indexed operation with the given sequence number, or null if there is none.
+     */
+    public T get(long sequence) {
+
+        int slot = this.find(sequence);
+        return slot < 0 ? null : this.valueAt(slot);
+
+    }
+
+    /**
+     * Removes an operation from the index.
+     *
+     * @param sequence the sequence number of the operation.
+     * @return the removed operation, or null if there was no operation with the given sequence number.
+     */
+    public T remove(long sequence) {
+
+        int slot = this.find(sequence);
+
+        if (slot < 0) {
+            return null;
+        }
+
+        T operation = this.valueAt(slot);
+        int hole = slot;
+
+        // Shifts back every following entry whose home slot is not between the hole and its current slot
+        for (int next = (slot + 1) & this.mask; this.values[next] != null; next = (next + 1) & this.mask) {
+
+            int home = this.slotOf(this.keys[next]);
+            boolean reachable = hole < next ? home > hole && home <= next : home > hole || home <= next;
+
+            if (!reachable) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                hole = next;
+            }
+
+        }
+
+        this.values[hole] = null;
+        this.size--;
+
+        return operation;
+
+    }
+
+    /**
+     * @return the number of indexed operations.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return a copy of the indexed operations, sorted by their sequence numbers.
+     */
+    public List<T> values() {
+
+        List<T> operations = new ArrayList<>(this.size);
+
+        for (int slot = 0; slot < this.values.length; slot++) {
+            if (this.values[slot] != null) {
+                operations.add(this.valueAt(slot));
+            }
+        }
+
+        Collections.sort(operations);
+        return operations;
+
+    }
+
+    /**
+     * @param sequence the sequence number of the operation.
+     * @return the slot of the operation with the given sequence number, or -1 if there is none.
+     */
+    private int find(long sequence) {
+
+        for (int slot = this.slotOf(sequence); this.values[slot] != null; slot = (slot + 1) & this.mask) {
+            if (this.keys[slot] == sequence) {
+                return slot;
+            }
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * @param slot a slot of the table.
+     * @return the operation of the slot, or null if it is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private T valueAt(int slot) {
+        return (T) this.values[slot];
+    }
+
+    /**
+     * @param sequence a sequence number.
+     * @return the home slot of the sequence number. Consecutive sequence numbers are spread over the table.
+     */
+    private int slotOf(long sequence) {
+        long hash = sequence * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    /**
+     * Doubles the number of slots of the table, reinserting every operation.
+     */
+    private void grow() {
+
+        Operation[] values = this.values;
+
+        this.allocate(values.length << 1);
+
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                @SuppressWarnings("unchecked")
+                T operation = (T) values[slot];
+                this.put(operation);
+            }
+        }
+
+    }
+
+    /**
+     * Replaces the table with an empty one.
+     *
+     * @param capacity the number of slots of the new table. Must be a power of two.
+     */
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Operation[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+}
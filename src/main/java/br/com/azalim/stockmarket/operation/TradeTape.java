@@ -0,0 +1,116 @@
+package br.com.azalim.stockmarket.operation;
+
+import java.util.Arrays;
+
+/**
+ * Represents the append-only record of the trades of an asset. The trades are stored in
+ * growable primitive arrays sorted by timestamp, so the price at any instant can be found
+ * with a binary search.
+ */
+public class TradeTape {
+
+    /**
+     * The initial capacity of the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The timestamps of the trades, in nanoseconds since the epoch.
+     */
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+
+    /**
+     * The prices of each share in the trades.
+     */
+    private double[] prices = new double[INITIAL_CAPACITY];
+
+    /**
+     * The quantities of shares in the trades.
+     */
+    private int[] quantities = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of recorded trades.
+     */
+    private int size = 0;
+
+    /**
+     * Records a trade. Timestamps older than the last recorded one are moved forward to it,
+     * so the tape is always sorted even if the wall clock goes backwards.
+     *
+     * @param timestamp the timestamp of the trade, in nanoseconds since the epoch.
+     * @param price     the price of each share in the trade.
+     * @param quantity  the quantity of shares in the trade.
+     */
+    public synchronized void record(long timestamp, double price, int quantity) {
+
+        if (this.size == this.timestamps.length) {
+            int capacity = this.size * 2;
+            this.timestamps = Arrays.copyOf(this.timestamps, capacity);
+            this.prices = Arrays.copyOf(this.prices, capacity);
+            this.quantities = Arrays.copyOf(this.quantities, capacity);
+        }
+
+        this.timestamps[this.size] = this.size == 0 ? timestamp : Math.max(timestamp, this.timestamps[this.size - 1]);
+        this.prices[this.size] = price;
+        this.quantities[this.size] = quantity;
+        this.size++;
+
+    }
+
+    /**
+     * Retrieves the price of the last trade recorded strictly before a given timestamp.
+     *
+     * @param timestamp the timestamp, in nanoseconds since the epoch.
+     * @return the price of the last trade before the given timestamp, or -1 if there is none.
+     */
+    public synchronized double getPriceBefore(long timestamp) {
+
+        int low = 0, high = this.size;
+
+        // Finds the first trade at or after the given timestamp
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (this.timestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+
+        }
+
+        return low == 0 ? -1 : this.prices[low - 1];
+
+    }
+
+    /**
+     * @return the price of the last recorded trade, or -1 if there is none.
+     */
+    public synchronized double getLastPrice() {
+        return this.size == 0 ? -1 : this.prices[this.size - 1];
+    }
+
+    /**
+     * @return the timestamp of the last recorded trade, in nanoseconds since the epoch, or -1 if there is none.
+     */
+    public synchronized long getLastTimestamp() {
+        return this.size == 0 ? -1 : this.timestamps[this.size - 1];
+    }
+
+    /**
+     * @return the quantity of shares of the last recorded trade, or 0 if there is none.
+     */
+    public synchronized int getLastQuantity() {
+        return this.size == 0 ? 0 : this.quantities[this.size - 1];
+    }
+
+    /**
+     * @return the number of recorded trades.
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+}
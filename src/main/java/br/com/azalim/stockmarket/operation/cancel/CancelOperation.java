@@ -0,0 +1,105 @@
+package br.com.azalim.stockmarket.operation.cancel;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+
+import java.util.Objects;
+
+/**
+ * Represents a request to cancel a resting offer, identified by its sequence number.
+ * Only the broker that owns the offer can cancel it. The request is rejected if the offer
+ * is not resting in the book anymore, like when it has already been executed.
+ */
+public class CancelOperation extends Operation {
+
+    /**
+     * The sequence number of the offer to be canceled.
+     */
+    private final long offerSequence;
+
+    /**
+     * Indicates if the request has been processed.
+     */
+    private boolean processed = false;
+
+    /**
+     * The offer that was canceled, or null if the request was rejected or not processed yet.
+     */
+    private OfferOperation canceledOfferOperation;
+
+    /**
+     * Creates a cancel operation.
+     *
+     * @param broker        the broker that owns the offer.
+     * @param asset         the asset of the offer.
+     * @param offerSequence the sequence number of the offer to be canceled.
+     */
+    public CancelOperation(Broker broker, Asset asset, long offerSequence) {
+        super(broker, asset);
+        this.offerSequence = offerSequence;
+    }
+
+    /**
+     * @return the sequence number of the offer to be canceled.
+     */
+    public long getOfferSequence() {
+        return this.offerSequence;
+    }
+
+    /**
+     * @return the offer that was canceled, or null if the request was rejected or not processed yet.
+     */
+    public OfferOperation getCanceledOfferOperation() {
+        return this.canceledOfferOperation;
+    }
+
+    /**
+     * @return true if the offer was canceled, false otherwise.
+     */
+    public boolean isCanceled() {
+        return this.canceledOfferOperation != null;
+    }
+
+    /**
+     * @return true if the request has been processed, whether the offer was canceled or not.
+     */
+    @Override
+    public boolean isCompleted() {
+        return this.processed;
+    }
+
+    /**
+     * Processes the request by canceling the offer, if it still rests in the book and belongs to the broker of the request.
+     *
+     * @param stockMarket   the stock market where the request is being processed.
+     * @param operationBook the operation book of the asset.
+     * @return true if the offer was canceled, false otherwise.
+     */
+    @Override
+    public boolean process(StockMarket stockMarket, OperationBook operationBook) {
+
+        Objects.requireNonNull(stockMarket);
+        Objects.requireNonNull(operationBook);
+
+        if (this.processed) {
+            return false;
+        }
+
+        this.processed = true;
+
+        OfferOperation offerOperation = operationBook.getRestingOffer(this.offerSequence);
+
+        if (offerOperation == null || !offerOperation.getBroker().equals(this.getBroker())) {
+            return false;
+        }
+
+        this.canceledOfferOperation = operationBook.cancel(this.offerSequence);
+        return this.canceledOfferOperation != null;
+
+    }
+
+}
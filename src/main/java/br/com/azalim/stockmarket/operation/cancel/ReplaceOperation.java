@@ -0,0 +1,133 @@
+package br.com.azalim.stockmarket.operation.cancel;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.risk.RiskManager;
+import br.com.azalim.stockmarket.risk.RiskViolationException;
+
+/**
+ * Represents a request to cancel a resting offer and replace it with a new offer of the same side, with another
+ * quantity and price. The new offer gets a new sequence number, so it loses the time priority of the old one.
+ * The new price is checked against the tick size of the asset when the request is created, and the new offer is built
+ * before the old one is canceled, so an invalid request never leaves the old offer canceled without a replacement.
+ * Nothing is replaced if the old offer cannot be canceled, and the old offer stays canceled if the new one
+ * is rejected by the risk manager of the book.
+ */
+public class ReplaceOperation extends CancelOperation {
+
+    /**
+     * The quantity of shares of the new offer.
+     */
+    private final int quantity;
+
+    /**
+     * The price of each share of the new offer, in ticks of the asset.
+     */
+    private final long priceTicks;
+
+    /**
+     * The new offer, or null if the old offer was not canceled.
+     */
+    private OfferOperation replacementOfferOperation;
+
+    /**
+     * Creates a replace operation.
+     *
+     * @param broker        the broker that owns the offer.
+     * @param asset         the asset of the offer.
+     * @param offerSequence the sequence number of the offer to be replaced.
+     * @param quantity      the quantity of shares of the new offer.
+     * @param price         the price of each share of the new offer. It must be a multiple of the tick size of the asset.
+     * @throws IllegalArgumentException if the quantity or the price are not valid for the asset.
+     */
+    public ReplaceOperation(Broker broker, Asset asset, long offerSequence, int quantity, double price) {
+
+        super(broker, asset, offerSequence);
+
+        if (!asset.getMarketType().isQuantityValid(quantity)) {
+            throw new IllegalArgumentException("Invalid quantity for the asset market type");
+        }
+
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0: " + quantity);
+        }
+
+        if (!(price > 0) || !Double.isFinite(price)) {
+            throw new IllegalArgumentException("Price must be a finite number greater than 0: " + price);
+        }
+
+        this.quantity = quantity;
+        this.priceTicks = asset.toTicks(price);
+
+    }
+
+    /**
+     * @return the quantity of shares of the new offer.
+     */
+    public int getQuantity() {
+        return this.quantity;
+    }
+
+    /**
+     * @return the price of each share of the new offer.
+     */
+    public double getPrice() {
+        return this.getAsset().toPrice(this.priceTicks);
+    }
+
+    /**
+     * @return the price of each share of the new offer, in ticks of the asset.
+     */
+    public long getPriceTicks() {
+        return this.priceTicks;
+    }
+
+    /**
+     * @return the new offer, or null if the old offer was not canceled or the new one was rejected by the risk manager.
+     */
+    public OfferOperation getReplacementOfferOperation() {
+        return this.replacementOfferOperation;
+    }
+
+    /**
+     * Processes the request by canceling the old offer and adding the new one to the book,
+     * where it is processed like any other offer.
+     *
+     * @param stockMarket   the stock market where the request is being processed.
+     * @param operationBook the operation book of the asset.
+     * @return true if the old offer was canceled, false otherwise.
+     */
+    @Override
+    public boolean process(StockMarket stockMarket, OperationBook operationBook) {
+
+        OfferOperation restingOfferOperation = operationBook.getRestingOffer(this.getOfferSequence());
+
+        // Built before canceling, so the old offer is never canceled if the new one cannot be built
+        OfferOperation replacementOfferOperation = restingOfferOperation == null ? null
+                : new OfferOperation(this.getBroker(), this.getAsset(), restingOfferOperation.getType(), this.quantity, this.getPrice());
+
+        if (!super.process(stockMarket, operationBook)) {
+            return false;
+        }
+
+        RiskManager riskManager = operationBook.getRiskManager();
+
+        if (riskManager != null) {
+            try {
+                riskManager.reserve(operationBook, replacementOfferOperation);
+            } catch (RiskViolationException e) {
+                return true; // The old offer stays canceled, as the new one could not be added
+            }
+        }
+
+        this.replacementOfferOperation = replacementOfferOperation;
+        operationBook.accept(replacementOfferOperation);
+
+        return true;
+
+    }
+
+}
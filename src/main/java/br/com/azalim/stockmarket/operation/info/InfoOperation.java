@@ -64,6 +64,14 @@ public class InfoOperation extends Operation {
         return this.answered;
     }
 
+    /**
+     * @return true if the request has been answered, false otherwise.
+     */
+    @Override
+    public boolean isCompleted() {
+        return this.isAnswered();
+    }
+
     /**
      * Processes the operation by answering to the request with the proper price information.
      *
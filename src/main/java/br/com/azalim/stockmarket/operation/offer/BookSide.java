@@ -0,0 +1,49 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+/**
+ * Represents the price levels of one side of an offer book, from the best to the worst price.
+ * Levels are created as offers arrive at new prices and are dropped lazily, once they are found empty
+ * while looking for the best level, so the levels of a side may include empty ones.
+ */
+interface BookSide extends Iterable<PriceLevel> {
+
+    /**
+     * @param priceTicks the price of the level, in ticks of the asset.
+     * @return the level with the given price, or null if there is none.
+     */
+    PriceLevel get(long priceTicks);
+
+    /**
+     * Retrieves the level with a given price, creating it if there is none.
+     *
+     * @param priceTicks the price of the level, in ticks of the asset.
+     * @param price      the same price, converted by the asset.
+     * @return the level with the given price.
+     */
+    PriceLevel getOrCreate(long priceTicks, double price);
+
+    /**
+     * Adds an existing level to the side, like one moved from another side implementation.
+     *
+     * @param priceLevel the level to be added. There must be no level with the same price.
+     */
+    void put(PriceLevel priceLevel);
+
+    /**
+     * Retrieves the best level that still has offers that can be executed, dropping the empty levels before it.
+     *
+     * @return the best level of the side, or null if the side is empty.
+     */
+    PriceLevel getBest();
+
+    /**
+     * Counts the levels of the side, including the empty ones that were not dropped yet. Empty levels are only dropped
+     * when they are found while looking for the best level, and a {@link LadderBookSide} keeps the bits of emptied levels
+     * set until then, so this over-reports the levels with offers. Callers that report levels, like metrics or market
+     * data, must skip the empty levels, like {@link OfferBook#getLevelCount(OfferOperationType)} does.
+     *
+     * @return the number of levels of the side, including the empty ones that were not dropped yet.
+     */
+    int size();
+
+}
@@ -0,0 +1,261 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents a side of an offer book whose price levels are kept in an array indexed by price, over a band
+ * of ticks around a reference price, with a bitset of the occupied levels. The best price is always the first
+ * index, so the best level is found with {@link Long#numberOfTrailingZeros(long)} on the first non-zero word,
+ * and looking up, creating or executing a level in the band costs the same whatever the depth of the book.
+ * Emptied levels stay in the array and are reused when an offer arrives at their price again.
+ * <p>
+ * Prices outside of the band are kept in a {@link TreeBookSide}, so the side accepts any price.
+ */
+class LadderBookSide implements BookSide {
+
+    /**
+     * True if the best price is the highest one, like for bids, false if it is the lowest one.
+     */
+    private final boolean descending;
+
+    /**
+     * The best price of the band, in ticks of the asset, which is the price of the first index.
+     */
+    private final long firstPriceTicks;
+
+    /**
+     * The levels of the band by index, or null for prices that never had offers.
+     */
+    private final PriceLevel[] levels;
+
+    /**
+     * The bits of the indexes whose levels may have offers. Levels are only cleared once they are found empty.
+     */
+    private final long[] occupied;
+
+    /**
+     * The levels with prices outside of the band.
+     */
+    private final TreeBookSide outOfBand;
+
+    /**
+     * The index of the first word of the bitset that may have a bit set.
+     */
+    private int firstWord;
+
+    /**
+     * Creates an empty side.
+     *
+     * @param descending          true if the best price is the highest one, like for bids, false if it is the lowest one.
+     * @param referencePriceTicks the price in the middle of the band, in ticks of the asset.
+     * @param bandTicks           the number of ticks of the band above and below the reference price.
+     */
+    LadderBookSide(boolean descending, long referencePriceTicks, int bandTicks) {
+
+        if (bandTicks <= 0 || bandTicks > (1 << 24)) {
+            throw new IllegalArgumentException("Band must have between 1 and 2^24 ticks: " + bandTicks);
+        }
+
+        this.descending = descending;
+        this.firstPriceTicks = descending ? referencePriceTicks + bandTicks : referencePriceTicks - bandTicks;
+        this.levels = new PriceLevel[2 * bandTicks + 1];
+        this.occupied = new long[(this.levels.length + 63) >>> 6];
+        this.outOfBand = new TreeBookSide(descending);
+        this.firstWord = this.occupied.length;
+
+    }
+
+    /**
+     * @param priceTicks the price of a level, in ticks of the asset.
+     * @return the level with the given price, or null if there is none.
+     */
+    @Override
+    public PriceLevel get(long priceTicks) {
+
+        long index = this.indexOf(priceTicks);
+
+        if (index < 0 || index >= this.levels.length) {
+            return this.outOfBand.get(priceTicks);
+        }
+
+        return this.levels[(int) index];
+
+    }
+
+    /**
+     * Retrieves the level with a given price, creating it if there is none and marking it as occupied.
+     *
+     * @param priceTicks the price of the level, in ticks of the asset.
+     * @param price      the same price, converted by the asset.
+     * @return the level with the given price.
+     */
+    @Override
+    public PriceLevel getOrCreate(long priceTicks, double price) {
+
+        long index = this.indexOf(priceTicks);
+
+        if (index < 0 || index >= this.levels.length) {
+            return this.outOfBand.getOrCreate(priceTicks, price);
+        }
+
+        PriceLevel priceLevel = this.levels[(int) index];
+
+        if (priceLevel == null) {
+            priceLevel = this.levels[(int) index] = new PriceLevel(priceTicks, price);
+        }
+
+        this.occupy((int) index);
+        return priceLevel;
+
+    }
+
+    /**
+     * Adds an existing level to the side, like one moved from another side implementation.
+     *
+     * @param priceLevel the level to be added. There must be no level with the same price.
+     */
+    @Override
+    public void put(PriceLevel priceLevel) {
+
+        long index = this.indexOf(priceLevel.getPriceTicks());
+
+        if (index < 0 || index >= this.levels.length) {
+            this.outOfBand.put(priceLevel);
+            return;
+        }
+
+        this.levels[(int) index] = priceLevel;
+        this.occupy((int) index);
+
+    }
+
+    /**
+     * Retrieves the best level that still has offers that can be executed, clearing the bits of the empty levels before it.
+     * The levels outside of the band are only looked at if they are better than the band or if the band is empty.
+     *
+     * @return the best level of the side, or null if the side is empty.
+     */
+    @Override
+    public PriceLevel getBest() {
+
+        PriceLevel bestOutOfBand = this.outOfBand.getBest();
+
+        if (bestOutOfBand != null && this.indexOf(bestOutOfBand.getPriceTicks()) < 0) {
+            return bestOutOfBand;
+        }
+
+        for (int word = this.firstWord; word < this.occupied.length; word++) {
+
+            long bits = this.occupied[word];
+
+            while (bits != 0) {
+
+                int index = word << 6 | Long.numberOfTrailingZeros(bits);
+                PriceLevel priceLevel = this.levels[index];
+
+                if (!priceLevel.isEmpty()) {
+                    this.firstWord = word;
+                    return priceLevel;
+                }
+
+                bits &= bits - 1;
+                this.occupied[word] = bits;
+
+            }
+
+        }
+
+        this.firstWord = this.occupied.length;
+        return bestOutOfBand;
+
+    }
+
+    /**
+     * @return the number of levels of the side, including the empty ones whose bits were not cleared yet.
+     */
+    @Override
+    public int size() {
+
+        int size = this.outOfBand.size();
+
+        for (long bits : this.occupied) {
+            size += Long.bitCount(bits);
+        }
+
+        return size;
+
+    }
+
+    /**
+     * @return an iterator over the levels of the side, from the best to the worst price: first the levels
+     * better than the band, then the occupied levels of the band and then the levels worse than the band.
+     */
+    @Override
+    public Iterator<PriceLevel> iterator() {
+
+        Stream<PriceLevel> band = IntStream.iterate(this.nextOccupied(0), index -> index >= 0, index -> this.nextOccupied(index + 1))
+                .mapToObj(index -> this.levels[index]);
+
+        return Stream.of(
+                StreamSupport.stream(this.outOfBand.getBetterThan(this.firstPriceTicks).spliterator(), false),
+                band,
+                StreamSupport.stream(this.outOfBand.getWorseThan(this.firstPriceTicks).spliterator(), false)
+        ).flatMap(levels -> levels).iterator();
+
+    }
+
+    /**
+     * @param priceTicks a price, in ticks of the asset.
+     * @return the index of the price, which is negative for prices better than the band
+     * and greater than the last index for prices worse than the band.
+     */
+    private long indexOf(long priceTicks) {
+        return this.descending ? this.firstPriceTicks - priceTicks : priceTicks - this.firstPriceTicks;
+    }
+
+    /**
+     * Sets the bit of an index of the band.
+     *
+     * @param index the index of the band.
+     */
+    private void occupy(int index) {
+
+        int word = index >>> 6;
+
+        this.occupied[word] |= 1L << index;
+        this.firstWord = Math.min(this.firstWord, word);
+
+    }
+
+    /**
+     * @param fromIndex the first index to be looked at.
+     * @return the first index of the band at or after the given one whose bit is set, or -1 if there is none.
+     */
+    private int nextOccupied(int fromIndex) {
+
+        int word = fromIndex >>> 6;
+
+        if (word >= this.occupied.length) {
+            return -1;
+        }
+
+        long bits = this.occupied[word] & (-1L << fromIndex);
+
+        while (bits == 0) {
+
+            if (++word >= this.occupied.length) {
+                return -1;
+            }
+
+            bits = this.occupied[word];
+
+        }
+
+        return word << 6 | Long.numberOfTrailingZeros(bits);
+
+    }
+
+}
@@ -0,0 +1,224 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Represents the resting offers of an asset, organized by price-time priority.
+ * Buy offers (bids) are sorted from the highest to the lowest price and sell offers (asks)
+ * from the lowest to the highest price, so the best price of each side is always the first level.
+ * <p>
+ * The levels are kept in sorted trees by default. A book of an asset that trades in a narrow band of ticks
+ * can keep them in arrays indexed by price instead, with {@link #usePriceLadder(long, int)}.
+ */
+public class OfferBook {
+
+    /**
+     * The buy price levels, from the highest to the lowest price.
+     */
+    private BookSide bids = new TreeBookSide(true);
+
+    /**
+     * The sell price levels, from the lowest to the highest price.
+     */
+    private BookSide asks = new TreeBookSide(false);
+
+    /**
+     * Moves the price levels of both sides to arrays indexed by price, over a band of ticks around a reference price,
+     * so the levels in the band are found, created and executed in constant time. Prices outside of the band are
+     * still accepted and kept in sorted trees. The resting offers keep their priority.
+     *
+     * @param referencePriceTicks the price in the middle of the band, in ticks of the asset.
+     * @param bandTicks           the number of ticks of the band above and below the reference price.
+     */
+    public void usePriceLadder(long referencePriceTicks, int bandTicks) {
+
+        BookSide bids = new LadderBookSide(true, referencePriceTicks, bandTicks);
+        BookSide asks = new LadderBookSide(false, referencePriceTicks, bandTicks);
+
+        this.bids.forEach(bids::put);
+        this.asks.forEach(asks::put);
+
+        this.bids = bids;
+        this.asks = asks;
+
+    }
+
+    /**
+     * Adds an offer to the end of the queue of its price level, creating the level if needed.
+     *
+     * @param offerOperation the offer to be added.
+     */
+    public void add(OfferOperation offerOperation) {
+
+        Objects.requireNonNull(offerOperation);
+
+        this.getSide(offerOperation.getType())
+                .getOrCreate(offerOperation.getPriceTicks(), offerOperation.getPrice())
+                .add(offerOperation);
+
+    }
+
+    /**
+     * Retrieves the best price level of a given side. Levels left without
+     * executable offers are removed from the book along the way.
+     *
+     * @param type the side of the book.
+     * @return the best price level of the given side, or null if the side is empty.
+     */
+    public PriceLevel getBestLevel(OfferOperationType type) {
+        return this.getSide(type).getBest();
+    }
+
+    /**
+     * Visits every resting offer that can still be executed, first the bids and then the asks,
+     * from the best to the worst price level and in arrival order within each level.
+     *
+     * @param action the action to be performed for each offer.
+     */
+    public void forEach(Consumer<OfferOperation> action) {
+        this.bids.forEach(priceLevel -> priceLevel.forEach(action));
+        this.asks.forEach(priceLevel -> priceLevel.forEach(action));
+    }
+
+    /**
+     * @param type       the side of the book.
+     * @param priceTicks the price of the level, in ticks of the asset.
+     * @return the quantity of shares still offered at the given price of the given side.
+     */
+    public long getQuantity(OfferOperationType type, long priceTicks) {
+        PriceLevel priceLevel = this.getSide(type).get(priceTicks);
+        return priceLevel == null ? 0 : priceLevel.getQuantity();
+    }
+
+    /**
+     * Sums the quantity of shares offered at the price levels of a side that cross a given price,
+     * from the best price, stopping as soon as the sum reaches a given limit.
+     *
+     * @param type       the side of the book.
+     * @param priceTicks the price of an offer of the opposite side, in ticks of the asset.
+     * @param limit      the quantity of shares after which the sum is not needed anymore.
+     * @return the quantity of shares offered at the crossing price levels, or a quantity of at least the limit.
+     */
+    public long getCrossingQuantity(OfferOperationType type, long priceTicks, long limit) {
+
+        long quantity = 0;
+
+        // Both sides are sorted from the best price, so the crossing levels are always the head of the side
+        for (PriceLevel priceLevel : this.getSide(type)) {
+
+            if (type == OfferOperationType.BUY ? priceLevel.getPriceTicks() < priceTicks : priceLevel.getPriceTicks() > priceTicks) {
+                break;
+            }
+
+            quantity += priceLevel.getQuantity();
+
+            if (quantity >= limit) {
+                break;
+            }
+
+        }
+
+        return quantity;
+
+    }
+
+    /**
+     * Finds the worst price a given quantity would reach if it was executed against a side of the book.
+     *
+     * @param type     the side of the book.
+     * @param quantity the quantity of shares to be executed.
+     * @return the price in ticks of the last level the quantity would reach, from the best price,
+     * or -1 if the side does not have enough shares to execute the whole quantity.
+     */
+    public long getSweepPriceTicks(OfferOperationType type, long quantity) {
+
+        long sweptQuantity = 0;
+
+        for (PriceLevel priceLevel : this.getSide(type)) {
+
+            sweptQuantity += priceLevel.getQuantity();
+
+            if (sweptQuantity >= quantity && !priceLevel.isEmpty()) {
+                return priceLevel.getPriceTicks();
+            }
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * @param type the side of the book.
+     * @return the number of resting offers of the given side that can still be executed.
+     */
+    public int getDepth(OfferOperationType type) {
+
+        int depth = 0;
+
+        for (PriceLevel priceLevel : this.getSide(type)) {
+            depth += priceLevel.getDepth();
+        }
+
+        return depth;
+
+    }
+
+    /**
+     * @param type the side of the book.
+     * @return the number of price levels of the given side with offers that can still be executed.
+     */
+    public int getLevelCount(OfferOperationType type) {
+
+        int levelCount = 0;
+
+        for (PriceLevel priceLevel : this.getSide(type)) {
+            if (!priceLevel.isEmpty()) {
+                levelCount++;
+            }
+        }
+
+        return levelCount;
+
+    }
+
+    /**
+     * @param type the side of the book.
+     * @return an unmodifiable view of the price levels of the given side, from the best to the worst price.
+     * It may include empty levels, which are also counted by its size, so counts of the levels with offers
+     * must use {@link #getLevelCount(OfferOperationType)} instead.
+     */
+    public Collection<PriceLevel> getLevels(OfferOperationType type) {
+
+        BookSide side = this.getSide(type);
+
+        return Collections.unmodifiableCollection(new AbstractCollection<>() {
+
+            @Override
+            public Iterator<PriceLevel> iterator() {
+                return side.iterator();
+            }
+
+            @Override
+            public int size() {
+                return side.size();
+            }
+
+        });
+
+    }
+
+    /**
+     * @param type the side of the book.
+     * @return the mutable price levels of the given side.
+     */
+    private BookSide getSide(OfferOperationType type) {
+        return Objects.requireNonNull(type) == OfferOperationType.BUY ? this.bids : this.asks;
+    }
+
+}
@@ -5,12 +5,12 @@ import br.com.azalim.stockmarket.asset.Asset;
 import br.com.azalim.stockmarket.broker.Broker;
 import br.com.azalim.stockmarket.operation.Operation;
 import br.com.azalim.stockmarket.operation.OperationBook;
-import br.com.azalim.stockmarket.wallet.Transaction;
 
 import java.util.Objects;
 
 /**
- * Represents a buy or sell offer.
+ * Represents a buy or sell offer. Limit offers rest in the book until they are executed or canceled, while
+ * market, immediate-or-cancel and fill-or-kill offers are matched when they are processed and never rest in the book.
  */
 public class OfferOperation extends Operation {
 
@@ -19,15 +19,20 @@ public class OfferOperation extends Operation {
      */
     private final OfferOperationType type;
 
+    /**
+     * The kind of the offer.
+     */
+    private final OfferOperationKind kind;
+
     /**
      * The quantity of shares that are being offered.
      */
     private int quantity;
 
     /**
-     * The price of each share.
+     * The limit price of each share, in ticks of the asset.
      */
-    private final double price;
+    private final long priceTicks;
 
     /**
      * The status of the offer.
@@ -35,36 +40,170 @@ public class OfferOperation extends Operation {
     private OfferOperationStatus status;
 
     /**
-     * Creates an offer operation.
+     * The price level where the offer rests, or null if it does not rest in a book.
+     */
+    private PriceLevel priceLevel;
+
+    /**
+     * The offer that arrived right before this one at the same price level, or null if this is the oldest one.
+     */
+    private OfferOperation previous;
+
+    /**
+     * The offer that arrived right after this one at the same price level, or null if this is the newest one.
+     */
+    private OfferOperation next;
+
+    /**
+     * Creates a limit offer operation.
      *
      * @param broker   the broker that owns the operation.
      * @param asset    the asset that the operation is related to.
      * @param type     the type of the operation.
      * @param quantity the quantity of shares that are being offered.
-     * @param price    the price of each share.
+     * @param price    the price of each share. It must be a multiple of the tick size of the asset.
      */
     public OfferOperation(Broker broker, Asset asset, OfferOperationType type, int quantity, double price) {
+        this(broker, asset, type, OfferOperationKind.LIMIT, quantity, price);
+    }
+
+    /**
+     * Creates an offer operation.
+     *
+     * @param broker   the broker that owns the operation.
+     * @param asset    the asset that the operation is related to.
+     * @param type     the type of the operation.
+     * @param kind     the kind of the offer.
+     * @param quantity the quantity of shares that are being offered.
+     * @param price    the limit price of each share. It must be a multiple of the tick size of the asset. It is ignored by market offers.
+     */
+    public OfferOperation(Broker broker, Asset asset, OfferOperationType type, OfferOperationKind kind, int quantity, double price) {
+        this(nextSequence(), 0, broker, asset, type, kind, quantity, price);
+    }
+
+    /**
+     * Restores a limit offer operation with the sequence number and the timestamp it was given when it was first registered.
+     *
+     * @param sequence  the sequence number of the operation. It must not belong to any other live operation.
+     * @param timestamp the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker    the broker that owns the operation.
+     * @param asset     the asset that the operation is related to.
+     * @param type      the type of the operation.
+     * @param quantity  the quantity of shares that are being offered.
+     * @param price     the price of each share. It must be a multiple of the tick size of the asset.
+     */
+    public OfferOperation(long sequence, long timestamp, Broker broker, Asset asset, OfferOperationType type, int quantity, double price) {
+        this(sequence, timestamp, broker, asset, type, OfferOperationKind.LIMIT, quantity, price);
+    }
+
+    /**
+     * Restores an offer operation with the sequence number and the timestamp it was given when it was first registered.
+     *
+     * @param sequence  the sequence number of the operation. It must not belong to any other live operation.
+     * @param timestamp the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker    the broker that owns the operation.
+     * @param asset     the asset that the operation is related to.
+     * @param type      the type of the operation.
+     * @param kind      the kind of the offer.
+     * @param quantity  the quantity of shares that are being offered.
+     * @param price     the limit price of each share. It must be a multiple of the tick size of the asset. It is ignored by market offers.
+     */
+    public OfferOperation(long sequence, long timestamp, Broker broker, Asset asset, OfferOperationType type, OfferOperationKind kind, int quantity, double price) {
+        this(sequence, timestamp, broker, asset, type, kind, quantity, price, OfferOperationStatus.OPEN);
+    }
 
-        super(broker, asset);
+    /**
+     * Restores a limit offer operation with the sequence number and the timestamp it was given when it was first registered
+     * and the status it had when it was saved, like in a snapshot.
+     *
+     * @param sequence  the sequence number of the operation. It must not belong to any other live operation.
+     * @param timestamp the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker    the broker that owns the operation.
+     * @param asset     the asset that the operation is related to.
+     * @param type      the type of the operation.
+     * @param quantity  the quantity of shares that are still being offered.
+     * @param price     the price of each share. It must be a multiple of the tick size of the asset.
+     * @param status    the status of the offer. It cannot be executed or canceled.
+     */
+    public OfferOperation(long sequence, long timestamp, Broker broker, Asset asset, OfferOperationType type, int quantity, double price, OfferOperationStatus status) {
+        this(sequence, timestamp, broker, asset, type, OfferOperationKind.LIMIT, quantity, price, status);
+    }
+
+    /**
+     * Restores an offer operation with the sequence number and the timestamp it was given when it was first registered
+     * and the status it had when it was saved.
+     *
+     * @param sequence  the sequence number of the operation. It must not belong to any other live operation.
+     * @param timestamp the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker    the broker that owns the operation.
+     * @param asset     the asset that the operation is related to.
+     * @param type      the type of the operation.
+     * @param kind      the kind of the offer.
+     * @param quantity  the quantity of shares that are still being offered.
+     * @param price     the limit price of each share. It must be a multiple of the tick size of the asset. It is ignored by market offers, which cross any price.
+     * @param status    the status of the offer. It cannot be executed or canceled.
+     */
+    public OfferOperation(long sequence, long timestamp, Broker broker, Asset asset, OfferOperationType type, OfferOperationKind kind, int quantity, double price, OfferOperationStatus status) {
+
+        super(sequence, timestamp, broker, asset);
 
         if (!asset.getMarketType().isQuantityValid(quantity)) {
             throw new IllegalArgumentException("Invalid quantity for the asset market type");
         }
 
         Objects.requireNonNull(type);
+        Objects.requireNonNull(kind);
 
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than 0: " + quantity);
         }
 
-        if (price <= 0) {
-            throw new IllegalArgumentException("Price must be greater than 0: " + price);
+        long priceTicks;
+
+        // Market offers get the most aggressive limit price, so they cross every resting offer
+        if (kind == OfferOperationKind.MARKET) {
+            priceTicks = type == OfferOperationType.BUY ? Long.MAX_VALUE : 0;
+        } else if (!(price > 0) || !Double.isFinite(price)) {
+            throw new IllegalArgumentException("Price must be a finite number greater than 0: " + price);
+        } else {
+            priceTicks = asset.toTicks(price);
+        }
+
+        if (Objects.requireNonNull(status).isFinal()) {
+            throw new IllegalArgumentException("Cannot restore an executed or canceled offer");
         }
 
         this.type = type;
+        this.kind = kind;
+        this.quantity = quantity;
+        this.priceTicks = priceTicks;
+        this.status = status;
+
+    }
+
+    /**
+     * Restores an offer exactly as it was stored by an {@link OfferRecordStore}, without validating it,
+     * since stored offers may be executed or canceled and have no quantity left.
+     *
+     * @param status     the status of the offer.
+     * @param sequence   the sequence number of the operation.
+     * @param timestamp  the time the operation was registered to its book, in nanoseconds since the epoch.
+     * @param broker     the broker that owns the operation.
+     * @param asset      the asset that the operation is related to.
+     * @param type       the type of the operation.
+     * @param kind       the kind of the offer.
+     * @param quantity   the quantity of shares that were still being offered.
+     * @param priceTicks the limit price of each share, in ticks of the asset.
+     */
+    OfferOperation(OfferOperationStatus status, long sequence, long timestamp, Broker broker, Asset asset, OfferOperationType type, OfferOperationKind kind, int quantity, long priceTicks) {
+
+        super(sequence, timestamp, broker, asset);
+
+        this.type = type;
+        this.kind = kind;
         this.quantity = quantity;
-        this.price = price;
-        this.status = OfferOperationStatus.OPEN;
+        this.priceTicks = priceTicks;
+        this.status = status;
 
     }
 
@@ -75,6 +214,13 @@ public class OfferOperation extends Operation {
         return type;
     }
 
+    /**
+     * @return the kind of the offer.
+     */
+    public OfferOperationKind getKind() {
+        return kind;
+    }
+
     /**
      * @return the quantity of shares that are being offered.
      */
@@ -83,10 +229,25 @@ public class OfferOperation extends Operation {
     }
 
     /**
-     * @return the price of each share.
+     * @return the limit price of each share. Market offers have the most aggressive price,
+     * which is positive infinity for buy offers and zero for sell offers.
      */
     public double getPrice() {
-        return price;
+
+        if (this.kind == OfferOperationKind.MARKET) {
+            return this.type == OfferOperationType.BUY ? Double.POSITIVE_INFINITY : 0;
+        }
+
+        return this.getAsset().toPrice(this.priceTicks);
+
+    }
+
+    /**
+     * @return the limit price of each share, in ticks of the asset. Market offers have the most aggressive price,
+     * which is {@link Long#MAX_VALUE} for buy offers and zero for sell offers.
+     */
+    public long getPriceTicks() {
+        return priceTicks;
     }
 
     /**
@@ -97,7 +258,90 @@ public class OfferOperation extends Operation {
     }
 
     /**
-     * Consumes a given quantity of shares from the offer.
+     * @return true if the offer rests in the price level of a book, false otherwise.
+     */
+    public boolean isInBook() {
+        return this.priceLevel != null;
+    }
+
+    /**
+     * @return the price level where the offer rests, or null if it does not rest in a book.
+     */
+    PriceLevel getPriceLevel() {
+        return this.priceLevel;
+    }
+
+    /**
+     * @return the offer that arrived right before this one at the same price level, or null if this is the oldest one.
+     */
+    OfferOperation getPrevious() {
+        return this.previous;
+    }
+
+    /**
+     * @param previous the offer that arrived right before this one at the same price level.
+     */
+    void setPrevious(OfferOperation previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * @return the offer that arrived right after this one at the same price level, or null if this is the newest one.
+     */
+    OfferOperation getNext() {
+        return this.next;
+    }
+
+    /**
+     * @param next the offer that arrived right after this one at the same price level.
+     */
+    void setNext(OfferOperation next) {
+        this.next = next;
+    }
+
+    /**
+     * Links the offer to a price level, or unlinks it when the level is null.
+     *
+     * @param priceLevel the price level where the offer rests.
+     * @param previous   the offer that arrived right before this one at the same price level.
+     * @param next       the offer that arrived right after this one at the same price level.
+     */
+    void link(PriceLevel priceLevel, OfferOperation previous, OfferOperation next) {
+        this.priceLevel = priceLevel;
+        this.previous = previous;
+        this.next = next;
+    }
+
+    /**
+     * @return true if the offer has been executed or canceled, false otherwise.
+     */
+    @Override
+    public boolean isCompleted() {
+        return this.getStatus().isFinal();
+    }
+
+    /**
+     * Cancels the offer, unlinking it from the price level where it rests, if any.
+     * The quantity of the offer is kept as the quantity that was canceled.
+     *
+     * @throws IllegalStateException if the offer has already been executed or canceled.
+     */
+    public void cancel() {
+
+        if (this.getStatus().isFinal()) {
+            throw new IllegalStateException("Cannot cancel an executed or canceled offer");
+        }
+
+        if (this.priceLevel != null) {
+            this.priceLevel.remove(this);
+        }
+
+        this.status = OfferOperationStatus.CANCELED;
+
+    }
+
+    /**
+     * Consumes a given quantity of shares from the offer, and from the price level where it rests, if any.
      *
      * @param quantity the quantity of shares to be consumed.
      * @return the quantity of shares that were consumed.
@@ -108,37 +352,42 @@ public class OfferOperation extends Operation {
             throw new IllegalArgumentException("Invalid quantity to consume: " + quantity);
         }
 
-        if (this.getStatus() == OfferOperationStatus.EXECUTED) {
-            throw new IllegalStateException("Cannot consume quantity for an executed offer");
+        if (this.getStatus().isFinal()) {
+            throw new IllegalStateException("Cannot consume quantity for an executed or canceled offer");
         }
 
         int consumedQuantity = Math.min(this.quantity, quantity);
         this.quantity -= consumedQuantity;
 
+        if (this.priceLevel != null) {
+            this.priceLevel.reduce(consumedQuantity);
+        }
+
         this.status = this.quantity == 0 ? OfferOperationStatus.EXECUTED : OfferOperationStatus.PARTIALLY_EXECUTED;
         return consumedQuantity;
 
     }
 
     /**
-     * Checks if a given offer is a possible candidate to be executed against this offer.
+     * Checks if a resting offer with the given price can be executed against this offer.
      *
-     * @param offerOperation the offer operation to be checked.
-     * @return true if the offer matches the given offer operation, false otherwise.
+     * @param priceTicks the price of the resting offer, in ticks of the asset.
+     * @return true if the prices cross, false otherwise.
      */
-    private boolean matches(OfferOperation offerOperation) {
-
-        Objects.requireNonNull(offerOperation);
-
-        return this != offerOperation
-                && this.getType() != offerOperation.getType()
-                && offerOperation.getStatus() != OfferOperationStatus.EXECUTED
-                && (this.getType() == OfferOperationType.BUY ? this.getPrice() >= offerOperation.getPrice() : this.getPrice() <= offerOperation.getPrice());
-
+    private boolean crosses(long priceTicks) {
+        return this.getType() == OfferOperationType.BUY ? this.priceTicks >= priceTicks : this.priceTicks <= priceTicks;
     }
 
     /**
-     * Processes the offer, executing it against other offers if possible.
+     * Processes the offer, executing it against the resting offers of the opposite side of the book.
+     * Only the price levels that cross this offer are visited, from the best to the worst price, and
+     * the offers of each level are executed in arrival order. Each trade happens at the resting offer price.
+     * The best bid and ask of the book are refreshed once the offer is matched.
+     * <p>
+     * Offers that are not resting in the book yet are journaled right before being matched, so they are never
+     * separated from their trades. The quantity they cannot execute is canceled right after for immediate offers,
+     * and rests in the book for limit offers, so the book never shows them crossing the opposite side.
+     * Fill-or-kill offers are only matched if the crossing price levels have enough shares to fill them.
      *
      * @param stockMarket the stock market where the offer is being processed.
      */
@@ -148,39 +397,72 @@ public class OfferOperation extends Operation {
         Objects.requireNonNull(stockMarket);
         Objects.requireNonNull(operationBook);
 
-        if (this.getStatus() == OfferOperationStatus.EXECUTED) {
+        if (this.getStatus().isFinal()) {
             return false;
         }
 
-        operationBook.getOperations(OfferOperation.class)
-                .stream()
-                .filter(this::matches)
-                .forEach(offerOperation -> {
-
-                    // The if statement below may not be a filter of the stream above
-                    // because the offer status may be changed by the code inside it.
-                    if (this.getStatus() != OfferOperationStatus.EXECUTED) {
+        OfferBook offerBook = operationBook.getOfferBook();
 
-                        int consumedQuantity = offerOperation.consumeQuantity(this.getQuantity());
-                        this.consumeQuantity(consumedQuantity);
+        synchronized (offerBook) {
 
-                        OfferOperation sellOfferOperation = this.getType() == OfferOperationType.SELL ? this : offerOperation;
-                        OfferOperation buyOfferOperation = this.getType() == OfferOperationType.BUY ? this : offerOperation;
+            boolean incoming = !this.isInBook();
 
-                        Broker from = sellOfferOperation.getBroker(), to = buyOfferOperation.getBroker();
-                        double price = sellOfferOperation.getPrice();
+            if (incoming) {
+                operationBook.journalRegister(this);
+            }
 
-                        from.getWallet().registerTransaction(this.getAsset(), new Transaction(-consumedQuantity, price));
-                        to.getWallet().registerTransaction(this.getAsset(), new Transaction(consumedQuantity, price));
+            if (this.kind != OfferOperationKind.FILL_OR_KILL
+                    || offerBook.getCrossingQuantity(this.getType().getOpposite(), this.priceTicks, this.getQuantity()) >= this.getQuantity()) {
+                this.match(stockMarket, operationBook, offerBook);
+            }
 
-                        stockMarket.notifyTransactionObservers(from, to, this.getAsset(), consumedQuantity, price);
+            if (this.kind.isImmediate() && !this.getStatus().isFinal()) {
+                operationBook.expire(this);
+            } else if (incoming && !this.getStatus().isFinal()) {
+                operationBook.rest(this);
+            }
 
-                    }
+            operationBook.refreshTopOfBook();
 
-                });
+        }
 
         return true;
 
     }
 
+    /**
+     * Executes this offer against the crossing price levels of the opposite side of the book.
+     *
+     * Resting offers that get executed are retired from the operation book.
+     *
+     * @param stockMarket   the stock market where the offer is being processed.
+     * @param operationBook the operation book of the asset.
+     * @param offerBook     the resting offers of the asset.
+     */
+    private void match(StockMarket stockMarket, OperationBook operationBook, OfferBook offerBook) {
+
+        PriceLevel priceLevel;
+
+        while (!this.getStatus().isFinal()
+                && (priceLevel = offerBook.getBestLevel(this.getType().getOpposite())) != null
+                && this.crosses(priceLevel.getPriceTicks())) {
+
+            OfferOperation restingOfferOperation = priceLevel.peek();
+
+            int consumedQuantity = restingOfferOperation.consumeQuantity(this.getQuantity());
+            this.consumeQuantity(consumedQuantity);
+
+            if (restingOfferOperation.isCompleted()) {
+                operationBook.retire(restingOfferOperation);
+            }
+
+            OfferOperation sellOfferOperation = this.getType() == OfferOperationType.SELL ? this : restingOfferOperation;
+            OfferOperation buyOfferOperation = this.getType() == OfferOperationType.BUY ? this : restingOfferOperation;
+
+            operationBook.executeTrade(stockMarket, sellOfferOperation, buyOfferOperation, consumedQuantity, restingOfferOperation.getPrice());
+
+        }
+
+    }
+
 }
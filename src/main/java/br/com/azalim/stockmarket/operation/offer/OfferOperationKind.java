@@ -0,0 +1,35 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+/**
+ * Represents how long an offer operation stays executable and at which prices it can be executed.
+ */
+public enum OfferOperationKind {
+
+    /**
+     * Executed at its price or better, resting in the book until it is executed or canceled.
+     */
+    LIMIT,
+
+    /**
+     * Executed right away against any price, with the quantity that cannot be executed canceled.
+     */
+    MARKET,
+
+    /**
+     * Executed right away at its price or better, with the quantity that cannot be executed canceled.
+     */
+    IMMEDIATE_OR_CANCEL,
+
+    /**
+     * Executed right away at its price or better only if its whole quantity can be executed, otherwise canceled.
+     */
+    FILL_OR_KILL;
+
+    /**
+     * @return true if offers of this kind are matched as soon as they are processed and never rest in the book, false otherwise.
+     */
+    public boolean isImmediate() {
+        return this != LIMIT;
+    }
+
+}
@@ -7,6 +7,14 @@ public enum OfferOperationStatus {
 
     OPEN,
     EXECUTED,
-    PARTIALLY_EXECUTED;
+    PARTIALLY_EXECUTED,
+    CANCELED;
+
+    /**
+     * @return true if an offer with this status cannot be executed anymore, false otherwise.
+     */
+    public boolean isFinal() {
+        return this == EXECUTED || this == CANCELED;
+    }
 
 }
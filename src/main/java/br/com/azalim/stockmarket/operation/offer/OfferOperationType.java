@@ -9,6 +9,13 @@ public enum OfferOperationType {
 
     BUY, SELL;
 
+    /**
+     * @return the type of the offers that can be executed against offers of this type.
+     */
+    public OfferOperationType getOpposite() {
+        return this == BUY ? SELL : BUY;
+    }
+
     /**
      * @return a colored string representing the operation type. It will be
      * green if the operation is a buy offer and red if it is a sell offer.
@@ -0,0 +1,163 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents an append-only store of offer records kept outside of the Java heap, in direct buffers allocated
+ * in fixed-size slabs. Each offer takes a fixed-size record of primitives, with its broker and its asset replaced
+ * by small ids, so the heap only holds the slabs and the few brokers and assets, however many offers are stored,
+ * and the garbage collector never traces the records. Offers are decoded to new objects when they are read.
+ * Only retired offers are stored, as resting offers must stay live objects of their books.
+ * <p>
+ * The slabs are direct buffers rather than memory segments, as the Foreign Memory API is a preview feature in Java 20.
+ * <p>
+ * The store is not thread-safe: it must be guarded by the lock of its owner.
+ */
+public class OfferRecordStore {
+
+    /**
+     * The size, in bytes, of a record: the sequence number, the timestamp, the price ticks, the quantity,
+     * the broker id, the asset id and the type, kind and status ordinals.
+     */
+    static final int RECORD_SIZE = 40;
+
+    /**
+     * The number of records of each slab.
+     */
+    private static final int RECORDS_PER_SLAB = 1 << 16;
+
+    /**
+     * The slabs of records, each one with {@link #RECORDS_PER_SLAB} records.
+     */
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    /**
+     * The brokers of the stored offers, by id.
+     */
+    private final List<Broker> brokers = new ArrayList<>();
+
+    /**
+     * The ids of the brokers of the stored offers.
+     */
+    private final Map<Broker, Integer> brokerIds = new HashMap<>();
+
+    /**
+     * The assets of the stored offers, by id.
+     */
+    private final List<Asset> assets = new ArrayList<>();
+
+    /**
+     * The ids of the assets of the stored offers.
+     */
+    private final Map<Asset, Integer> assetIds = new HashMap<>();
+
+    /**
+     * The number of stored offers.
+     */
+    private int size;
+
+    /**
+     * Appends the record of an offer as it is now. Later changes to the offer are not reflected in the store.
+     *
+     * @param offerOperation the offer to be stored.
+     */
+    public void append(OfferOperation offerOperation) {
+
+        Objects.requireNonNull(offerOperation);
+
+        int slab = this.size / RECORDS_PER_SLAB;
+
+        if (slab == this.slabs.size()) {
+            this.slabs.add(ByteBuffer.allocateDirect(RECORDS_PER_SLAB * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+        }
+
+        this.slabs.get(slab).position(this.size % RECORDS_PER_SLAB * RECORD_SIZE)
+                .putLong(offerOperation.getSequence())
+                .putLong(offerOperation.getTimestamp())
+                .putLong(offerOperation.getPriceTicks())
+                .putInt(offerOperation.getQuantity())
+                .putInt(idOf(offerOperation.getBroker(), this.brokers, this.brokerIds))
+                .putInt(idOf(offerOperation.getAsset(), this.assets, this.assetIds))
+                .put((byte) offerOperation.getType().ordinal())
+                .put((byte) offerOperation.getKind().ordinal())
+                .put((byte) offerOperation.getStatus().ordinal());
+
+        this.size++;
+
+    }
+
+    /**
+     * Decodes a stored offer.
+     *
+     * @param index the index of the offer, in the order it was appended.
+     * @return a new offer with the state the offer had when it was appended.
+     * @throws IndexOutOfBoundsException if there is no offer with the given index.
+     */
+    public OfferOperation get(int index) {
+
+        Objects.checkIndex(index, this.size);
+
+        ByteBuffer slab = this.slabs.get(index / RECORDS_PER_SLAB);
+        int offset = index % RECORDS_PER_SLAB * RECORD_SIZE;
+
+        return new OfferOperation(
+                OfferOperationStatus.values()[slab.get(offset + 38)],
+                slab.getLong(offset),
+                slab.getLong(offset + 8),
+                this.brokers.get(slab.getInt(offset + 28)),
+                this.assets.get(slab.getInt(offset + 32)),
+                OfferOperationType.values()[slab.get(offset + 36)],
+                OfferOperationKind.values()[slab.get(offset + 37)],
+                slab.getInt(offset + 24),
+                slab.getLong(offset + 16)
+        );
+
+    }
+
+    /**
+     * @return the number of stored offers.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of bytes allocated outside of the heap for the records.
+     */
+    public long getOffHeapBytes() {
+        return (long) this.slabs.size() * RECORDS_PER_SLAB * RECORD_SIZE;
+    }
+
+    /**
+     * Finds the id of a broker or an asset, assigning it the next id if it has none yet.
+     *
+     * @param value the broker or the asset.
+     * @param values the brokers or the assets, by id.
+     * @param ids    the ids of the brokers or the assets.
+     * @param <T>    the type of the value.
+     * @return the id of the value.
+     */
+    private static <T> int idOf(T value, List<T> values, Map<T, Integer> ids) {
+
+        Integer id = ids.get(value);
+
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            ids.put(value, id);
+        }
+
+        return id;
+
+    }
+
+}
@@ -0,0 +1,204 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Represents all the resting offers of one side of the book at the same price.
+ * The offers are kept in arrival order, so the oldest offer is always executed first.
+ * They are linked to each other, like an intrusive doubly linked list, so any offer can be
+ * unlinked in constant time when it is canceled. Executed offers are unlinked lazily,
+ * when they reach the head of the queue.
+ */
+public class PriceLevel {
+
+    /**
+     * The price of the offers in this level, in ticks of their asset.
+     */
+    private final long priceTicks;
+
+    /**
+     * The price of the offers in this level.
+     */
+    private final double price;
+
+    /**
+     * The oldest offer resting at this price, or null if there is none.
+     */
+    private OfferOperation head;
+
+    /**
+     * The newest offer resting at this price, or null if there is none.
+     */
+    private OfferOperation tail;
+
+    /**
+     * The number of offers linked to this level.
+     */
+    private int size;
+
+    /**
+     * The quantity of shares still offered by the offers of this level.
+     */
+    private long quantity;
+
+    /**
+     * Creates a price level.
+     *
+     * @param priceTicks the price of the offers in this level, in ticks of their asset.
+     * @param price      the same price, converted by the asset of the offers.
+     */
+    public PriceLevel(long priceTicks, double price) {
+        this.priceTicks = priceTicks;
+        this.price = price;
+    }
+
+    /**
+     * @return the price of the offers in this level, in ticks of their asset.
+     */
+    public long getPriceTicks() {
+        return this.priceTicks;
+    }
+
+    /**
+     * @return the price of the offers in this level.
+     */
+    public double getPrice() {
+        return this.price;
+    }
+
+    /**
+     * @return the quantity of shares still offered by the offers of this level.
+     */
+    public long getQuantity() {
+        return this.quantity;
+    }
+
+    /**
+     * Appends an offer to the end of the queue.
+     *
+     * @param offerOperation the offer to be appended.
+     */
+    public void add(OfferOperation offerOperation) {
+
+        Objects.requireNonNull(offerOperation);
+
+        if (offerOperation.getPriceLevel() != null) {
+            throw new IllegalStateException("Offer already rests in a price level: " + offerOperation.getSequence());
+        }
+
+        offerOperation.link(this, this.tail, null);
+
+        if (this.tail == null) {
+            this.head = offerOperation;
+        } else {
+            this.tail.setNext(offerOperation);
+        }
+
+        this.tail = offerOperation;
+        this.size++;
+        this.quantity += offerOperation.getQuantity();
+
+    }
+
+    /**
+     * Unlinks an offer of this level in constant time, discounting the shares it still offers.
+     *
+     * @param offerOperation the offer to be unlinked. It must rest in this level.
+     */
+    void remove(OfferOperation offerOperation) {
+
+        OfferOperation previous = offerOperation.getPrevious(), next = offerOperation.getNext();
+
+        if (previous == null) {
+            this.head = next;
+        } else {
+            previous.setNext(next);
+        }
+
+        if (next == null) {
+            this.tail = previous;
+        } else {
+            next.setPrevious(previous);
+        }
+
+        offerOperation.link(null, null, null);
+        this.size--;
+        this.quantity -= offerOperation.getQuantity();
+
+    }
+
+    /**
+     * Discounts shares consumed from one of the offers of this level.
+     *
+     * @param quantity the quantity of shares consumed.
+     */
+    void reduce(int quantity) {
+        this.quantity -= quantity;
+    }
+
+    /**
+     * Retrieves the oldest offer of this level that can still be executed.
+     * Executed offers found at the head of the queue are discarded along the way.
+     *
+     * @return the oldest executable offer, or null if there is none.
+     */
+    public OfferOperation peek() {
+
+        while (this.head != null && this.head.getStatus().isFinal()) {
+            this.remove(this.head);
+        }
+
+        return this.head;
+
+    }
+
+    /**
+     * Visits every offer of this level that can still be executed, from the oldest to the newest.
+     *
+     * @param action the action to be performed for each offer.
+     */
+    public void forEach(Consumer<OfferOperation> action) {
+
+        Objects.requireNonNull(action);
+
+        for (OfferOperation offerOperation = this.head; offerOperation != null; offerOperation = offerOperation.getNext()) {
+            if (!offerOperation.getStatus().isFinal()) {
+                action.accept(offerOperation);
+            }
+        }
+
+    }
+
+    /**
+     * @return the number of offers of this level that can still be executed.
+     */
+    public int getDepth() {
+
+        int depth = 0;
+
+        for (OfferOperation offerOperation = this.head; offerOperation != null; offerOperation = offerOperation.getNext()) {
+            if (!offerOperation.getStatus().isFinal()) {
+                depth++;
+            }
+        }
+
+        return depth;
+
+    }
+
+    /**
+     * @return true if there is no executable offer left in this level, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.peek() == null;
+    }
+
+    /**
+     * @return the number of offers queued in this level, including executed offers not discarded yet.
+     */
+    public int size() {
+        return this.size;
+    }
+
+}
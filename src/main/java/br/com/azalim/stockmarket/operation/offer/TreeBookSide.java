@@ -0,0 +1,126 @@
+package br.com.azalim.stockmarket.operation.offer;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Represents a side of an offer book whose price levels are kept in a sorted tree, so any price
+ * can rest in it and every operation costs a logarithm of the number of levels.
+ */
+class TreeBookSide implements BookSide {
+
+    /**
+     * The price levels of the side, from the best to the worst price.
+     */
+    private final NavigableMap<Long, PriceLevel> levels;
+
+    /**
+     * Creates an empty side.
+     *
+     * @param descending true if the best price is the highest one, like for bids, false if it is the lowest one.
+     */
+    TreeBookSide(boolean descending) {
+        this.levels = new TreeMap<>(descending ? Comparator.<Long>reverseOrder() : Comparator.<Long>naturalOrder());
+    }
+
+    /**
+     * @param priceTicks the price of a level, in ticks of the asset.
+     * @return the level with the given price, or null if there is none.
+     */
+    @Override
+    public PriceLevel get(long priceTicks) {
+        return this.levels.get(priceTicks);
+    }
+
+    /**
+     * Retrieves the level with a given price, creating it if there is none.
+     *
+     * @param priceTicks the price of the level, in ticks of the asset.
+     * @param price      the same price, converted by the asset.
+     * @return the level with the given price.
+     */
+    @Override
+    public PriceLevel getOrCreate(long priceTicks, double price) {
+
+        PriceLevel priceLevel = this.levels.get(priceTicks);
+
+        if (priceLevel == null) {
+            priceLevel = new PriceLevel(priceTicks, price);
+            this.levels.put(priceTicks, priceLevel);
+        }
+
+        return priceLevel;
+
+    }
+
+    /**
+     * Adds an existing level to the side, like one moved from another side implementation.
+     *
+     * @param priceLevel the level to be added. There must be no level with the same price.
+     */
+    @Override
+    public void put(PriceLevel priceLevel) {
+        this.levels.put(priceLevel.getPriceTicks(), priceLevel);
+    }
+
+    /**
+     * Retrieves the best level that still has offers that can be executed, removing the empty levels before it.
+     *
+     * @return the best level of the side, or null if the side is empty.
+     */
+    @Override
+    public PriceLevel getBest() {
+
+        while (!this.levels.isEmpty()) {
+
+            Long bestPrice = this.levels.firstKey();
+            PriceLevel bestLevel = this.levels.get(bestPrice);
+
+            if (!bestLevel.isEmpty()) {
+                return bestLevel;
+            }
+
+            this.levels.remove(bestPrice);
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * @return the number of levels of the side, including the empty ones that were not removed yet.
+     */
+    @Override
+    public int size() {
+        return this.levels.size();
+    }
+
+    /**
+     * @return an iterator over the levels of the side, from the best to the worst price.
+     */
+    @Override
+    public Iterator<PriceLevel> iterator() {
+        return Collections.unmodifiableCollection(this.levels.values()).iterator();
+    }
+
+    /**
+     * @param priceTicks a price, in ticks of the asset.
+     * @return the levels with a better price than the given one, from the best to the worst price.
+     */
+    Iterable<PriceLevel> getBetterThan(long priceTicks) {
+        return Collections.unmodifiableCollection(this.levels.headMap(priceTicks, false).values());
+    }
+
+    /**
+     * @param priceTicks a price, in ticks of the asset.
+     * @return the levels with a worse price than the given one, from the best to the worst price.
+     */
+    Iterable<PriceLevel> getWorseThan(long priceTicks) {
+        return Collections.unmodifiableCollection(this.levels.tailMap(priceTicks, false).values());
+    }
+
+}
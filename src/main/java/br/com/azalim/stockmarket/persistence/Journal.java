@@ -0,0 +1,538 @@
+package br.com.azalim.stockmarket.persistence;
+
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents an append-only binary journal of the offers registered to the operation books, of the trades
+ * executed between them and of the offers canceled, so the books and the wallets can be rebuilt by a {@link JournalReplayer} after a restart.
+ * <p>
+ * Records are copied to an in-memory buffer by the thread that registers or executes them, which costs a few
+ * hundred nanoseconds. A writer thread named "Journal Writer" swaps the buffer and writes and forces it to the
+ * file, so every record appended while the file is being forced is committed in the same group. A record is
+ * only durable once its group has been forced, which happens at most one flush interval after it was appended.
+ * <p>
+ * Every journal file starts with a magic number and the version of the format of its records, so a file written
+ * with another format is rejected instead of being misread.
+ */
+public class Journal implements Closeable {
+
+    /**
+     * The number written at the beginning of every journal file.
+     */
+    static final int MAGIC_NUMBER = 0x4A524E4C;
+
+    /**
+     * The version of the format of the journal records, written right after the magic number.
+     * Version 2 stores the prices of the register records as ticks of their assets.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The size, in bytes, of the header of a journal file: the magic number and the version.
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * The type of the records of offers registered to a book.
+     */
+    static final byte REGISTER_RECORD = 1;
+
+    /**
+     * The type of the records of trades executed between two offers.
+     */
+    static final byte TRADE_RECORD = 2;
+
+    /**
+     * The type of the records of resting offers canceled by their brokers and of the remainders of offers that do not rest in a book.
+     */
+    static final byte CANCEL_RECORD = 3;
+
+    /**
+     * The size, in bytes, of a register record without the broker name and the asset symbol.
+     */
+    static final int REGISTER_RECORD_SIZE = 33;
+
+    /**
+     * The size, in bytes, of a trade record.
+     */
+    static final int TRADE_RECORD_SIZE = 37;
+
+    /**
+     * The size, in bytes, of a cancel record.
+     */
+    static final int CANCEL_RECORD_SIZE = 17;
+
+    /**
+     * The default capacity, in bytes, of each of the two buffers of the journal.
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1 << 20;
+
+    /**
+     * The default maximum time, in milliseconds, a record waits in the buffer before being written.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+
+    /**
+     * The file channel the records are appended to.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The maximum time, in milliseconds, a record waits in the buffer before being written.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * The buffer the records are appended to.
+     */
+    private ByteBuffer activeBuffer;
+
+    /**
+     * The buffer being written to the file by the writer thread.
+     */
+    private ByteBuffer flushingBuffer;
+
+    /**
+     * The position of the file right after the last appended record.
+     */
+    private long appendedPosition;
+
+    /**
+     * The position of the file up to which every record has been forced to the storage device.
+     */
+    private long durablePosition;
+
+    /**
+     * Indicates if the journal has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * The error that stopped the writer thread, or null if there was none.
+     */
+    private IOException failure;
+
+    /**
+     * The thread that writes the buffered records to the file.
+     */
+    private final Thread writerThread;
+
+    /**
+     * The encoded broker names and asset symbols, so offers are journaled without encoding them again.
+     */
+    private final Map<String, byte[]> encodedValues = new ConcurrentHashMap<>();
+
+    /**
+     * Opens a journal with the default buffer capacity and flush interval.
+     *
+     * @param path the path of the journal file. It is created if it does not exist and appended to otherwise.
+     * @throws IOException           if the file cannot be opened.
+     * @throws IllegalStateException if the file is not a journal of the current version.
+     */
+    public Journal(Path path) throws IOException {
+        this(path, DEFAULT_BUFFER_CAPACITY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a journal.
+     *
+     * @param path                the path of the journal file. It is created if it does not exist and appended to otherwise.
+     * @param bufferCapacity      the capacity, in bytes, of each of the two buffers of the journal.
+     * @param flushIntervalMillis the maximum time, in milliseconds, a record waits in the buffer before being written.
+     * @throws IOException           if the file cannot be opened.
+     * @throws IllegalStateException if the file is not a journal of the current version.
+     */
+    public Journal(Path path, int bufferCapacity, long flushIntervalMillis) throws IOException {
+
+        Objects.requireNonNull(path);
+
+        if (bufferCapacity < 1024) {
+            throw new IllegalArgumentException("Buffer capacity must be at least 1024 bytes: " + bufferCapacity);
+        }
+
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be greater than 0: " + flushIntervalMillis);
+        }
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        try {
+            this.writeOrCheckHeader(path);
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.activeBuffer = ByteBuffer.allocateDirect(bufferCapacity);
+        this.flushingBuffer = ByteBuffer.allocateDirect(bufferCapacity);
+        this.appendedPosition = this.durablePosition = this.channel.size();
+
+        this.writerThread = new Thread(this::write);
+        this.writerThread.setName("Journal Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+    }
+
+    /**
+     * Writes the header to a new journal file, or checks the header of an existing one.
+     *
+     * @param path the path of the journal file.
+     * @throws IOException           if the header cannot be written or read.
+     * @throws IllegalStateException if the file is not a journal of the current version.
+     */
+    private void writeOrCheckHeader(Path path) throws IOException {
+
+        if (this.channel.size() > 0) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(path))) {
+                checkHeader(input, path);
+            }
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC_NUMBER).putInt(VERSION).flip();
+
+        while (header.hasRemaining()) {
+            this.channel.write(header);
+        }
+
+        this.channel.force(false);
+
+    }
+
+    /**
+     * Reads and checks the header of a journal file.
+     *
+     * @param input the input positioned at the beginning of the file.
+     * @param path  the path of the journal file.
+     * @throws IOException           if the header cannot be read.
+     * @throws IllegalStateException if the file is not a journal of the current version.
+     */
+    static void checkHeader(DataInputStream input, Path path) throws IOException {
+
+        int magicNumber, version;
+
+        try {
+            magicNumber = input.readInt();
+            version = input.readInt();
+        } catch (EOFException e) {
+            throw new IllegalStateException("Journal header is incomplete: " + path);
+        }
+
+        if (magicNumber != MAGIC_NUMBER) {
+            throw new IllegalStateException("Not a journal file: " + path);
+        }
+
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported journal version " + version + ": " + path);
+        }
+
+    }
+
+    /**
+     * Appends the record of an offer registered to its book.
+     *
+     * @param offerOperation the registered offer.
+     */
+    public void appendRegister(OfferOperation offerOperation) {
+
+        byte[] brokerName = this.encodeCached(offerOperation.getBroker().getName());
+        byte[] assetSymbol = this.encodeCached(offerOperation.getAsset().getSymbol());
+
+        synchronized (this) {
+            this.claim(REGISTER_RECORD_SIZE + brokerName.length + assetSymbol.length)
+                    .put(REGISTER_RECORD)
+                    .putLong(offerOperation.getSequence())
+                    .putLong(offerOperation.getTimestamp())
+                    .put((byte) offerOperation.getType().ordinal())
+                    .put((byte) offerOperation.getKind().ordinal())
+                    .putInt(offerOperation.getQuantity())
+                    .putLong(offerOperation.getPriceTicks())
+                    .put((byte) brokerName.length).put(brokerName)
+                    .put((byte) assetSymbol.length).put(assetSymbol);
+        }
+
+    }
+
+    /**
+     * Appends the record of a trade executed between two offers.
+     *
+     * @param timestamp          the timestamp of the trade, in nanoseconds since the epoch.
+     * @param sellOfferOperation the sell offer of the trade.
+     * @param buyOfferOperation  the buy offer of the trade.
+     * @param quantity           the quantity of shares traded.
+     * @param price              the price of each share.
+     */
+    public void appendTrade(long timestamp, OfferOperation sellOfferOperation, OfferOperation buyOfferOperation, int quantity, double price) {
+
+        long sellSequence = sellOfferOperation.getSequence(), buySequence = buyOfferOperation.getSequence();
+
+        synchronized (this) {
+            this.claim(TRADE_RECORD_SIZE)
+                    .put(TRADE_RECORD)
+                    .putLong(timestamp)
+                    .putLong(sellSequence)
+                    .putLong(buySequence)
+                    .putInt(quantity)
+                    .putDouble(price);
+        }
+
+    }
+
+    /**
+     * Appends the record of a resting offer canceled by its broker, or of the remainder of an offer that does not rest in a book.
+     *
+     * @param timestamp      the timestamp of the cancellation, in nanoseconds since the epoch.
+     * @param offerOperation the canceled offer.
+     */
+    public void appendCancel(long timestamp, OfferOperation offerOperation) {
+
+        long sequence = offerOperation.getSequence();
+
+        synchronized (this) {
+            this.claim(CANCEL_RECORD_SIZE)
+                    .put(CANCEL_RECORD)
+                    .putLong(timestamp)
+                    .putLong(sequence);
+        }
+
+    }
+
+    /**
+     * @return the position of the file right after the last appended record.
+     */
+    public synchronized long getPosition() {
+        return this.appendedPosition;
+    }
+
+    /**
+     * Waits until every record appended so far is forced to the storage device.
+     *
+     * @throws IOException if the records could not be written.
+     */
+    public synchronized void flush() throws IOException {
+
+        long position = this.appendedPosition;
+        boolean interrupted = false;
+
+        this.notifyAll();
+
+        while (this.durablePosition < position && this.failure == null) {
+            interrupted |= this.awaitUninterruptibly();
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.failure != null) {
+            throw this.failure;
+        }
+
+    }
+
+    /**
+     * Writes every appended record, stops the writer thread and closes the file.
+     *
+     * @throws IOException if the records could not be written or the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+
+        synchronized (this) {
+
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            this.notifyAll();
+
+        }
+
+        boolean interrupted = false;
+
+        while (this.writerThread.isAlive()) {
+            try {
+                this.writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.channel.close();
+
+        synchronized (this) {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        }
+
+    }
+
+    /**
+     * Claims room for a record in the active buffer, waiting for the writer thread to swap the buffers if it is full.
+     * Must be called while holding the monitor of the journal.
+     *
+     * @param size the size of the record, in bytes.
+     * @return the active buffer, with enough room for the record.
+     */
+    private ByteBuffer claim(int size) {
+
+        if (this.closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+
+        boolean interrupted = false;
+
+        while (this.activeBuffer.remaining() < size) {
+
+            if (this.failure != null) {
+                throw new UncheckedIOException(this.failure);
+            }
+
+            this.notifyAll();
+            interrupted |= this.awaitUninterruptibly();
+
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.appendedPosition += size;
+        return this.activeBuffer;
+
+    }
+
+    /**
+     * Runs the writer thread: swaps the buffers whenever there are appended records, writes and forces
+     * them to the file and then wakes up the threads waiting for room or for durability.
+     */
+    private void write() {
+
+        try {
+
+            while (true) {
+
+                ByteBuffer buffer;
+                long position;
+
+                synchronized (this) {
+
+                    if (this.activeBuffer.position() == 0) {
+
+                        if (this.closed) {
+                            return;
+                        }
+
+                        this.wait(this.flushIntervalMillis);
+                        continue;
+
+                    }
+
+                    buffer = this.activeBuffer;
+                    this.activeBuffer = this.flushingBuffer;
+                    this.flushingBuffer = buffer;
+                    position = this.appendedPosition;
+
+                    this.notifyAll();
+
+                }
+
+                buffer.flip();
+
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer);
+                }
+
+                this.channel.force(false);
+                buffer.clear();
+
+                synchronized (this) {
+                    this.durablePosition = position;
+                    this.notifyAll();
+                }
+
+            }
+
+        } catch (IOException e) {
+            synchronized (this) {
+                this.failure = e;
+                this.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+    }
+
+    /**
+     * Waits to be notified for at most one flush interval.
+     * Must be called while holding the monitor of the journal.
+     *
+     * @return true if the thread was interrupted while waiting, so the caller can restore the interruption later.
+     */
+    private boolean awaitUninterruptibly() {
+
+        try {
+            this.wait(this.flushIntervalMillis);
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+
+    }
+
+    /**
+     * Encodes a name or a symbol to be written in a record, reusing the bytes it was encoded to before.
+     *
+     * @param value the value to be encoded.
+     * @return the UTF-8 bytes of the value. They must not be modified.
+     * @throws IllegalArgumentException if the value has more than 255 bytes.
+     */
+    private byte[] encodeCached(String value) {
+        byte[] bytes = this.encodedValues.get(value);
+        return bytes != null ? bytes : this.encodedValues.computeIfAbsent(value, Journal::encode);
+    }
+
+    /**
+     * Encodes a name or a symbol to be written in a record.
+     *
+     * @param value the value to be encoded.
+     * @return the UTF-8 bytes of the value.
+     * @throws IllegalArgumentException if the value has more than 255 bytes.
+     */
+    private static byte[] encode(String value) {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Value is too long to be journaled: " + value);
+        }
+
+        return bytes;
+
+    }
+
+}
@@ -0,0 +1,452 @@
+package br.com.azalim.stockmarket.persistence;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the operation books and the wallets of a stock market from the latest snapshot taken by a
+ * {@link Snapshotter}, if any, and from the records of the {@link Journal} that are not in the snapshot.
+ * The registered offers are added back to their books with their original sequence numbers, so they keep
+ * their time priority, and the trades are settled again without matching, so the result does not depend
+ * on the mode the operations were processed with. Info operations are not journaled, so they are not replayed.
+ */
+public class JournalReplayer {
+
+    /**
+     * The stock market being rebuilt.
+     */
+    private final StockMarket stockMarket;
+
+    /**
+     * The brokers of the stock market, by name.
+     */
+    private final Map<String, Broker> brokers;
+
+    /**
+     * The assets of the stock market, by symbol.
+     */
+    private final Map<String, Asset> assets;
+
+    /**
+     * The replayed offers that can still be executed, by sequence number.
+     */
+    private final Map<Long, OfferOperation> offerOperations = new HashMap<>();
+
+    /**
+     * The journal positions of the loaded snapshot, by asset symbol. The records of an asset
+     * before its position are already in the snapshot, so they must not be replayed.
+     */
+    private final Map<String, Long> snapshotPositions = new HashMap<>();
+
+    /**
+     * The greatest journal position of the loaded snapshot, or 0 if no snapshot was loaded.
+     */
+    private long lastSnapshotPosition;
+
+    /**
+     * The number of journal records replayed so far.
+     */
+    private long replayedRecords;
+
+    /**
+     * Creates a replayer.
+     *
+     * @param stockMarket the stock market to be rebuilt.
+     */
+    public JournalReplayer(StockMarket stockMarket) {
+
+        Objects.requireNonNull(stockMarket);
+
+        this.stockMarket = stockMarket;
+        this.brokers = stockMarket.getBrokers().stream().collect(Collectors.toMap(Broker::getName, Function.identity()));
+        this.assets = stockMarket.getOperationBooks().keySet().stream().collect(Collectors.toMap(Asset::getSymbol, Function.identity()));
+
+    }
+
+    /**
+     * Loads the resting offers, the last trades and the positions saved in a snapshot file, and makes
+     * the operations created afterwards get greater sequence numbers than any operation before the snapshot.
+     * Must be called before replaying the journal, with the same restrictions.
+     *
+     * @param path the path of the snapshot file. Nothing is loaded if it does not exist.
+     * @return true if the snapshot was loaded, false if it does not exist.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the stock market is processing operations or journaling,
+     *                               or if the snapshot does not match the stock market.
+     */
+    public boolean loadSnapshot(Path path) throws IOException {
+
+        Objects.requireNonNull(path);
+        this.checkNotStarted();
+
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+
+            if (input.readInt() != Snapshotter.MAGIC_NUMBER) {
+                throw new IllegalStateException("Not a snapshot file: " + path);
+            }
+
+            int version = input.readInt();
+
+            if (version != Snapshotter.VERSION) {
+                throw new IllegalStateException("Unsupported snapshot version " + version + ": " + path);
+            }
+
+            for (int groups = input.readInt(); groups > 0; groups--) {
+
+                long journalPosition = input.readLong();
+                Asset parentAsset = null;
+
+                for (int books = input.readInt(); books > 0; books--) {
+
+                    Asset asset = this.getAsset(input.readUTF());
+                    OperationBook operationBook = this.stockMarket.getOperationBook(asset);
+
+                    long lastTimestamp = input.readLong();
+                    double lastPrice = input.readDouble();
+                    int lastQuantity = input.readInt();
+
+                    if (lastQuantity > 0) {
+                        operationBook.getTradeTape().record(lastTimestamp, lastPrice, lastQuantity);
+                    }
+
+                    for (int offers = input.readInt(); offers > 0; offers--) {
+
+                        long sequence = input.readLong(), timestamp = input.readLong();
+                        Broker broker = this.getBroker(input.readUTF());
+                        OfferOperationType type = OfferOperationType.values()[input.readByte()];
+                        OfferOperationStatus status = OfferOperationStatus.values()[input.readByte()];
+                        int quantity = input.readInt();
+                        double price = input.readDouble();
+
+                        OfferOperation offerOperation = new OfferOperation(sequence, timestamp, broker, asset, type, quantity, price, status);
+
+                        this.offerOperations.put(sequence, offerOperation);
+                        operationBook.accept(offerOperation);
+
+                    }
+
+                    this.snapshotPositions.put(asset.getSymbol(), journalPosition);
+                    parentAsset = asset.getParentAsset();
+
+                }
+
+                for (int positions = input.readInt(); positions > 0; positions--) {
+
+                    Broker broker = this.getBroker(input.readUTF());
+                    long quantity = input.readLong();
+                    double averageCost = input.readDouble(), realizedProfit = input.readDouble();
+
+                    broker.getWallet().restorePosition(Objects.requireNonNull(parentAsset), quantity, averageCost, realizedProfit);
+
+                }
+
+                this.lastSnapshotPosition = Math.max(this.lastSnapshotPosition, journalPosition);
+
+            }
+
+            Operation.advanceSequence(input.readLong());
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Replays every record of a journal file that is not in the loaded snapshot. A record left incomplete by a crash is cut from the end of the file,
+     * so the journal can be appended to again. Must be called before the stock market starts processing operations
+     * and before it starts journaling, otherwise the replayed offers would be matched or journaled again.
+     *
+     * @param path the path of the journal file. Nothing is replayed if it does not exist.
+     * @return the number of records replayed, not counting the ones skipped because they are in the snapshot.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the stock market is processing operations or journaling, if the file is not
+     *                               a journal of the current version or if it does not match the stock market or the snapshot.
+     */
+    public long replay(Path path) throws IOException {
+
+        Objects.requireNonNull(path);
+        this.checkNotStarted();
+
+        if (!Files.exists(path)) {
+
+            if (this.lastSnapshotPosition > 0) {
+                throw new IllegalStateException("Journal of the snapshot is missing: " + path);
+            }
+
+            return 0;
+
+        }
+
+        long firstSnapshotPosition = this.snapshotPositions.values().stream().mapToLong(Long::longValue).min().orElse(0);
+        long replayedRecords = this.replayedRecords, position = Math.max(firstSnapshotPosition, Journal.HEADER_SIZE);
+
+        if (Files.size(path) < this.lastSnapshotPosition) {
+            throw new IllegalStateException("Journal is shorter than the snapshot: " + path);
+        }
+
+        // A journal created right before a crash may not even have its header
+        if (Files.size(path) == 0) {
+            return 0;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+
+            Journal.checkHeader(input, path);
+            input.skipNBytes(position - Journal.HEADER_SIZE);
+
+            while (true) {
+
+                int type = input.read();
+
+                if (type == -1) {
+                    break;
+                }
+
+                try {
+                    position += switch ((byte) type) {
+                        case Journal.REGISTER_RECORD -> this.replayRegister(input, position);
+                        case Journal.TRADE_RECORD -> this.replayTrade(input, position);
+                        case Journal.CANCEL_RECORD -> this.replayCancel(input, position);
+                        default -> throw new IllegalStateException("Unknown journal record type " + type + " at position " + position);
+                    };
+                } catch (EOFException e) {
+                    break;
+                }
+
+            }
+
+        }
+
+        if (position < Files.size(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+
+        return this.replayedRecords - replayedRecords;
+
+    }
+
+    /**
+     * Replays the record of an offer registered to its book, unless it is in the snapshot.
+     *
+     * @param input    the input positioned right after the record type.
+     * @param position the position of the record in the journal.
+     * @return the size of the record, in bytes.
+     * @throws IOException if the record cannot be read.
+     */
+    private int replayRegister(DataInputStream input, long position) throws IOException {
+
+        long sequence = input.readLong(), timestamp = input.readLong();
+        OfferOperationType type = OfferOperationType.values()[input.readByte()];
+        OfferOperationKind kind = OfferOperationKind.values()[input.readByte()];
+        int quantity = input.readInt();
+        long priceTicks = input.readLong();
+        byte[] brokerName = readValue(input), assetSymbol = readValue(input);
+
+        int size = Journal.REGISTER_RECORD_SIZE + brokerName.length + assetSymbol.length;
+        Asset asset = this.getAsset(new String(assetSymbol, StandardCharsets.UTF_8));
+
+        // Offers in the snapshot may have been executed or canceled, but their sequence numbers must still not be reused
+        Operation.advanceSequence(sequence);
+
+        if (this.isInSnapshot(asset, position)) {
+            return size;
+        }
+
+        Broker broker = this.getBroker(new String(brokerName, StandardCharsets.UTF_8));
+        OfferOperation offerOperation = new OfferOperation(sequence, timestamp, broker, asset, type, kind, quantity, asset.toPrice(priceTicks));
+
+        this.offerOperations.put(sequence, offerOperation);
+        this.stockMarket.getOperationBook(asset).accept(offerOperation);
+        this.replayedRecords++;
+
+        return size;
+
+    }
+
+    /**
+     * Replays the record of a trade executed between two offers, unless it is in the snapshot.
+     * Trades between offers that are not known are only expected before the last journal position of
+     * the snapshot, when the offers were executed before their asset was snapshotted.
+     *
+     * @param input    the input positioned right after the record type.
+     * @param position the position of the record in the journal.
+     * @return the size of the record, in bytes.
+     * @throws IOException if the record cannot be read.
+     */
+    private int replayTrade(DataInputStream input, long position) throws IOException {
+
+        long timestamp = input.readLong();
+        long sellSequence = input.readLong(), buySequence = input.readLong();
+        int quantity = input.readInt();
+        double price = input.readDouble();
+
+        OfferOperation sellOfferOperation = this.offerOperations.get(sellSequence);
+        OfferOperation buyOfferOperation = this.offerOperations.get(buySequence);
+
+        OfferOperation knownOfferOperation = sellOfferOperation != null ? sellOfferOperation : buyOfferOperation;
+
+        if (knownOfferOperation == null ? position < this.lastSnapshotPosition : this.isInSnapshot(knownOfferOperation.getAsset(), position)) {
+            return Journal.TRADE_RECORD_SIZE;
+        }
+
+        if (sellOfferOperation == null || buyOfferOperation == null) {
+            throw new IllegalStateException("Trade between unknown offers in the journal: " + sellSequence + ", " + buySequence);
+        }
+
+        OperationBook operationBook = this.stockMarket.getOperationBook(sellOfferOperation.getAsset());
+
+        synchronized (operationBook.getOfferBook()) {
+            sellOfferOperation.consumeQuantity(quantity);
+            buyOfferOperation.consumeQuantity(quantity);
+            operationBook.refreshTopOfBook();
+        }
+
+        for (OfferOperation offerOperation : new OfferOperation[]{sellOfferOperation, buyOfferOperation}) {
+            if (offerOperation.isCompleted()) {
+                this.offerOperations.remove(offerOperation.getSequence());
+                operationBook.retire(offerOperation);
+            }
+        }
+
+        operationBook.settleTrade(sellOfferOperation, buyOfferOperation, quantity, price, timestamp);
+        this.replayedRecords++;
+
+        return Journal.TRADE_RECORD_SIZE;
+
+    }
+
+    /**
+     * Replays the record of a resting offer canceled by its broker, or of the remainder of an offer
+     * that does not rest in its book, unless it is in the snapshot.
+     * Cancellations of offers that are not known are only expected before the last journal position
+     * of the snapshot, when the offers were canceled before their asset was snapshotted.
+     *
+     * @param input    the input positioned right after the record type.
+     * @param position the position of the record in the journal.
+     * @return the size of the record, in bytes.
+     * @throws IOException if the record cannot be read.
+     */
+    private int replayCancel(DataInputStream input, long position) throws IOException {
+
+        input.readLong();
+        long sequence = input.readLong();
+
+        OfferOperation offerOperation = this.offerOperations.get(sequence);
+
+        if (offerOperation == null ? position < this.lastSnapshotPosition : this.isInSnapshot(offerOperation.getAsset(), position)) {
+            return Journal.CANCEL_RECORD_SIZE;
+        }
+
+        if (offerOperation == null) {
+            throw new IllegalStateException("Cancellation of an unknown offer in the journal: " + sequence);
+        }
+
+        OperationBook operationBook = this.stockMarket.getOperationBook(offerOperation.getAsset());
+        this.offerOperations.remove(sequence);
+
+        if (offerOperation.getKind().isImmediate()) {
+            operationBook.expire(offerOperation);
+        } else {
+            operationBook.cancel(sequence);
+        }
+
+        this.replayedRecords++;
+
+        return Journal.CANCEL_RECORD_SIZE;
+
+    }
+
+    /**
+     * Checks if a journal record of an asset is already in the loaded snapshot.
+     *
+     * @param asset    the asset of the record.
+     * @param position the position of the record in the journal.
+     * @return true if the record is before the journal position of the snapshot of the asset, false otherwise.
+     */
+    private boolean isInSnapshot(Asset asset, long position) {
+        return position < this.snapshotPositions.getOrDefault(asset.getSymbol(), 0L);
+    }
+
+    /**
+     * @param symbol the symbol of the asset.
+     * @return the asset of the stock market with the given symbol.
+     * @throws IllegalStateException if there is no such asset.
+     */
+    private Asset getAsset(String symbol) {
+
+        Asset asset = this.assets.get(symbol);
+
+        if (asset == null) {
+            throw new IllegalStateException("Unknown asset: " + symbol);
+        }
+
+        return asset;
+
+    }
+
+    /**
+     * @param name the name of the broker.
+     * @return the broker of the stock market with the given name.
+     * @throws IllegalStateException if there is no such broker.
+     */
+    private Broker getBroker(String name) {
+
+        Broker broker = this.brokers.get(name);
+
+        if (broker == null) {
+            throw new IllegalStateException("Unknown broker: " + name);
+        }
+
+        return broker;
+
+    }
+
+    /**
+     * @throws IllegalStateException if the stock market is processing operations or journaling.
+     */
+    private void checkNotStarted() {
+        if (this.stockMarket.getProcessingMode() != null || this.stockMarket.getJournal() != null) {
+            throw new IllegalStateException("Stock market must be recovered before processing and journaling operations");
+        }
+    }
+
+    /**
+     * Reads a name or a symbol written by the journal.
+     *
+     * @param input the input positioned at the length of the value.
+     * @return the UTF-8 bytes of the value.
+     * @throws IOException if the value cannot be read.
+     */
+    private static byte[] readValue(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readUnsignedByte()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+}
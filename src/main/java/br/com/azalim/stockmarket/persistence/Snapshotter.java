@@ -0,0 +1,302 @@
+package br.com.azalim.stockmarket.persistence;
+
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.TradeTape;
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.wallet.Position;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Takes compact binary snapshots of the operation books and the wallets of a stock market, so a restart only has
+ * to load the latest snapshot and replay the tail of the {@link Journal} with a {@link JournalReplayer}.
+ * <p>
+ * The assets are snapshotted one group at a time, each group being a common asset and its fractional asset, which
+ * share the same positions. While a group is copied, its books are locked as they are when matching an offer, so
+ * only those books wait, and only for the copy; the other books keep matching and the file is written afterwards.
+ * The journal position is saved with each group, so the replayer knows which records are already in the snapshot.
+ * Info operations, executed offers and the trade history before the last trade of each asset are not saved, but the
+ * last operation sequence number is, after every group is copied, so operations created after a recovery never reuse
+ * the sequence number of an offer the journal refers to.
+ */
+public class Snapshotter implements Closeable {
+
+    /**
+     * The number written at the beginning of every snapshot file.
+     */
+    static final int MAGIC_NUMBER = 0x534E4150;
+
+    /**
+     * The version of the format of the snapshot files, written right after the magic number.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The stock market being snapshotted.
+     */
+    private final StockMarket stockMarket;
+
+    /**
+     * The path of the snapshot file. Each snapshot replaces the previous one.
+     */
+    private final Path path;
+
+    /**
+     * The groups of assets, each one with a common asset and its fractional asset, sorted by symbol.
+     */
+    private final Map<Asset, List<Asset>> assetGroups;
+
+    /**
+     * The executor service that takes the periodic snapshots.
+     * The thread generated by this executor is going to be named "Snapshotter".
+     */
+    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setName("Snapshotter");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> e.printStackTrace());
+        return thread;
+    });
+
+    /**
+     * Creates a snapshotter.
+     *
+     * @param stockMarket the stock market to be snapshotted. It must be journaled when the snapshots are taken.
+     * @param path        the path of the snapshot file. Each snapshot replaces the previous one.
+     */
+    public Snapshotter(StockMarket stockMarket, Path path) {
+
+        Objects.requireNonNull(stockMarket);
+        Objects.requireNonNull(path);
+
+        this.stockMarket = stockMarket;
+        this.path = path;
+        this.assetGroups = stockMarket.getOperationBooks().keySet().stream()
+                .sorted(Comparator.comparing(Asset::getSymbol))
+                .collect(Collectors.groupingBy(Asset::getParentAsset, () -> new TreeMap<>(Comparator.comparing(Asset::getSymbol)), Collectors.toList()));
+
+    }
+
+    /**
+     * Starts taking a snapshot at a fixed delay, in the background.
+     *
+     * @param intervalMillis the time between the end of a snapshot and the start of the next one, in milliseconds.
+     */
+    public void start(long intervalMillis) {
+        this.executorService.scheduleWithFixedDelay(() -> {
+            try {
+                this.take();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a snapshot of every operation book and wallet. The snapshot is written to a temporary file
+     * that replaces the previous snapshot only when it is complete, after the journal records it covers are forced.
+     *
+     * @throws IOException           if the snapshot cannot be written.
+     * @throws IllegalStateException if the stock market is not journaled.
+     */
+    public synchronized void take() throws IOException {
+
+        Journal journal = this.stockMarket.getJournal();
+
+        if (journal == null) {
+            throw new IllegalStateException("Stock market must be journaled to be snapshotted");
+        }
+
+        Path temporaryPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath), 1 << 16))) {
+
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(VERSION);
+            output.writeInt(this.assetGroups.size());
+
+            for (Map.Entry<Asset, List<Asset>> assetGroup : this.assetGroups.entrySet()) {
+                this.copy(journal, assetGroup.getKey(), assetGroup.getValue()).write(output);
+            }
+
+            // Read after every group is copied, so it covers every offer journaled before the positions of the groups
+            output.writeLong(Operation.getLastSequence());
+
+        }
+
+        journal.flush();
+        Files.move(temporaryPath, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    }
+
+    /**
+     * Stops taking periodic snapshots.
+     */
+    @Override
+    public void close() {
+        this.executorService.shutdown();
+    }
+
+    /**
+     * Copies the state of a group of assets while their books are locked.
+     *
+     * @param journal     the journal of the stock market.
+     * @param parentAsset the common asset of the group.
+     * @param assets      the assets of the group, sorted by symbol.
+     * @return the copied state of the group.
+     */
+    private GroupState copy(Journal journal, Asset parentAsset, List<Asset> assets) {
+
+        List<OperationBook> operationBooks = assets.stream().map(this.stockMarket::getOperationBook).toList();
+        return this.copy(journal, parentAsset, assets, operationBooks, 0);
+
+    }
+
+    /**
+     * Locks the remaining books of a group, one at a time, and copies the state of the group once all of them are locked.
+     *
+     * @param journal        the journal of the stock market.
+     * @param parentAsset    the common asset of the group.
+     * @param assets         the assets of the group, sorted by symbol.
+     * @param operationBooks the books of the assets, in the same order.
+     * @param index          the index of the next book to be locked.
+     * @return the copied state of the group.
+     */
+    private GroupState copy(Journal journal, Asset parentAsset, List<Asset> assets, List<OperationBook> operationBooks, int index) {
+
+        if (index < operationBooks.size()) {
+            synchronized (operationBooks.get(index).getOfferBook()) {
+                return this.copy(journal, parentAsset, assets, operationBooks, index + 1);
+            }
+        }
+
+        List<BookState> books = new ArrayList<>(assets.size());
+
+        for (int bookIndex = 0; bookIndex < assets.size(); bookIndex++) {
+
+            OperationBook operationBook = operationBooks.get(bookIndex);
+            OfferBook offerBook = operationBook.getOfferBook();
+            TradeTape tradeTape = operationBook.getTradeTape();
+            List<OfferState> offers = new ArrayList<>();
+
+            offerBook.forEach(offerOperation -> offers.add(new OfferState(
+                    offerOperation.getSequence(),
+                    offerOperation.getTimestamp(),
+                    offerOperation.getBroker().getName(),
+                    offerOperation.getType(),
+                    offerOperation.getStatus(),
+                    offerOperation.getQuantity(),
+                    offerOperation.getPrice()
+            )));
+
+            books.add(new BookState(assets.get(bookIndex).getSymbol(), tradeTape.getLastTimestamp(), tradeTape.getLastPrice(), tradeTape.getLastQuantity(), offers));
+
+        }
+
+        List<PositionState> positions = new ArrayList<>();
+
+        for (Broker broker : this.stockMarket.getBrokers()) {
+
+            Position position = broker.getWallet().getPosition(parentAsset);
+
+            if (position != null) {
+                positions.add(new PositionState(broker.getName(), position.getQuantity(), position.getAverageCost(), position.getRealizedProfit()));
+            }
+
+        }
+
+        return new GroupState(journal.getPosition(), books, positions);
+
+    }
+
+    /**
+     * The state of a group of assets, and the journal position right after the last record it reflects.
+     */
+    record GroupState(long journalPosition, List<BookState> books, List<PositionState> positions) {
+
+        void write(DataOutputStream output) throws IOException {
+
+            output.writeLong(this.journalPosition);
+            output.writeInt(this.books.size());
+
+            for (BookState book : this.books) {
+                book.write(output);
+            }
+
+            output.writeInt(this.positions.size());
+
+            for (PositionState position : this.positions) {
+                position.write(output);
+            }
+
+        }
+
+    }
+
+    /**
+     * The state of the book of an asset: its last trade, if any, and its resting offers in priority order.
+     */
+    record BookState(String assetSymbol, long lastTimestamp, double lastPrice, int lastQuantity, List<OfferState> offers) {
+
+        void write(DataOutputStream output) throws IOException {
+
+            output.writeUTF(this.assetSymbol);
+            output.writeLong(this.lastTimestamp);
+            output.writeDouble(this.lastPrice);
+            output.writeInt(this.lastQuantity);
+            output.writeInt(this.offers.size());
+
+            for (OfferState offer : this.offers) {
+                offer.write(output);
+            }
+
+        }
+
+    }
+
+    /**
+     * The state of a resting offer.
+     */
+    record OfferState(long sequence, long timestamp, String brokerName, OfferOperationType type, OfferOperationStatus status, int quantity, double price) {
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeLong(this.sequence);
+            output.writeLong(this.timestamp);
+            output.writeUTF(this.brokerName);
+            output.writeByte(this.type.ordinal());
+            output.writeByte(this.status.ordinal());
+            output.writeInt(this.quantity);
+            output.writeDouble(this.price);
+        }
+
+    }
+
+    /**
+     * The position of a broker in a group of assets.
+     */
+    record PositionState(String brokerName, long quantity, double averageCost, double realizedProfit) {
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeUTF(this.brokerName);
+            output.writeLong(this.quantity);
+            output.writeDouble(this.averageCost);
+            output.writeDouble(this.realizedProfit);
+        }
+
+    }
+
+}
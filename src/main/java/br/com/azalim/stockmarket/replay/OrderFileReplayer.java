@@ -0,0 +1,257 @@
+package br.com.azalim.stockmarket.replay;
+
+import br.com.azalim.stockmarket.ProcessingMode;
+import br.com.azalim.stockmarket.StockMarket;
+import br.com.azalim.stockmarket.Utils;
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.VirtualClock;
+import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a recorded order file into a stock market, driving its {@link VirtualClock} with the recorded timestamps.
+ * The orders are registered and matched by a single thread in file order, so replaying the same file
+ * always executes the same trades, with the same timestamps, in the same order.
+ * <p>
+ * The file is a CSV with one offer per line, like {@code 1700000000000000000,XP Investimentos,PETR4,BUY,100,35.5},
+ * with the timestamp in nanoseconds since the epoch, the broker name, the asset symbol, the side, the quantity
+ * and the price. An optional header starting with {@code timestamp} is skipped.
+ */
+public class OrderFileReplayer implements TransactionObserver {
+
+    /**
+     * The stock market the orders are replayed into.
+     */
+    private final StockMarket stockMarket;
+
+    /**
+     * The clock of the stock market.
+     */
+    private final VirtualClock clock;
+
+    /**
+     * The brokers of the stock market, by name.
+     */
+    private final Map<String, Broker> brokers;
+
+    /**
+     * The assets of the stock market, by symbol.
+     */
+    private final Map<String, Asset> assets;
+
+    /**
+     * The output the executed trades are written to as CSV, or null if they are not written.
+     */
+    private final Appendable tradeOutput;
+
+    /**
+     * The number of trades executed so far.
+     */
+    private long trades;
+
+    /**
+     * Creates a replayer and subscribes it to the trades of the stock market.
+     *
+     * @param stockMarket the stock market the orders are replayed into. It must use a virtual clock.
+     * @param tradeOutput the output the executed trades are written to as CSV, like
+     *                    {@code 1700000000000000000,PETR4,Clear Corretora,XP Investimentos,100,35.5},
+     *                    with the timestamp, the asset symbol, the seller, the buyer, the quantity and the price.
+     *                    Can be null if the trades should not be written.
+     * @throws IllegalArgumentException if the stock market does not use a virtual clock.
+     */
+    public OrderFileReplayer(StockMarket stockMarket, Appendable tradeOutput) {
+
+        Objects.requireNonNull(stockMarket);
+
+        if (!(stockMarket.getClock() instanceof VirtualClock virtualClock)) {
+            throw new IllegalArgumentException("Stock market must use a virtual clock to be replayed deterministically");
+        }
+
+        this.stockMarket = stockMarket;
+        this.clock = virtualClock;
+        this.brokers = stockMarket.getBrokers().stream().collect(Collectors.toMap(Broker::getName, Function.identity()));
+        this.assets = stockMarket.getOperationBooks().keySet().stream().collect(Collectors.toMap(Asset::getSymbol, Function.identity()));
+        this.tradeOutput = tradeOutput;
+
+        stockMarket.observe(this);
+
+    }
+
+    /**
+     * Replays every order of a file. If the stock market is not processing operations yet, it starts processing
+     * them continuously, which is the only mode that processes each order before the next one is registered.
+     *
+     * @param orders the recorded order file.
+     * @param speed  how many times faster than the recorded session the orders are registered,
+     *               or 0 to register them as fast as possible.
+     * @return the report of the replay.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the speed is negative or a line is not a valid order.
+     * @throws IllegalStateException    if the stock market is processing operations in another mode.
+     */
+    public synchronized ReplayReport replay(BufferedReader orders, double speed) throws IOException {
+
+        Objects.requireNonNull(orders);
+
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed cannot be negative: " + speed);
+        }
+
+        if (this.stockMarket.getProcessingMode() == null) {
+            this.stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+        } else if (this.stockMarket.getProcessingMode() != ProcessingMode.CONTINUOUS) {
+            throw new IllegalStateException("Orders must be processed continuously to be replayed deterministically");
+        }
+
+        long[] latencies = new long[1024];
+        long firstTimestamp = 0, lastTimestamp = 0, initialTrades = this.trades, wallStart = System.nanoTime();
+        int count = 0, lineNumber = 0;
+        String line;
+
+        while ((line = orders.readLine()) != null) {
+
+            lineNumber++;
+
+            if (line.isBlank() || line.startsWith("timestamp")) {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Invalid order at line " + lineNumber + ": " + line);
+            }
+
+            long timestamp;
+            OfferOperation offerOperation;
+
+            try {
+                timestamp = Long.parseLong(fields[0].trim());
+                offerOperation = new OfferOperation(
+                        this.getBroker(fields[1].trim()),
+                        this.getAsset(fields[2].trim()),
+                        OfferOperationType.valueOf(fields[3].trim()),
+                        Integer.parseInt(fields[4].trim()),
+                        Double.parseDouble(fields[5].trim())
+                );
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid order at line " + lineNumber + ": " + line, e);
+            }
+
+            if (count == 0) {
+                firstTimestamp = timestamp;
+            }
+
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+
+            // The latency is measured from the time the order should have been sent, so falling behind counts
+            long intendedStart = speed == 0 ? System.nanoTime() : wallStart + (long) ((timestamp - firstTimestamp) / speed);
+            Utils.awaitUntil(intendedStart);
+
+            this.clock.advanceTo(timestamp);
+            this.stockMarket.getOperationBook(offerOperation.getAsset()).register(offerOperation);
+
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+
+            latencies[count++] = System.nanoTime() - intendedStart;
+
+        }
+
+        long wallDuration = System.nanoTime() - wallStart;
+        Arrays.sort(latencies, 0, count);
+
+        return new ReplayReport(count, this.trades - initialTrades, lastTimestamp - firstTimestamp, wallDuration,
+                percentile(latencies, count, 0.5), percentile(latencies, count, 0.99),
+                percentile(latencies, count, 0.999), count == 0 ? 0 : latencies[count - 1]);
+
+    }
+
+    /**
+     * Counts the executed trade and writes it to the trade output, if there is one.
+     *
+     * @param from     the broker that sold the asset.
+     * @param to       the broker that bought the asset.
+     * @param asset    the asset that was traded.
+     * @param quantity the quantity of shares that were traded.
+     * @param price    the price of each share.
+     */
+    @Override
+    public void onNewTransactionRegistered(Broker from, Broker to, Asset asset, int quantity, double price) {
+
+        this.trades++;
+
+        if (this.tradeOutput == null) {
+            return;
+        }
+
+        try {
+            this.tradeOutput.append(Long.toString(this.clock.epochNanos())).append(',')
+                    .append(asset.getSymbol()).append(',')
+                    .append(from.getName()).append(',')
+                    .append(to.getName()).append(',')
+                    .append(Integer.toString(quantity)).append(',')
+                    .append(Double.toString(price)).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    /**
+     * @param name the name of the broker.
+     * @return the broker of the stock market with the given name.
+     * @throws IllegalArgumentException if there is no such broker.
+     */
+    private Broker getBroker(String name) {
+
+        Broker broker = this.brokers.get(name);
+
+        if (broker == null) {
+            throw new IllegalArgumentException("Unknown broker: " + name);
+        }
+
+        return broker;
+
+    }
+
+    /**
+     * @param symbol the symbol of the asset.
+     * @return the asset of the stock market with the given symbol.
+     * @throws IllegalArgumentException if there is no such asset.
+     */
+    private Asset getAsset(String symbol) {
+
+        Asset asset = this.assets.get(symbol);
+
+        if (asset == null) {
+            throw new IllegalArgumentException("Unknown asset: " + symbol);
+        }
+
+        return asset;
+
+    }
+
+    /**
+     * @param sortedValues the values, sorted in ascending order.
+     * @param count        the number of values.
+     * @param percentile   the percentile, between 0 and 1.
+     * @return the value at the given percentile, or 0 if there are no values.
+     */
+    private static long percentile(long[] sortedValues, int count, double percentile) {
+        return count == 0 ? 0 : sortedValues[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+
+}
@@ -0,0 +1,44 @@
+package br.com.azalim.stockmarket.replay;
+
+/**
+ * Represents the result of replaying a recorded order file.
+ * The counts are deterministic; the durations and latencies depend on the machine running the replay.
+ *
+ * @param orders                the number of orders replayed.
+ * @param trades                the number of trades executed.
+ * @param virtualDurationNanos  the time between the first and the last order of the file, in nanoseconds.
+ * @param wallDurationNanos     the time it took to replay the file, in nanoseconds.
+ * @param medianLatencyNanos    the median latency of the orders, in nanoseconds.
+ * @param p99LatencyNanos       the 99th percentile of the latency of the orders, in nanoseconds.
+ * @param p999LatencyNanos      the 99.9th percentile of the latency of the orders, in nanoseconds.
+ * @param maxLatencyNanos       the maximum latency of the orders, in nanoseconds.
+ */
+public record ReplayReport(long orders, long trades, long virtualDurationNanos, long wallDurationNanos,
+                           long medianLatencyNanos, long p99LatencyNanos, long p999LatencyNanos, long maxLatencyNanos) {
+
+    /**
+     * @return the number of orders replayed per second of wall time.
+     */
+    public double getThroughput() {
+        return this.wallDurationNanos == 0 ? 0 : this.orders * 1e9 / this.wallDurationNanos;
+    }
+
+    /**
+     * @return how many times faster than the recorded session the file was replayed.
+     */
+    public double getSpeedup() {
+        return this.wallDurationNanos == 0 ? 0 : (double) this.virtualDurationNanos / this.wallDurationNanos;
+    }
+
+    /**
+     * @return a human-readable summary of the replay.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d orders and %d trades replayed in %.3fs (%.0f orders/s, %.1fx real time). "
+                        + "Latency: p50 %dns, p99 %dns, p99.9 %dns, max %dns.",
+                this.orders, this.trades, this.wallDurationNanos / 1e9, this.getThroughput(), this.getSpeedup(),
+                this.medianLatencyNanos, this.p99LatencyNanos, this.p999LatencyNanos, this.maxLatencyNanos);
+    }
+
+}
@@ -0,0 +1,38 @@
+package br.com.azalim.stockmarket.risk;
+
+/**
+ * Represents the pre-trade limits of a broker.
+ *
+ * @param maxPosition        the maximum quantity of shares of an asset the broker can hold,
+ *                           counting every resting buy offer as if it were executed.
+ * @param maxShortPosition   the maximum quantity of shares of an asset the broker can owe, counting every resting
+ *                           sell offer as if it were executed. Zero means every sell must be covered by the wallet.
+ * @param maxOrderNotional   the maximum value of a single offer, its quantity times its price.
+ * @param maxOrdersPerSecond the maximum number of operations the broker can register each second.
+ */
+public record RiskLimits(long maxPosition, long maxShortPosition, double maxOrderNotional, int maxOrdersPerSecond) {
+
+    /**
+     * Validates the limits.
+     */
+    public RiskLimits {
+
+        if (maxPosition < 0) {
+            throw new IllegalArgumentException("Maximum position cannot be negative: " + maxPosition);
+        }
+
+        if (maxShortPosition < 0) {
+            throw new IllegalArgumentException("Maximum short position cannot be negative: " + maxShortPosition);
+        }
+
+        if (maxOrderNotional <= 0) {
+            throw new IllegalArgumentException("Maximum order notional must be greater than 0: " + maxOrderNotional);
+        }
+
+        if (maxOrdersPerSecond <= 0) {
+            throw new IllegalArgumentException("Maximum orders per second must be greater than 0: " + maxOrdersPerSecond);
+        }
+
+    }
+
+}
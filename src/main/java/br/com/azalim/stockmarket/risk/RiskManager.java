@@ -0,0 +1,357 @@
+package br.com.azalim.stockmarket.risk;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the pre-trade risk stage of the operation books. Every operation is checked against the limits
+ * of its broker by the thread that registers it, before it reaches its book, and rejected right away with a
+ * {@link RiskViolationException} if it would exceed any of them.
+ * <p>
+ * The quantity of the resting offers of each broker is reserved when they are checked and released as they
+ * are executed or canceled, so the position limits hold even if every resting offer is executed. The state
+ * of each broker is a handful of primitive counters guarded by its own lock, so checks of different brokers
+ * never contend and a check costs a couple of map lookups and an uncontended lock.
+ */
+public class RiskManager {
+
+    /**
+     * The length of the window in which the operations of each broker are counted, in nanoseconds.
+     */
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    /**
+     * The limits of the brokers without limits of their own, or null if they are not checked.
+     */
+    private final RiskLimits defaultLimits;
+
+    /**
+     * The risk state of each checked broker.
+     */
+    private final Map<Broker, BrokerRisk> brokerRisks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a risk manager that only checks the brokers given limits of their own.
+     */
+    public RiskManager() {
+        this(null);
+    }
+
+    /**
+     * Creates a risk manager.
+     *
+     * @param defaultLimits the limits of the brokers without limits of their own, or null if they are not checked.
+     */
+    public RiskManager(RiskLimits defaultLimits) {
+        this.defaultLimits = defaultLimits;
+    }
+
+    /**
+     * Sets the limits of a broker. The offers it already reserved are kept.
+     *
+     * @param broker the broker.
+     * @param limits the limits of the broker.
+     */
+    public void setLimits(Broker broker, RiskLimits limits) {
+
+        Objects.requireNonNull(broker);
+        Objects.requireNonNull(limits);
+
+        this.brokerRisks.computeIfAbsent(broker, key -> new BrokerRisk(limits)).limits = limits;
+
+    }
+
+    /**
+     * @param broker the broker.
+     * @return the limits of the broker, or null if it is not checked.
+     */
+    public RiskLimits getLimits(Broker broker) {
+        BrokerRisk brokerRisk = this.brokerRisks.get(broker);
+        return brokerRisk == null ? this.defaultLimits : brokerRisk.limits;
+    }
+
+    /**
+     * Checks an operation against the limits of its broker and counts it in the order rate of the broker.
+     * The quantity of offers is reserved until they are executed or canceled.
+     *
+     * @param operationBook the book the operation is being registered to.
+     * @param operation     the operation to be checked.
+     * @throws RiskViolationException if the operation would exceed any limit of its broker.
+     */
+    public void check(OperationBook operationBook, Operation operation) {
+
+        BrokerRisk brokerRisk = this.getBrokerRisk(operation.getBroker());
+
+        if (brokerRisk == null) {
+            return;
+        }
+
+        long now = operationBook.getClock().epochNanos();
+        double price = operation instanceof OfferOperation offerOperation ? this.getValuationPrice(operationBook, offerOperation) : 0;
+
+        synchronized (brokerRisk) {
+
+            if (now - brokerRisk.windowStart >= RATE_WINDOW_NANOS) {
+                brokerRisk.windowStart = now;
+                brokerRisk.windowOrders = 0;
+            }
+
+            if (brokerRisk.windowOrders >= brokerRisk.limits.maxOrdersPerSecond()) {
+                throw new RiskViolationException(RiskViolation.ORDER_RATE, operation.getBroker() + " exceeded "
+                        + brokerRisk.limits.maxOrdersPerSecond() + " orders per second");
+            }
+
+            if (operation instanceof OfferOperation offerOperation) {
+                this.reserve(offerOperation, price, brokerRisk);
+            }
+
+            brokerRisk.windowOrders++;
+
+        }
+
+    }
+
+    /**
+     * Checks an offer created by the book itself, like the new offer of a replace request, against the position and
+     * notional limits of its broker, reserving its quantity. The offer is not counted in the order rate of the broker.
+     *
+     * @param operationBook the book the offer is being added to.
+     * @param offerOperation the offer to be checked.
+     * @throws RiskViolationException if the offer would exceed any limit of its broker.
+     */
+    public void reserve(OperationBook operationBook, OfferOperation offerOperation) {
+
+        BrokerRisk brokerRisk = this.getBrokerRisk(offerOperation.getBroker());
+
+        if (brokerRisk != null) {
+
+            double price = this.getValuationPrice(operationBook, offerOperation);
+
+            synchronized (brokerRisk) {
+                this.reserve(offerOperation, price, brokerRisk);
+            }
+
+        }
+
+    }
+
+    /**
+     * Releases the reserved quantity of an offer that was canceled.
+     *
+     * @param offerOperation the canceled offer, whose quantity is the quantity that was canceled.
+     */
+    public void release(OfferOperation offerOperation) {
+        this.release(offerOperation, offerOperation.getQuantity());
+    }
+
+    /**
+     * Releases the reserved quantity of an offer that was executed.
+     *
+     * @param offerOperation the executed offer.
+     * @param quantity       the quantity of shares executed.
+     */
+    public void release(OfferOperation offerOperation, int quantity) {
+
+        BrokerRisk brokerRisk = this.brokerRisks.get(offerOperation.getBroker());
+
+        if (brokerRisk == null) {
+            return;
+        }
+
+        synchronized (brokerRisk) {
+
+            Exposure exposure = brokerRisk.exposures.get(offerOperation.getAsset().getParentAsset());
+
+            // Offers registered before the broker was checked were never reserved, so nothing goes below zero
+            if (exposure != null) {
+                if (offerOperation.getType() == OfferOperationType.BUY) {
+                    exposure.openBuys = Math.max(0, exposure.openBuys - quantity);
+                } else {
+                    exposure.openSells = Math.max(0, exposure.openSells - quantity);
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * @param broker the broker.
+     * @param asset  the asset. Fractional assets share the reservations of their common assets.
+     * @param type   the side of the offers.
+     * @return the quantity of shares reserved by the resting offers of the broker on the given side.
+     */
+    public long getReservedQuantity(Broker broker, Asset asset, OfferOperationType type) {
+
+        BrokerRisk brokerRisk = this.brokerRisks.get(broker);
+
+        if (brokerRisk == null) {
+            return 0;
+        }
+
+        synchronized (brokerRisk) {
+            Exposure exposure = brokerRisk.exposures.get(asset.getParentAsset());
+            return exposure == null ? 0 : type == OfferOperationType.BUY ? exposure.openBuys : exposure.openSells;
+        }
+
+    }
+
+    /**
+     * Finds the price an offer is valued at for its notional. Market offers have no price, so they are valued at the
+     * worst price their quantity would reach in the opposite side of the book, whose levels are walked under the book lock.
+     * Must not be called while the risk state of a broker is locked, as trades release reservations under the book lock.
+     *
+     * @param operationBook  the book of the offer.
+     * @param offerOperation the offer to be valued.
+     * @return the price each share of the offer is valued at.
+     * @throws RiskViolationException if the offer is a market offer the opposite side of the book cannot fill.
+     */
+    private double getValuationPrice(OperationBook operationBook, OfferOperation offerOperation) {
+
+        if (offerOperation.getKind() != OfferOperationKind.MARKET) {
+            return offerOperation.getPrice();
+        }
+
+        OfferBook offerBook = operationBook.getOfferBook();
+        long priceTicks;
+
+        synchronized (offerBook) {
+            priceTicks = offerBook.getSweepPriceTicks(offerOperation.getType().getOpposite(), offerOperation.getQuantity());
+        }
+
+        // An empty or thin opposite side gives no bound to the price the offer could be executed at
+        if (priceTicks < 0) {
+            throw new RiskViolationException(RiskViolation.ORDER_NOTIONAL, offerOperation.getBroker() + " sent a market offer of "
+                    + offerOperation.getQuantity() + " shares the book cannot fill, so its notional cannot be bounded");
+        }
+
+        return offerOperation.getAsset().toPrice(priceTicks);
+
+    }
+
+    /**
+     * Checks an offer against the notional and position limits of its broker and reserves its quantity.
+     * Must be called while the risk state of the broker is locked.
+     *
+     * @param offerOperation the offer to be checked.
+     * @param price          the price each share of the offer is valued at.
+     * @param brokerRisk     the risk state of the broker.
+     * @throws RiskViolationException if the offer would exceed any limit of its broker.
+     */
+    private void reserve(OfferOperation offerOperation, double price, BrokerRisk brokerRisk) {
+
+        RiskLimits limits = brokerRisk.limits;
+        int quantity = offerOperation.getQuantity();
+
+        if (quantity * price > limits.maxOrderNotional()) {
+            throw new RiskViolationException(RiskViolation.ORDER_NOTIONAL, offerOperation.getBroker() + " exceeded the order notional of "
+                    + limits.maxOrderNotional() + " with " + quantity + " shares for " + price + " each");
+        }
+
+        Asset asset = offerOperation.getAsset().getParentAsset();
+        Exposure exposure = brokerRisk.exposures.computeIfAbsent(asset, key -> new Exposure());
+        long position = offerOperation.getBroker().getWallet().getQuantity(asset);
+
+        if (offerOperation.getType() == OfferOperationType.BUY) {
+
+            if (position + exposure.openBuys + quantity > limits.maxPosition()) {
+                throw new RiskViolationException(RiskViolation.POSITION, offerOperation.getBroker() + " could hold more than "
+                        + limits.maxPosition() + " shares of " + asset);
+            }
+
+            exposure.openBuys += quantity;
+
+        } else {
+
+            if (position - exposure.openSells - quantity < -limits.maxShortPosition()) {
+                throw new RiskViolationException(RiskViolation.POSITION, offerOperation.getBroker() + " could owe more than "
+                        + limits.maxShortPosition() + " shares of " + asset);
+            }
+
+            exposure.openSells += quantity;
+
+        }
+
+    }
+
+    /**
+     * @param broker the broker.
+     * @return the risk state of the broker, or null if it is not checked.
+     */
+    private BrokerRisk getBrokerRisk(Broker broker) {
+
+        BrokerRisk brokerRisk = this.brokerRisks.get(broker);
+
+        if (brokerRisk == null && this.defaultLimits != null) {
+            brokerRisk = this.brokerRisks.computeIfAbsent(broker, key -> new BrokerRisk(this.defaultLimits));
+        }
+
+        return brokerRisk;
+
+    }
+
+    /**
+     * The risk state of a broker. Guarded by its own lock.
+     */
+    private static class BrokerRisk {
+
+        /**
+         * The limits of the broker.
+         */
+        private volatile RiskLimits limits;
+
+        /**
+         * The reserved quantities of the broker, by common asset.
+         */
+        private final Map<Asset, Exposure> exposures = new HashMap<>();
+
+        /**
+         * The start of the current order rate window, in nanoseconds since the epoch.
+         */
+        private long windowStart;
+
+        /**
+         * The number of operations registered by the broker in the current order rate window.
+         */
+        private int windowOrders;
+
+        /**
+         * Creates the risk state of a broker.
+         *
+         * @param limits the limits of the broker.
+         */
+        private BrokerRisk(RiskLimits limits) {
+            this.limits = limits;
+        }
+
+    }
+
+    /**
+     * The quantities reserved by the resting offers of a broker for an asset.
+     */
+    private static class Exposure {
+
+        /**
+         * The quantity of shares of the resting buy offers.
+         */
+        private long openBuys;
+
+        /**
+         * The quantity of shares of the resting sell offers.
+         */
+        private long openSells;
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package br.com.azalim.stockmarket.risk;
+
+/**
+ * Represents the limit an operation rejected by the risk manager would have exceeded.
+ */
+public enum RiskViolation {
+
+    /**
+     * The broker registered too many operations in the last second.
+     */
+    ORDER_RATE,
+
+    /**
+     * The value of the offer is too high.
+     */
+    ORDER_NOTIONAL,
+
+    /**
+     * The position of the broker could grow or shrink beyond its limits if every resting offer was executed.
+     */
+    POSITION
+
+}
@@ -0,0 +1,33 @@
+package br.com.azalim.stockmarket.risk;
+
+import java.util.Objects;
+
+/**
+ * Thrown when an operation is rejected by the risk manager before reaching its book.
+ */
+public class RiskViolationException extends IllegalStateException {
+
+    /**
+     * The limit the operation would have exceeded.
+     */
+    private final RiskViolation violation;
+
+    /**
+     * Creates the exception.
+     *
+     * @param violation the limit the operation would have exceeded.
+     * @param message   the detail message.
+     */
+    public RiskViolationException(RiskViolation violation, String message) {
+        super(message);
+        this.violation = Objects.requireNonNull(violation);
+    }
+
+    /**
+     * @return the limit the operation would have exceeded.
+     */
+    public RiskViolation getViolation() {
+        return this.violation;
+    }
+
+}
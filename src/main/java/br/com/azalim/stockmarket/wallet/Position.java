@@ -0,0 +1,91 @@
+package br.com.azalim.stockmarket.wallet;
+
+/**
+ * Represents the running position of a wallet in an asset: the net quantity of shares,
+ * their average cost and the profit realized when shares were sold or bought back.
+ * It is updated in constant time on each trade, so reading it never gets slower.
+ */
+public class Position {
+
+    /**
+     * The net quantity of shares. Negative when the broker sold more shares than it bought.
+     */
+    private long quantity;
+
+    /**
+     * The average price paid (or received, for negative positions) for each share of the position.
+     */
+    private double averageCost;
+
+    /**
+     * The profit realized by closing the position, partially or completely.
+     */
+    private double realizedProfit;
+
+    /**
+     * Applies a trade to the position.
+     *
+     * @param quantity the quantity of shares traded. Positive when buying and negative when selling.
+     * @param price    the price of each share.
+     */
+    synchronized void apply(int quantity, double price) {
+
+        if (this.quantity == 0 || Long.signum(this.quantity) == Integer.signum(quantity)) {
+
+            // Increases the position, so the average cost is weighted by the new shares
+            long newQuantity = this.quantity + quantity;
+            this.averageCost = (Math.abs(this.quantity) * this.averageCost + Math.abs((long) quantity) * price) / Math.abs(newQuantity);
+            this.quantity = newQuantity;
+
+        } else {
+
+            // Decreases or reverses the position, so the closed shares realize their profit
+            long closedQuantity = Math.min(Math.abs(this.quantity), Math.abs((long) quantity));
+            this.realizedProfit += closedQuantity * (price - this.averageCost) * Long.signum(this.quantity);
+            this.quantity += quantity;
+
+            if (this.quantity == 0) {
+                this.averageCost = 0;
+            } else if (Long.signum(this.quantity) == Integer.signum(quantity)) {
+                this.averageCost = price;
+            }
+
+        }
+
+    }
+
+    /**
+     * Restores the position to a previously saved state.
+     *
+     * @param quantity       the net quantity of shares.
+     * @param averageCost    the average price of each share of the position.
+     * @param realizedProfit the profit realized by closing the position.
+     */
+    synchronized void restore(long quantity, double averageCost, double realizedProfit) {
+        this.quantity = quantity;
+        this.averageCost = averageCost;
+        this.realizedProfit = realizedProfit;
+    }
+
+    /**
+     * @return the net quantity of shares. Negative when the broker sold more shares than it bought.
+     */
+    public synchronized long getQuantity() {
+        return this.quantity;
+    }
+
+    /**
+     * @return the average price paid (or received, for negative positions) for each share of the position.
+     */
+    public synchronized double getAverageCost() {
+        return this.averageCost;
+    }
+
+    /**
+     * @return the profit realized by closing the position, partially or completely.
+     */
+    public synchronized double getRealizedProfit() {
+        return this.realizedProfit;
+    }
+
+}
@@ -1,12 +1,24 @@
 package br.com.azalim.stockmarket.wallet;
 
-import java.time.Instant;
+import br.com.azalim.stockmarket.clock.SystemClock;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a credit or debit of shares in the broker wallet.
  */
 public class Transaction implements Comparable<Transaction> {
 
+    /**
+     * The last sequence number assigned to a transaction.
+     */
+    private static final AtomicLong LAST_SEQUENCE = new AtomicLong();
+
+    /**
+     * The unique sequence number of the transaction. Transactions created later always have greater sequence numbers.
+     */
+    private final long sequence;
+
     /**
      * The quantity of shares in the transaction.
      */
@@ -18,17 +30,28 @@ public class Transaction implements Comparable<Transaction> {
     private final double price;
 
     /**
-     * The instant of the transaction.
+     * The time of the transaction, in nanoseconds since the epoch.
      */
-    private final Instant instant;
+    private final long timestamp;
 
     /**
-     * Creates a new transaction with the given quantity and price.
+     * Creates a new transaction with the given quantity and price, at the current time of the system.
      *
      * @param quantity the quantity of shares in the transaction.
      * @param price    the price of the shares in the transaction.
      */
     public Transaction(int quantity, double price) {
+        this(quantity, price, SystemClock.INSTANCE.epochNanos());
+    }
+
+    /**
+     * Creates a new transaction with the given quantity, price and time.
+     *
+     * @param quantity  the quantity of shares in the transaction.
+     * @param price     the price of the shares in the transaction.
+     * @param timestamp the time of the transaction, in nanoseconds since the epoch.
+     */
+    public Transaction(int quantity, double price, long timestamp) {
 
         if (quantity == 0) {
             throw new IllegalArgumentException("The quantity must be different than zero");
@@ -38,12 +61,20 @@ public class Transaction implements Comparable<Transaction> {
             throw new IllegalArgumentException("The price must be greater than or equal to zero");
         }
 
+        this.sequence = LAST_SEQUENCE.incrementAndGet();
         this.quantity = quantity;
         this.price = price;
-        this.instant = Instant.now();
+        this.timestamp = timestamp;
 
     }
 
+    /**
+     * @return the unique sequence number of the transaction. Transactions created later always have greater sequence numbers.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
     /**
      * @return the quantity of shares in the transaction.
      */
@@ -66,21 +97,21 @@ public class Transaction implements Comparable<Transaction> {
     }
 
     /**
-     * @return the instant of the transaction.
+     * @return the time of the transaction, in nanoseconds since the epoch.
      */
-    public Instant getInstant() {
-        return this.instant;
+    public long getTimestamp() {
+        return this.timestamp;
     }
 
     /**
-     * Compares this transaction with another transaction based on the instant of the transaction.
+     * Compares this transaction with another transaction based on their sequence numbers.
      *
      * @param other the other transaction to be compared.
-     * @return a negative integer, zero, or a positive integer as this transaction is before, at the same instant, or after the other transaction.
+     * @return a negative integer, zero, or a positive integer as this transaction was created before, is the same as, or was created after the other transaction.
      */
     @Override
     public int compareTo(Transaction other) {
-        return this.getInstant().compareTo(other.getInstant());
+        return Long.compare(this.getSequence(), other.getSequence());
     }
 
 }
@@ -1,21 +1,41 @@
 package br.com.azalim.stockmarket.wallet;
 
 import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.clock.SystemClock;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Represents a wallet, which is a set of transactions for each asset.
+ * Represents a wallet, which is a running position for each asset and, optionally, the history of its transactions.
  */
 public class Wallet {
 
     /**
-     * The transactions of the wallet.
+     * The positions of the wallet.
      */
-    private final Map<Asset, Set<Transaction>> transactions = new HashMap<>();
+    private final Map<Asset, Position> positions = new ConcurrentHashMap<>();
+
+    /**
+     * The transactions of the wallet, or null if the history is not being kept.
+     */
+    private final Map<Asset, List<Transaction>> transactions;
+
+    /**
+     * Creates a wallet that does not keep the history of its transactions.
+     */
+    public Wallet() {
+        this(false);
+    }
+
+    /**
+     * Creates a wallet.
+     *
+     * @param keepHistory indicates if the history of transactions should be kept.
+     */
+    public Wallet(boolean keepHistory) {
+        this.transactions = keepHistory ? new HashMap<>() : null;
+    }
 
     /**
      * Registers a transaction in the wallet.
@@ -23,9 +43,53 @@ public class Wallet {
      * @param asset       the asset that the transaction is related to.
      * @param transaction the transaction to be registered.
      */
-    public synchronized void registerTransaction(Asset asset, Transaction transaction) {
+    public void registerTransaction(Asset asset, Transaction transaction) {
+
         asset = asset.getParentAsset(); // Make sure fractional assets are stored in the same place as their common assets
-        this.transactions.computeIfAbsent(asset, key -> new TreeSet<>()).add(transaction);
+
+        this.getOrCreatePosition(asset).apply(transaction.getQuantity(), transaction.getPrice());
+
+        if (this.transactions != null) {
+            synchronized (this.transactions) {
+                this.transactions.computeIfAbsent(asset, key -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+    }
+
+    /**
+     * Registers a transaction in the wallet, at the current time of the system.
+     * No transaction object is created unless the history is being kept.
+     *
+     * @param asset    the asset that the transaction is related to.
+     * @param quantity the quantity of shares in the transaction. Positive for credits and negative for debits.
+     * @param price    the price of each share in the transaction.
+     */
+    public void registerTransaction(Asset asset, int quantity, double price) {
+        this.registerTransaction(asset, quantity, price, this.transactions == null ? 0 : SystemClock.INSTANCE.epochNanos());
+    }
+
+    /**
+     * Registers a transaction in the wallet. No transaction object is created unless the history is being kept.
+     *
+     * @param asset     the asset that the transaction is related to.
+     * @param quantity  the quantity of shares in the transaction. Positive for credits and negative for debits.
+     * @param price     the price of each share in the transaction.
+     * @param timestamp the time of the transaction, in nanoseconds since the epoch.
+     */
+    public void registerTransaction(Asset asset, int quantity, double price, long timestamp) {
+
+        if (this.transactions != null) {
+            this.registerTransaction(asset, new Transaction(quantity, price, timestamp));
+            return;
+        }
+
+        if (quantity == 0) {
+            throw new IllegalArgumentException("The quantity must be different than zero");
+        }
+
+        this.getOrCreatePosition(asset.getParentAsset()).apply(quantity, price);
+
     }
 
     /**
@@ -34,12 +98,66 @@ public class Wallet {
      * @param asset the asset that the transaction is related to.
      * @return the quantity of shares of the wallet for the given asset.
      */
-    public synchronized int getQuantity(Asset asset) {
-        asset = asset.getParentAsset(); // Make sure to get the quantity of the common asset
-        return this.transactions.get(asset).stream()
-                .sorted()
-                .mapToInt(Transaction::getQuantity)
-                .sum();
+    public long getQuantity(Asset asset) {
+        Position position = this.getPosition(asset);
+        return position == null ? 0 : position.getQuantity();
+    }
+
+    /**
+     * Retrieves the position of the wallet for the given asset.
+     *
+     * @param asset the asset of the position. Fractional assets share the position of their common assets.
+     * @return the position of the wallet for the given asset, or null if there was no transaction for it.
+     */
+    public Position getPosition(Asset asset) {
+        return this.positions.get(asset.getParentAsset()); // Make sure to get the position of the common asset
+    }
+
+    /**
+     * Restores the position of the wallet for the given asset to a previously saved state, like a snapshot.
+     * The history of transactions is not changed.
+     *
+     * @param asset          the asset of the position. Fractional assets share the position of their common assets.
+     * @param quantity       the net quantity of shares.
+     * @param averageCost    the average price of each share of the position.
+     * @param realizedProfit the profit realized by closing the position.
+     */
+    public void restorePosition(Asset asset, long quantity, double averageCost, double realizedProfit) {
+        this.getOrCreatePosition(asset.getParentAsset()).restore(quantity, averageCost, realizedProfit);
+    }
+
+    /**
+     * @return true if the history of transactions is being kept, false otherwise.
+     */
+    public boolean isKeepingHistory() {
+        return this.transactions != null;
+    }
+
+    /**
+     * Retrieves the history of transactions of the wallet for the given asset.
+     *
+     * @param asset the asset that the transactions are related to.
+     * @return a copy of the transactions of the given asset, in creation order. Always empty if the history is not being kept.
+     */
+    public List<Transaction> getTransactions(Asset asset) {
+
+        if (this.transactions == null) {
+            return List.of();
+        }
+
+        synchronized (this.transactions) {
+            return List.copyOf(this.transactions.getOrDefault(asset.getParentAsset(), List.of()));
+        }
+
+    }
+
+    /**
+     * @param asset the parent asset of the position.
+     * @return the position of the given asset, created if needed.
+     */
+    private Position getOrCreatePosition(Asset asset) {
+        Position position = this.positions.get(asset);
+        return position != null ? position : this.positions.computeIfAbsent(asset, key -> new Position());
     }
 
 }
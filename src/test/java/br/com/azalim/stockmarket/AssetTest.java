@@ -10,6 +10,7 @@ import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -41,4 +42,33 @@ public class AssetTest {
 
     }
 
+    @Test
+    public void testTicks() {
+
+        Company company = mock(Company.class);
+
+        when(company.getSymbol()).thenReturn("FAKE");
+
+        Asset commonAsset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+
+        assertEquals(Asset.DEFAULT_TICK_SIZE, commonAsset.getTickSize(), "Should use the default tick size");
+        assertEquals(5007, commonAsset.toTicks(50.07), "Should convert a price to ticks");
+        assertEquals(50.07, commonAsset.toPrice(5007), "Should convert ticks back to the exact same price");
+        assertThrows(IllegalArgumentException.class, () -> commonAsset.toTicks(50.075), "Should not accept a price between ticks");
+
+        for (long ticks = 1; ticks <= 100_000; ticks++) {
+            assertEquals(ticks, commonAsset.toTicks(commonAsset.toPrice(ticks)), "Should round trip every price");
+        }
+
+        Asset nickelAsset = new Asset(company, AssetType.PREFERRED, MarketType.COMMON, 0.05);
+        Asset fractionalAsset = new Asset(nickelAsset, MarketType.FRACTIONAL);
+
+        assertEquals(0.05, fractionalAsset.getTickSize(), "Should share the tick size of the parent asset");
+        assertEquals(201, nickelAsset.toTicks(10.05), "Should convert a price to ticks of the asset");
+        assertThrows(IllegalArgumentException.class, () -> nickelAsset.toTicks(10.01), "Should not accept a price between ticks of the asset");
+        assertThrows(IllegalArgumentException.class, () -> new Asset(company, AssetType.UNITS, MarketType.COMMON, 0.3), "Should not accept a tick size that does not divide a unit");
+        assertThrows(IllegalArgumentException.class, () -> new Asset(company, AssetType.UNITS, MarketType.COMMON, 0), "Should not accept a non-positive tick size");
+
+    }
+
 }
@@ -0,0 +1,130 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.observer.dispatch.AsyncTransactionObserver;
+import br.com.azalim.stockmarket.observer.dispatch.BackpressurePolicy;
+import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class AsyncTransactionObserverTest {
+
+    private static final Broker broker = mock(Broker.class), anotherBroker = mock(Broker.class);
+    private static final Asset asset = mock(Asset.class);
+
+    @Test
+    public void testAsynchronousDelivery() throws InterruptedException {
+
+        AtomicInteger deliveredQuantity = new AtomicInteger();
+        AsyncTransactionObserver asyncTransactionObserver = new AsyncTransactionObserver(
+                (from, to, asset, quantity, price) -> deliveredQuantity.addAndGet(quantity), BackpressurePolicy.BLOCK, 4
+        );
+
+        for (int index = 0; index < 100; index++) {
+            asyncTransactionObserver.onNewTransactionRegistered(broker, anotherBroker, asset, 1, 1);
+        }
+
+        asyncTransactionObserver.close();
+
+        assertTrue(asyncTransactionObserver.awaitTermination(5, TimeUnit.SECONDS), "Should finish after delivering every event");
+        assertEquals(100, deliveredQuantity.get(), "Should deliver every event when blocking");
+
+    }
+
+    @Test
+    public void testDropAndCoalescePolicies() throws InterruptedException {
+
+        for (BackpressurePolicy backpressurePolicy : new BackpressurePolicy[]{BackpressurePolicy.DROP, BackpressurePolicy.COALESCE}) {
+
+            CountDownLatch releaseLatch = new CountDownLatch(1);
+            AtomicInteger deliveredQuantity = new AtomicInteger();
+
+            TransactionObserver slowTransactionObserver = (from, to, asset, quantity, price) -> {
+                try {
+                    releaseLatch.await();
+                } catch (InterruptedException ignored) {
+                }
+                deliveredQuantity.addAndGet(quantity);
+            };
+
+            AsyncTransactionObserver asyncTransactionObserver = new AsyncTransactionObserver(slowTransactionObserver, backpressurePolicy, 1);
+
+            for (int index = 0; index < 100; index++) {
+                asyncTransactionObserver.onNewTransactionRegistered(broker, anotherBroker, asset, 1, 1);
+            }
+
+            releaseLatch.countDown();
+            asyncTransactionObserver.close();
+
+            assertTrue(asyncTransactionObserver.awaitTermination(5, TimeUnit.SECONDS), "Should finish after delivering every event");
+
+            if (backpressurePolicy == BackpressurePolicy.DROP) {
+                assertTrue(asyncTransactionObserver.getDroppedEvents() > 0, "Should drop events when the queue is full");
+                assertEquals(100, deliveredQuantity.get() + asyncTransactionObserver.getDroppedEvents(), "Should deliver every event that was not dropped");
+            } else {
+                assertTrue(asyncTransactionObserver.getMergedEvents() > 0, "Should merge events when the queue is full");
+                assertEquals(100, deliveredQuantity.get(), "Should preserve the traded quantities when coalescing");
+            }
+
+        }
+
+    }
+
+    @Test
+    public void testFailingObserver() throws InterruptedException {
+
+        AtomicInteger deliveredQuantity = new AtomicInteger();
+        AsyncTransactionObserver asyncTransactionObserver = new AsyncTransactionObserver((from, to, asset, quantity, price) -> {
+            if (deliveredQuantity.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("Failing observer");
+            }
+        }, BackpressurePolicy.BLOCK, 1);
+
+        for (int index = 0; index < 10; index++) {
+            asyncTransactionObserver.onNewTransactionRegistered(broker, anotherBroker, asset, 1, 1);
+        }
+
+        asyncTransactionObserver.close();
+
+        assertTrue(asyncTransactionObserver.awaitTermination(5, TimeUnit.SECONDS), "Should finish after delivering every event");
+        assertEquals(10, deliveredQuantity.get(), "Should keep delivering after the observer fails");
+        assertEquals(5, asyncTransactionObserver.getFailedEvents(), "Should count the failed deliveries");
+
+    }
+
+    @Test
+    public void testCoalescingLargeQuantities() throws InterruptedException {
+
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        AtomicLong deliveredQuantity = new AtomicLong();
+
+        AsyncTransactionObserver asyncTransactionObserver = new AsyncTransactionObserver((from, to, asset, quantity, price) -> {
+            try {
+                releaseLatch.await();
+            } catch (InterruptedException ignored) {
+            }
+            assertTrue(quantity > 0, "Should never deliver an overflown quantity");
+            deliveredQuantity.addAndGet(quantity);
+        }, BackpressurePolicy.COALESCE, 1);
+
+        for (int index = 0; index < 5; index++) {
+            asyncTransactionObserver.onNewTransactionRegistered(broker, anotherBroker, asset, Integer.MAX_VALUE, 1);
+        }
+
+        releaseLatch.countDown();
+        asyncTransactionObserver.close();
+
+        assertTrue(asyncTransactionObserver.awaitTermination(5, TimeUnit.SECONDS), "Should finish after delivering every event");
+        assertEquals(5L * Integer.MAX_VALUE, deliveredQuantity.get(), "Should preserve quantities larger than an int when coalescing");
+
+    }
+
+}
@@ -0,0 +1,193 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.marketdata.Quote;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.OperationIndex;
+import br.com.azalim.stockmarket.operation.cancel.CancelOperation;
+import br.com.azalim.stockmarket.operation.cancel.ReplaceOperation;
+import br.com.azalim.stockmarket.operation.offer.*;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CancelOperationTest {
+
+    private Asset asset;
+
+    private Broker seller, buyer;
+
+    private OperationBook operationBook;
+
+    @BeforeEach
+    public void setUp() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("CNCL");
+
+        this.asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        this.seller = mock(Broker.class);
+        this.buyer = mock(Broker.class);
+
+        when(this.seller.getWallet()).thenReturn(new Wallet());
+        when(this.buyer.getWallet()).thenReturn(new Wallet(true));
+
+        this.operationBook = new OperationBook();
+        this.operationBook.startContinuousProcessing(mock(StockMarket.class));
+
+    }
+
+    @Test
+    public void testCancel() {
+
+        OfferOperation olderOfferOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10);
+        OfferOperation canceledOfferOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 200, 10);
+        OfferOperation newerOfferOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 300, 10);
+
+        this.operationBook.register(olderOfferOperation);
+        this.operationBook.register(canceledOfferOperation);
+        this.operationBook.register(newerOfferOperation);
+
+        CancelOperation cancelOperation = new CancelOperation(this.seller, this.asset, canceledOfferOperation.getSequence());
+        this.operationBook.register(cancelOperation);
+
+        assertTrue(cancelOperation.isCanceled(), "Should cancel a resting offer of the broker");
+        assertSame(canceledOfferOperation, cancelOperation.getCanceledOfferOperation(), "Should cancel the offer with the given sequence number");
+        assertEquals(OfferOperationStatus.CANCELED, canceledOfferOperation.getStatus(), "Should mark the offer as canceled");
+        assertEquals(200, canceledOfferOperation.getQuantity(), "Should keep the canceled quantity");
+        assertFalse(canceledOfferOperation.isInBook(), "Should unlink the offer from its price level");
+        assertNull(this.operationBook.getRestingOffer(canceledOfferOperation.getSequence()), "Should remove the offer from the index");
+        assertFalse(this.operationBook.getOperations().contains(canceledOfferOperation), "Should retire the canceled offer");
+        assertFalse(this.operationBook.getOperations().contains(cancelOperation), "Should retire the processed request");
+
+        PriceLevel priceLevel = this.operationBook.getOfferBook().getBestLevel(OfferOperationType.SELL);
+        List<OfferOperation> restingOfferOperations = new ArrayList<>();
+        priceLevel.forEach(restingOfferOperations::add);
+
+        assertEquals(List.of(olderOfferOperation, newerOfferOperation), restingOfferOperations, "Should keep the time priority of the other offers");
+        assertEquals(2, priceLevel.size(), "Should unlink the offer right away");
+        assertEquals(400, priceLevel.getQuantity(), "Should discount the canceled quantity from the level");
+        assertEquals(new Quote(-1, 0, 10, 400), this.operationBook.getTopOfBook().getQuote(), "Should refresh the top of book");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 400, 10));
+        assertEquals(0, newerOfferOperation.getQuantity(), "Should never match a canceled offer");
+
+    }
+
+    @Test
+    public void testRejectedCancel() {
+
+        OfferOperation offerOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10);
+        this.operationBook.register(offerOperation);
+
+        CancelOperation otherBrokerCancelOperation = new CancelOperation(this.buyer, this.asset, offerOperation.getSequence());
+        this.operationBook.register(otherBrokerCancelOperation);
+
+        assertFalse(otherBrokerCancelOperation.isCanceled(), "Should not cancel an offer of another broker");
+        assertTrue(otherBrokerCancelOperation.isCompleted(), "Should complete a rejected request");
+        assertEquals(OfferOperationStatus.OPEN, offerOperation.getStatus(), "Should keep the offer open");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 10));
+
+        CancelOperation lateCancelOperation = new CancelOperation(this.seller, this.asset, offerOperation.getSequence());
+        this.operationBook.register(lateCancelOperation);
+
+        assertFalse(lateCancelOperation.isCanceled(), "Should not cancel an executed offer");
+        assertEquals(OfferOperationStatus.EXECUTED, offerOperation.getStatus(), "Should keep the offer executed");
+        assertThrows(IllegalStateException.class, offerOperation::cancel, "Should not cancel an executed offer");
+
+    }
+
+    @Test
+    public void testReplace() {
+
+        OfferOperation offerOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12);
+        this.operationBook.register(offerOperation);
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 200, 10));
+
+        ReplaceOperation replaceOperation = new ReplaceOperation(this.seller, this.asset, offerOperation.getSequence(), 300, 10);
+        this.operationBook.register(replaceOperation);
+
+        OfferOperation replacementOfferOperation = replaceOperation.getReplacementOfferOperation();
+
+        assertEquals(OfferOperationStatus.CANCELED, offerOperation.getStatus(), "Should cancel the old offer");
+        assertNotNull(replacementOfferOperation, "Should register a new offer");
+        assertEquals(OfferOperationType.SELL, replacementOfferOperation.getType(), "Should keep the side of the old offer");
+        assertTrue(replacementOfferOperation.getSequence() > offerOperation.getSequence(), "Should give the new offer a new sequence number");
+        assertEquals(100, replacementOfferOperation.getQuantity(), "Should match the new offer like any other");
+        assertEquals(new Quote(-1, 0, 10, 100), this.operationBook.getTopOfBook().getQuote(), "Should rest the remaining quantity of the new offer");
+
+        ReplaceOperation rejectedReplaceOperation = new ReplaceOperation(this.seller, this.asset, offerOperation.getSequence(), 100, 11);
+        this.operationBook.register(rejectedReplaceOperation);
+
+        assertNull(rejectedReplaceOperation.getReplacementOfferOperation(), "Should not replace an offer that was not canceled");
+        assertThrows(IllegalArgumentException.class, () -> new ReplaceOperation(this.seller, this.asset, 1, 0, 10), "Should not accept a non-positive quantity");
+
+    }
+
+    @Test
+    public void testOffTickReplace() {
+
+        OfferOperation offerOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 10);
+        this.operationBook.register(offerOperation);
+
+        assertThrows(IllegalArgumentException.class, () -> new ReplaceOperation(this.buyer, this.asset, offerOperation.getSequence(), 100, 10.005), "Should not accept a price between ticks");
+        assertThrows(IllegalArgumentException.class, () -> new ReplaceOperation(this.buyer, this.asset, offerOperation.getSequence(), 100, Double.NaN), "Should not accept a NaN price");
+
+        assertEquals(OfferOperationStatus.OPEN, offerOperation.getStatus(), "Should keep the old offer open");
+        assertSame(offerOperation, this.operationBook.getRestingOffer(offerOperation.getSequence()), "Should keep the old offer resting");
+
+        ReplaceOperation replaceOperation = new ReplaceOperation(this.buyer, this.asset, offerOperation.getSequence(), 100, 10.01);
+        this.operationBook.register(replaceOperation);
+
+        assertEquals(1001, replaceOperation.getPriceTicks(), "Should keep the new price as ticks of the asset");
+        assertEquals(10.01, replaceOperation.getReplacementOfferOperation().getPrice(), "Should replace the offer at the new price");
+        assertFalse(this.operationBook.getOperations().contains(replaceOperation), "Should retire the processed request");
+
+    }
+
+    @Test
+    public void testOfferIndex() {
+
+        Map<Long, OfferOperation> expected = new HashMap<>();
+        OperationIndex<OfferOperation> offerIndex = new OperationIndex<>(4);
+        Random random = new Random(42);
+
+        List<OfferOperation> offerOperations = new ArrayList<>();
+
+        for (int index = 0; index < 1000; index++) {
+            offerOperations.add(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        }
+
+        for (int step = 0; step < 20_000; step++) {
+
+            OfferOperation offerOperation = offerOperations.get(random.nextInt(offerOperations.size()));
+
+            if (random.nextBoolean()) {
+                offerIndex.put(offerOperation);
+                expected.put(offerOperation.getSequence(), offerOperation);
+            } else {
+                assertSame(expected.remove(offerOperation.getSequence()), offerIndex.remove(offerOperation.getSequence()), "Should remove the indexed offer");
+            }
+
+        }
+
+        assertEquals(expected.size(), offerIndex.size(), "Should count the indexed offers");
+
+        for (OfferOperation offerOperation : offerOperations) {
+            assertSame(expected.get(offerOperation.getSequence()), offerIndex.get(offerOperation.getSequence()), "Should find every indexed offer");
+        }
+
+    }
+
+}
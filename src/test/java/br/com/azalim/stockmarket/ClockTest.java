@@ -0,0 +1,100 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.CachedClock;
+import br.com.azalim.stockmarket.clock.VirtualClock;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClockTest {
+
+    @Test
+    public void testVirtualClock() {
+
+        VirtualClock virtualClock = new VirtualClock(100);
+
+        virtualClock.advanceTo(200);
+        assertEquals(200, virtualClock.epochNanos(), "Should move forward to the given time");
+
+        virtualClock.advanceTo(150);
+        assertEquals(200, virtualClock.epochNanos(), "Should never move backwards");
+
+        virtualClock.advance(50);
+        assertEquals(250, virtualClock.epochNanos(), "Should move forward by the given duration");
+
+        assertThrows(IllegalArgumentException.class, () -> virtualClock.advance(-1), "Should not move backwards");
+
+    }
+
+    @Test
+    public void testCachedClock() throws InterruptedException {
+
+        VirtualClock virtualClock = new VirtualClock(100);
+
+        assertThrows(IllegalArgumentException.class, () -> new CachedClock(virtualClock, 0), "Should not accept a non-positive resolution");
+
+        try (CachedClock cachedClock = new CachedClock(virtualClock, TimeUnit.MILLISECONDS.toNanos(1))) {
+
+            assertEquals(100, cachedClock.epochNanos(), "Should start with the time of the source");
+
+            virtualClock.advanceTo(1000);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+            while (cachedClock.epochNanos() != 1000 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(1000, cachedClock.epochNanos(), "Should refresh the time of the source");
+
+        }
+
+    }
+
+    @Test
+    public void testTimestamps() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("CLCK");
+
+        Asset asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        Broker seller = mock(Broker.class), buyer = mock(Broker.class);
+        Wallet buyerWallet = new Wallet(true);
+
+        when(seller.getWallet()).thenReturn(new Wallet());
+        when(buyer.getWallet()).thenReturn(buyerWallet);
+
+        VirtualClock virtualClock = new VirtualClock(1000);
+        OperationBook operationBook = new OperationBook(virtualClock);
+        OfferOperation sellOfferOperation = new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 10);
+        OfferOperation buyOfferOperation = new OfferOperation(buyer, asset, OfferOperationType.BUY, 100, 10);
+
+        assertEquals(0, sellOfferOperation.getTimestamp(), "Should not timestamp operations before they are registered");
+
+        operationBook.register(sellOfferOperation);
+        virtualClock.advance(500);
+        operationBook.register(buyOfferOperation);
+        virtualClock.advance(500);
+        buyOfferOperation.process(mock(StockMarket.class), operationBook);
+
+        assertEquals(1000, sellOfferOperation.getTimestamp(), "Should timestamp operations with the clock of the book");
+        assertEquals(1500, buyOfferOperation.getTimestamp(), "Should timestamp operations with the clock of the book");
+        assertEquals(2000, buyerWallet.getTransactions(asset).get(0).getTimestamp(), "Should timestamp trades with the clock of the book");
+        assertEquals(-1, operationBook.getTradeTape().getPriceBefore(2000), "Should record trades in the tape with the clock of the book");
+        assertEquals(10, operationBook.getTradeTape().getPriceBefore(2001), "Should record trades in the tape with the clock of the book");
+
+    }
+
+}
@@ -0,0 +1,207 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.cancel.CancelOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.persistence.Journal;
+import br.com.azalim.stockmarket.persistence.JournalReplayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    private static final Company company = new Company() {
+        @Override
+        public String getSymbol() {
+            return "JRNL";
+        }
+
+        @Override
+        public String getName() {
+            return "Journal Company S.A.";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Journal company description";
+        }
+
+        @Override
+        public Set<AssetType> getAssetTypes() {
+            return Set.of(AssetType.COMMON);
+        }
+    };
+
+    private static final Asset asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplay() throws IOException {
+
+        Path path = this.directory.resolve("stockmarket.journal");
+
+        Broker seller = StockMarketTest.createBroker("Seller"), buyer = StockMarketTest.createBroker("Buyer");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(seller, buyer));
+
+        try (Journal journal = new Journal(path)) {
+
+            stockMarket.setJournal(journal);
+            stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+            OperationBook operationBook = stockMarket.getOperationBook(asset);
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 300, 10));
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 11));
+            operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, 200, 12));
+
+            journal.flush();
+            assertEquals(Files.size(path), journal.getPosition(), "Should force every appended record to the file");
+
+            stockMarket.stopProcessingOperations();
+
+        }
+
+        Broker recoveredSeller = StockMarketTest.createBroker("Seller"), recoveredBuyer = StockMarketTest.createBroker("Buyer");
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(recoveredSeller, recoveredBuyer));
+
+        assertEquals(4, new JournalReplayer(recoveredStockMarket).replay(path), "Should replay three offers and one trade");
+
+        OperationBook recoveredOperationBook = recoveredStockMarket.getOperationBook(asset);
+        List<OfferOperation> restingOfferOperations = List.copyOf(recoveredOperationBook.getOperations(OfferOperation.class));
+
+        assertEquals(2, restingOfferOperations.size(), "Should rebuild the resting offers");
+        assertEquals(100, restingOfferOperations.get(0).getQuantity(), "Should rebuild the partially executed offer");
+        assertEquals(10, restingOfferOperations.get(0).getPrice(), "Should rebuild the partially executed offer");
+        assertEquals(11, restingOfferOperations.get(1).getPrice(), "Should rebuild the untouched offer in time priority");
+        assertEquals(1, recoveredOperationBook.getArchive().size(), "Should retire the executed offer");
+        assertEquals(10, recoveredOperationBook.getTradeTape().getLastPrice(), "Should rebuild the trade tape");
+        assertEquals(-200, recoveredSeller.getWallet().getQuantity(asset), "Should rebuild the seller wallet");
+        assertEquals(200, recoveredBuyer.getWallet().getQuantity(asset), "Should rebuild the buyer wallet");
+
+        OfferOperation newOfferOperation = new OfferOperation(recoveredBuyer, asset, OfferOperationType.BUY, 100, 1);
+        assertTrue(newOfferOperation.getSequence() > restingOfferOperations.get(1).getSequence(), "Should keep sequence numbers unique after replaying");
+
+        assertThrows(IllegalStateException.class, () -> new JournalReplayer(stockMarket).replay(path), "Should not replay to a journaled stock market");
+
+    }
+
+    @Test
+    public void testReplayIncompleteRecord() throws IOException {
+
+        Path path = this.directory.resolve("stockmarket.journal");
+
+        Broker broker = StockMarketTest.createBroker("Broker");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(broker));
+
+        try (Journal journal = new Journal(path)) {
+            stockMarket.setJournal(journal);
+            stockMarket.getOperationBook(asset).register(new OfferOperation(broker, asset, OfferOperationType.BUY, 100, 10));
+        }
+
+        long size = Files.size(path);
+        Files.write(path, new byte[]{1, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(StockMarketTest.createBroker("Broker")));
+
+        assertEquals(1, new JournalReplayer(recoveredStockMarket).replay(path), "Should replay only the complete records");
+        assertEquals(size, Files.size(path), "Should cut the incomplete record from the journal");
+        assertEquals(0, new JournalReplayer(recoveredStockMarket).replay(this.directory.resolve("missing.journal")), "Should not replay a missing journal");
+
+        Path oldPath = this.directory.resolve("old.journal");
+        Files.write(oldPath, new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 1});
+
+        assertThrows(IllegalStateException.class, () -> new JournalReplayer(recoveredStockMarket).replay(oldPath), "Should reject a journal without a header");
+        assertThrows(IllegalStateException.class, () -> new Journal(oldPath), "Should not append to a journal without a header");
+
+    }
+
+    @Test
+    public void testReplayCancel() throws IOException {
+
+        Path path = this.directory.resolve("stockmarket.journal");
+
+        Broker broker = StockMarketTest.createBroker("Broker");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(broker));
+
+        OfferOperation canceledOfferOperation = new OfferOperation(broker, asset, OfferOperationType.BUY, 100, 10);
+
+        try (Journal journal = new Journal(path)) {
+
+            stockMarket.setJournal(journal);
+            stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+            OperationBook operationBook = stockMarket.getOperationBook(asset);
+            operationBook.register(canceledOfferOperation);
+            operationBook.register(new OfferOperation(broker, asset, OfferOperationType.BUY, 200, 9));
+            operationBook.register(new CancelOperation(broker, asset, canceledOfferOperation.getSequence()));
+
+            stockMarket.stopProcessingOperations();
+
+        }
+
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(StockMarketTest.createBroker("Broker")));
+
+        assertEquals(3, new JournalReplayer(recoveredStockMarket).replay(path), "Should replay two offers and one cancellation");
+
+        OperationBook recoveredOperationBook = recoveredStockMarket.getOperationBook(asset);
+        List<OfferOperation> restingOfferOperations = List.copyOf(recoveredOperationBook.getOperations(OfferOperation.class));
+
+        assertEquals(1, restingOfferOperations.size(), "Should not rebuild the canceled offer");
+        assertEquals(9, restingOfferOperations.get(0).getPrice(), "Should rebuild the other offer");
+        assertNull(recoveredOperationBook.getRestingOffer(canceledOfferOperation.getSequence()), "Should not index the canceled offer");
+
+    }
+
+    @Test
+    public void testReplayImmediate() throws IOException {
+
+        Path path = this.directory.resolve("stockmarket.journal");
+
+        Broker seller = StockMarketTest.createBroker("Seller"), buyer = StockMarketTest.createBroker("Buyer");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(seller, buyer));
+
+        try (Journal journal = new Journal(path)) {
+
+            stockMarket.setJournal(journal);
+            stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+            OperationBook operationBook = stockMarket.getOperationBook(asset);
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 10));
+            operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, OfferOperationKind.IMMEDIATE_OR_CANCEL, 300, 10));
+            operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, OfferOperationKind.FILL_OR_KILL, 100, 10));
+
+            stockMarket.stopProcessingOperations();
+
+        }
+
+        Broker recoveredBuyer = StockMarketTest.createBroker("Buyer");
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(StockMarketTest.createBroker("Seller"), recoveredBuyer));
+
+        assertEquals(6, new JournalReplayer(recoveredStockMarket).replay(path), "Should replay three offers, one trade and two cancellations");
+
+        OperationBook recoveredOperationBook = recoveredStockMarket.getOperationBook(asset);
+
+        assertTrue(recoveredOperationBook.getOperations().isEmpty(), "Should not rebuild the canceled remainders");
+        assertEquals(3, recoveredOperationBook.getArchive().size(), "Should retire every offer");
+        assertEquals(100, recoveredBuyer.getWallet().getQuantity(asset), "Should rebuild the buyer wallet");
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.load.ArrivalProcess;
+import br.com.azalim.stockmarket.load.LoadGenerator;
+import br.com.azalim.stockmarket.load.LoadProfile;
+import br.com.azalim.stockmarket.load.LoadReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    private static final Company company = new Company() {
+        @Override
+        public String getSymbol() {
+            return "LOAD";
+        }
+
+        @Override
+        public String getName() {
+            return "Load Company S.A.";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Load company description";
+        }
+
+        @Override
+        public Set<AssetType> getAssetTypes() {
+            return Set.of(AssetType.COMMON);
+        }
+    };
+
+    @Test
+    public void testArrivalProcess() {
+
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (ArrivalProcess arrivalProcess : ArrivalProcess.values()) {
+
+            long total = 0;
+
+            for (int index = 0; index < 320_000; index++) {
+                total += arrivalProcess.nextInterval(index, 1000, random);
+            }
+
+            assertEquals(1000, total / 320_000D, 30, "Should keep the mean interval of " + arrivalProcess);
+
+        }
+
+        assertEquals(0, ArrivalProcess.BURSTY.nextInterval(1, 1000, random), "Should send the orders of a burst back to back");
+
+    }
+
+    @Test
+    public void testRun() throws InterruptedException {
+
+        List<Broker> brokers = LoadGenerator.createBrokers(100);
+        StockMarket stockMarket = new StockMarket(Set.of(company), brokers);
+
+        LoadGenerator loadGenerator = new LoadGenerator(stockMarket, brokers, 42);
+        LoadProfile profile = new LoadProfile(10_000, ArrivalProcess.CONSTANT, 100_000_000, 200_000_000, 2);
+
+        assertThrows(IllegalStateException.class, () -> loadGenerator.run(profile), "Should require the stock market to be processing operations");
+
+        stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+        try {
+
+            LoadReport report = loadGenerator.run(profile);
+
+            assertEquals(2000, report.orders(), 2, "Should send only the orders after the warm-up, at the offered rate");
+            assertEquals(report.orders(), report.latency().getCount(), "Should measure every order sent after the warm-up");
+            assertTrue(report.durationNanos() >= 199_000_000, "Should measure until the last acknowledgement");
+            assertTrue(report.latency().getMax() >= report.serviceTime().getMax(), "Should measure the latency from the intended send time");
+            assertTrue(stockMarket.getOperationBooks().values().stream().anyMatch(operationBook -> operationBook.getTradeTape().getLastPrice() > 0), "Should send crossing orders");
+
+        } finally {
+            stockMarket.stopProcessingOperations();
+        }
+
+    }
+
+}
@@ -0,0 +1,228 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.marketdata.LocalOrderBook;
+import br.com.azalim.stockmarket.marketdata.MarketDataSnapshot;
+import br.com.azalim.stockmarket.marketdata.PriceLevelAction;
+import br.com.azalim.stockmarket.marketdata.Quote;
+import br.com.azalim.stockmarket.marketdata.TopOfBook;
+import br.com.azalim.stockmarket.observer.impl.MarketDataObserver;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MarketDataTest {
+
+    private Asset asset;
+
+    private Broker seller, buyer;
+
+    private OperationBook operationBook;
+
+    @BeforeEach
+    public void setUp() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("MKDT");
+
+        this.asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        this.seller = mock(Broker.class);
+        this.buyer = mock(Broker.class);
+
+        when(this.seller.getWallet()).thenReturn(new Wallet());
+        when(this.buyer.getWallet()).thenReturn(new Wallet(true));
+
+        this.operationBook = new OperationBook();
+        this.operationBook.startContinuousProcessing(mock(StockMarket.class));
+
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+
+        MarketDataObserver marketDataObserver = mock(MarketDataObserver.class);
+        this.operationBook.getMarketDataFeed().observe(marketDataObserver);
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 200, 10));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 300, 10));
+
+        verify(marketDataObserver).onPriceLevelUpdated(this.asset, 1, OfferOperationType.SELL, PriceLevelAction.ADD, 10, 100);
+        verify(marketDataObserver).onPriceLevelUpdated(this.asset, 2, OfferOperationType.SELL, PriceLevelAction.MODIFY, 10, 300);
+
+        // The incoming offer is matched before it could rest, so only the resting level changes before each trade
+        verify(marketDataObserver).onPriceLevelUpdated(this.asset, 3, OfferOperationType.SELL, PriceLevelAction.MODIFY, 10, 200);
+        verify(marketDataObserver).onTradeExecuted(eq(this.asset), eq(4L), eq(10.0), eq(100), anyLong());
+        verify(marketDataObserver).onPriceLevelUpdated(this.asset, 5, OfferOperationType.SELL, PriceLevelAction.DELETE, 10, 0);
+        verify(marketDataObserver).onTradeExecuted(eq(this.asset), eq(6L), eq(10.0), eq(200), anyLong());
+
+        verifyNoMoreInteractions(marketDataObserver);
+
+    }
+
+    @Test
+    public void testUncrossedBook() {
+
+        TopOfBook topOfBook = this.operationBook.getTopOfBook();
+
+        LocalOrderBook localOrderBook = new LocalOrderBook() {
+
+            @Override
+            public synchronized void onPriceLevelUpdated(Asset asset, long sequence, OfferOperationType side, PriceLevelAction action, double price, long quantity) {
+                super.onPriceLevelUpdated(asset, sequence, side, action, price, quantity);
+                assertUncrossed(this.getBestPrice(OfferOperationType.BUY), this.getBestPrice(OfferOperationType.SELL), "Should never publish a crossed book");
+                assertUncrossed(topOfBook.getBidPrice(), topOfBook.getAskPrice(), "Should never show a crossed top of book");
+            }
+
+        };
+
+        this.operationBook.getMarketDataFeed().observe(localOrderBook);
+        localOrderBook.apply(this.operationBook.getMarketDataFeed().snapshot());
+
+        Random random = new Random(42);
+
+        for (int index = 0; index < 2_000; index++) {
+
+            OfferOperationType type = random.nextBoolean() ? OfferOperationType.BUY : OfferOperationType.SELL;
+            Broker broker = type == OfferOperationType.BUY ? this.buyer : this.seller;
+
+            this.operationBook.register(new OfferOperation(broker, this.asset, type, 100 * (1 + random.nextInt(5)), 9 + random.nextInt(5) * 0.5));
+            assertUncrossed(topOfBook.getBidPrice(), topOfBook.getAskPrice(), "Should never show a crossed top of book");
+
+        }
+
+        assertEquals(this.operationBook.getMarketDataFeed().getSequence(), localOrderBook.getSequence(), "Should apply every update");
+
+    }
+
+    private static void assertUncrossed(double bidPrice, double askPrice, String message) {
+        assertTrue(bidPrice == -1 || askPrice == -1 || bidPrice < askPrice, message + ": " + bidPrice + " >= " + askPrice);
+    }
+
+    @Test
+    public void testSnapshot() {
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 11));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 200, 9));
+
+        MarketDataSnapshot snapshot = this.operationBook.getMarketDataFeed().snapshot();
+
+        assertEquals(0, snapshot.sequence(), "Should not consume sequence numbers without observers");
+        assertEquals(List.of(new MarketDataSnapshot.Level(9, 200)), snapshot.bids(), "Should aggregate the buy levels");
+        assertEquals(List.of(new MarketDataSnapshot.Level(11, 100), new MarketDataSnapshot.Level(12, 100)), snapshot.asks(), "Should aggregate the sell levels from the best price");
+
+    }
+
+    @Test
+    public void testLocalOrderBook() {
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 11));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 200, 9));
+
+        LocalOrderBook localOrderBook = LocalOrderBook.subscribe(this.operationBook.getMarketDataFeed());
+
+        assertEquals(11, localOrderBook.getBestPrice(OfferOperationType.SELL), "Should start from the snapshot");
+        assertEquals(9, localOrderBook.getBestPrice(OfferOperationType.BUY), "Should start from the snapshot");
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 300, 10));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 10));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 9));
+
+        assertEquals(Map.of(10.0, 200L, 11.0, 100L), localOrderBook.getLevels(OfferOperationType.SELL), "Should apply the incremental updates");
+        assertEquals(Map.of(9.0, 300L), localOrderBook.getLevels(OfferOperationType.BUY), "Should delete the levels left empty");
+        assertEquals(10, localOrderBook.getLastPrice(), "Should keep the last trade");
+        assertEquals(this.operationBook.getMarketDataFeed().getSequence(), localOrderBook.getSequence(), "Should apply every update");
+
+        MarketDataSnapshot snapshot = this.operationBook.getMarketDataFeed().snapshot();
+        assertEquals(snapshot.asks().size(), localOrderBook.getLevels(OfferOperationType.SELL).size(), "Should match a fresh snapshot");
+        assertEquals(snapshot.bids().size(), localOrderBook.getLevels(OfferOperationType.BUY).size(), "Should match a fresh snapshot");
+
+    }
+
+    @Test
+    public void testPendingUpdates() {
+
+        LocalOrderBook localOrderBook = new LocalOrderBook();
+        this.operationBook.getMarketDataFeed().observe(localOrderBook);
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 11));
+        MarketDataSnapshot snapshot = this.operationBook.getMarketDataFeed().snapshot();
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12));
+
+        localOrderBook.apply(snapshot);
+
+        assertEquals(Map.of(11.0, 100L, 12.0, 100L), localOrderBook.getLevels(OfferOperationType.SELL), "Should apply only the held back updates newer than the snapshot");
+        assertEquals(2, localOrderBook.getSequence(), "Should apply only the held back updates newer than the snapshot");
+
+    }
+
+    @Test
+    public void testTopOfBook() {
+
+        TopOfBook topOfBook = this.operationBook.getTopOfBook();
+
+        assertEquals(new Quote(-1, 0, -1, 0), topOfBook.getQuote(), "Should start empty");
+        assertEquals(-1, topOfBook.getQuote().getSpread(), "Should not have a spread without both sides");
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 200, 11));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 300, 9));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 10));
+
+        assertEquals(new Quote(10, 100, 11, 200), topOfBook.getQuote(), "Should keep the best bid and ask");
+        assertEquals(1, topOfBook.getQuote().getSpread(), "Should calculate the spread");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 300, 12));
+
+        assertEquals(new Quote(10, 100, -1, 0), topOfBook.getQuote(), "Should refresh the best bid and ask after matching");
+        assertEquals(10, topOfBook.getBidPrice(), "Should read the best bid alone");
+        assertEquals(-1, topOfBook.getAskPrice(), "Should read the best ask alone");
+
+        MarketDataSnapshot snapshot = this.operationBook.getMarketDataFeed().snapshot(1);
+        assertEquals(List.of(new MarketDataSnapshot.Level(10, 100)), snapshot.bids(), "Should copy only the best levels");
+
+    }
+
+    @Test
+    public void testTopOfBookConsistency() throws InterruptedException {
+
+        TopOfBook topOfBook = new TopOfBook();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Thread writer = new Thread(() -> {
+            for (long version = 1; running.get(); version++) {
+                topOfBook.update(version, version, version + 1, version);
+            }
+        });
+
+        writer.start();
+
+        try {
+            for (int read = 0; read < 1_000_000; read++) {
+                Quote quote = topOfBook.getQuote();
+                assertTrue(quote.bidPrice() == -1 || quote.askPrice() == quote.bidPrice() + 1 && quote.bidQuantity() == quote.bidPrice(), "Should never read a torn quote: " + quote);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+
+    }
+
+}
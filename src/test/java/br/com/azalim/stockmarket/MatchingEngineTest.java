@@ -0,0 +1,49 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.engine.MatchingEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MatchingEngineTest {
+
+    @Test
+    public void testShardAssignment() {
+
+        Company company = mock(Company.class);
+        Company anotherCompany = mock(Company.class);
+
+        when(company.getSymbol()).thenReturn("FAKE");
+        when(anotherCompany.getSymbol()).thenReturn("OTHR");
+
+        Asset commonAsset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        Asset fractionalAsset = new Asset(commonAsset, MarketType.FRACTIONAL);
+        Asset anotherAsset = new Asset(anotherCompany, AssetType.COMMON, MarketType.COMMON);
+        Asset unknownAsset = new Asset(company, AssetType.UNITS, MarketType.COMMON);
+
+        assertThrows(IllegalArgumentException.class, () -> new MatchingEngine(List.of(commonAsset), 0), "Should not accept zero shards");
+
+        MatchingEngine matchingEngine = new MatchingEngine(List.of(commonAsset, fractionalAsset, anotherAsset), 2);
+
+        try {
+
+            assertEquals(2, matchingEngine.getShardCount(), "Should have the given number of shards");
+            assertEquals(matchingEngine.getShardIndex(commonAsset), matchingEngine.getShardIndex(fractionalAsset), "Fractional assets should share the shard of their parent asset");
+            assertNotEquals(matchingEngine.getShardIndex(commonAsset), matchingEngine.getShardIndex(anotherAsset), "Assets should be spread over the shards");
+            assertThrows(IllegalArgumentException.class, () -> matchingEngine.getShard(unknownAsset), "Should not have a shard for unknown assets");
+
+        } finally {
+            matchingEngine.shutdown();
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.metrics.BookMetrics;
+import br.com.azalim.stockmarket.metrics.LatencyHistogram;
+import br.com.azalim.stockmarket.metrics.MetricsReporter;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsTest {
+
+    @Test
+    public void testLatencyHistogram() {
+
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        assertEquals(0, latencyHistogram.getPercentile(99), "Should report zero when there are no values");
+
+        for (long value = 1; value <= 10_000; value++) {
+            latencyHistogram.record(value * 1000);
+        }
+
+        assertEquals(10_000, latencyHistogram.getCount(), "Should count every recorded value");
+        assertEquals(10_000_000, latencyHistogram.getMax(), "Should keep the greatest value exactly");
+        assertEquals(5_000_500, latencyHistogram.getMean(), 0.001, "Should calculate the exact mean");
+        assertEquals(5_000_000, latencyHistogram.getPercentile(50), 5_000_000 * 0.032, "Should report the median within the bucket error");
+        assertEquals(9_900_000, latencyHistogram.getPercentile(99), 9_900_000 * 0.032, "Should report the 99th percentile within the bucket error");
+        assertEquals(10_000_000, latencyHistogram.getPercentile(100), "Should report the greatest value as the 100th percentile");
+        assertThrows(IllegalArgumentException.class, () -> latencyHistogram.getPercentile(101), "Should not accept a percentile above 100");
+
+        latencyHistogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, latencyHistogram.getPercentile(100), "Should record the greatest long value");
+
+        latencyHistogram.reset();
+        assertEquals(0, latencyHistogram.getCount(), "Should discard every value when reset");
+
+    }
+
+    @Test
+    public void testBookMetrics() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("MTRC");
+
+        Asset asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        Broker seller = mock(Broker.class), buyer = mock(Broker.class);
+
+        when(seller.getWallet()).thenReturn(new Wallet());
+        when(buyer.getWallet()).thenReturn(new Wallet(true));
+
+        OperationBook operationBook = new OperationBook();
+        operationBook.startContinuousProcessing(mock(StockMarket.class));
+
+        operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 10));
+        operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 200, 11));
+        operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, 200, 11));
+        operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, 100, 9));
+
+        BookMetrics metrics = operationBook.getMetrics();
+
+        assertEquals(4, metrics.getOrders(), "Should count every accepted operation");
+        assertEquals(2, metrics.getFills(), "Should count every executed trade");
+        assertEquals(200, metrics.getFilledQuantity(), "Should sum the traded quantities");
+        assertEquals(4, metrics.getEntryToAck().getCount(), "Should record the entry to acknowledgement latency of every operation");
+        assertEquals(2, metrics.getObserverDispatch().getCount(), "Should record the observer dispatch latency of every trade");
+        assertEquals(1, metrics.getBidDepth(), "Should count the resting buy offers");
+        assertEquals(1, metrics.getAskDepth(), "Should count the resting sell offers");
+        assertEquals(1, metrics.getBidLevels(), "Should count the buy price levels");
+        assertEquals(1, metrics.getAskLevels(), "Should count the sell price levels");
+
+        metrics.reset();
+        assertEquals(0, metrics.getOrders(), "Should reset the counters");
+        assertEquals(0, metrics.getMatch().getCount(), "Should reset the histograms");
+
+    }
+
+    @Test
+    public void testMBeans() throws JMException {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("JMXB");
+
+        Asset asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        OperationBook operationBook = new OperationBook();
+        StockMarket stockMarket = mock(StockMarket.class);
+
+        when(stockMarket.getOperationBooks()).thenReturn(Map.of(asset, operationBook));
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = MetricsReporter.getObjectName(asset.getSymbol());
+
+        try (MetricsReporter metricsReporter = new MetricsReporter(stockMarket)) {
+
+            metricsReporter.registerMBeans();
+            operationBook.accept(new OfferOperation(mock(Broker.class), asset, OfferOperationType.BUY, 100, 10));
+
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "Orders"), "Should expose the counters");
+            assertEquals(1, mBeanServer.getAttribute(objectName, "BidDepth"), "Should expose the depth");
+            assertEquals(1L, ((CompositeData) mBeanServer.getAttribute(objectName, "EntryToAck")).get("count"), "Should expose the latencies as composite values");
+            assertTrue(metricsReporter.dump().startsWith(asset.getSymbol() + " orders=1 "), "Should dump the books that accepted operations");
+
+        }
+
+        assertFalse(mBeanServer.isRegistered(objectName), "Should unregister the MBeans when closed");
+
+    }
+
+}
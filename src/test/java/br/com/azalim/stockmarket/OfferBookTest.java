@@ -0,0 +1,176 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.operation.offer.OfferBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.operation.offer.PriceLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OfferBookTest {
+
+    private static Broker broker;
+    private static Asset asset;
+
+    @BeforeAll
+    public static void setup() {
+
+        Company company = mock(Company.class);
+
+        when(company.getSymbol()).thenReturn("FAKE");
+
+        broker = StockMarketTest.createBroker("Broker");
+        asset = new Asset(company, AssetType.COMMON, MarketType.FRACTIONAL);
+
+    }
+
+    @Test
+    public void testBestLevels() {
+
+        OfferBook offerBook = new OfferBook();
+
+        assertNull(offerBook.getBestLevel(OfferOperationType.BUY), "Should not have a best bid when empty");
+        assertNull(offerBook.getBestLevel(OfferOperationType.SELL), "Should not have a best ask when empty");
+
+        offerBook.add(new OfferOperation(broker, asset, OfferOperationType.BUY, 1, 9));
+        offerBook.add(new OfferOperation(broker, asset, OfferOperationType.BUY, 1, 10));
+        offerBook.add(new OfferOperation(broker, asset, OfferOperationType.SELL, 1, 12));
+        offerBook.add(new OfferOperation(broker, asset, OfferOperationType.SELL, 1, 11));
+
+        assertEquals(10, offerBook.getBestLevel(OfferOperationType.BUY).getPrice(), "The best bid should be the highest buy price");
+        assertEquals(11, offerBook.getBestLevel(OfferOperationType.SELL).getPrice(), "The best ask should be the lowest sell price");
+
+    }
+
+    @Test
+    public void testTimePriorityAndExecutedOffersRemoval() {
+
+        OfferBook offerBook = new OfferBook();
+        OfferOperation olderOfferOperation = new OfferOperation(broker, asset, OfferOperationType.SELL, 5, 10);
+        OfferOperation newerOfferOperation = new OfferOperation(broker, asset, OfferOperationType.SELL, 5, 10);
+
+        offerBook.add(olderOfferOperation);
+        offerBook.add(newerOfferOperation);
+
+        PriceLevel priceLevel = offerBook.getBestLevel(OfferOperationType.SELL);
+
+        assertSame(olderOfferOperation, priceLevel.peek(), "The oldest offer should be executed first");
+
+        olderOfferOperation.consumeQuantity(5);
+
+        assertSame(newerOfferOperation, priceLevel.peek(), "Executed offers should be discarded from the level");
+
+        newerOfferOperation.consumeQuantity(5);
+
+        assertNull(offerBook.getBestLevel(OfferOperationType.SELL), "Levels without executable offers should be removed");
+        assertThrows(UnsupportedOperationException.class, () -> offerBook.getLevels(OfferOperationType.SELL).clear(), "Levels view should be unmodifiable");
+
+    }
+
+    @Test
+    public void testPriceLadder() {
+
+        OfferBook treeOfferBook = new OfferBook(), ladderOfferBook = new OfferBook();
+        List<OfferOperation> treeOfferOperations = new ArrayList<>(), ladderOfferOperations = new ArrayList<>();
+        Random random = new Random(42);
+
+        ladderOfferBook.usePriceLadder(1000, 50);
+
+        for (int step = 0; step < 20_000; step++) {
+
+            OfferOperationType type = random.nextBoolean() ? OfferOperationType.BUY : OfferOperationType.SELL;
+            int action = random.nextInt(3);
+
+            if (action == 0 || treeOfferOperations.isEmpty()) {
+
+                // Some of the prices are out of the band of the ladder, on both sides of it
+                double price = asset.toPrice(1000 + random.nextInt(-70, 71));
+                int quantity = random.nextInt(1, 10);
+
+                treeOfferOperations.add(new OfferOperation(broker, asset, type, quantity, price));
+                ladderOfferOperations.add(new OfferOperation(broker, asset, type, quantity, price));
+
+                treeOfferBook.add(treeOfferOperations.get(treeOfferOperations.size() - 1));
+                ladderOfferBook.add(ladderOfferOperations.get(ladderOfferOperations.size() - 1));
+
+            } else if (action == 1) {
+
+                PriceLevel treeLevel = treeOfferBook.getBestLevel(type), ladderLevel = ladderOfferBook.getBestLevel(type);
+
+                if (treeLevel != null) {
+                    int quantity = random.nextInt(1, 10);
+                    treeLevel.peek().consumeQuantity(quantity);
+                    ladderLevel.peek().consumeQuantity(quantity);
+                }
+
+            } else {
+
+                int index = random.nextInt(treeOfferOperations.size());
+
+                if (!treeOfferOperations.get(index).getStatus().isFinal()) {
+                    treeOfferOperations.get(index).cancel();
+                    ladderOfferOperations.get(index).cancel();
+                }
+
+            }
+
+            for (OfferOperationType side : OfferOperationType.values()) {
+
+                PriceLevel treeLevel = treeOfferBook.getBestLevel(side), ladderLevel = ladderOfferBook.getBestLevel(side);
+
+                assertEquals(treeLevel == null, ladderLevel == null, "Should have a best level whenever the tree has one");
+
+                if (treeLevel != null) {
+                    assertEquals(treeLevel.getPriceTicks(), ladderLevel.getPriceTicks(), "Should find the same best price as the tree");
+                    assertEquals(treeLevel.getQuantity(), ladderLevel.getQuantity(), "Should have the same quantity at the best price as the tree");
+                    assertEquals(treeLevel.peek().getSequence() - treeOfferOperations.get(0).getSequence(),
+                            ladderLevel.peek().getSequence() - ladderOfferOperations.get(0).getSequence(), "Should keep the same time priority as the tree");
+                }
+
+                long priceTicks = 1000 + random.nextInt(-70, 71);
+
+                assertEquals(treeOfferBook.getCrossingQuantity(side, priceTicks, Long.MAX_VALUE), ladderOfferBook.getCrossingQuantity(side, priceTicks, Long.MAX_VALUE),
+                        "Should have the same quantity crossing a price as the tree");
+
+            }
+
+        }
+
+        for (OfferOperationType side : OfferOperationType.values()) {
+
+            assertEquals(treeOfferBook.getDepth(side), ladderOfferBook.getDepth(side), "Should have the same depth as the tree");
+            assertEquals(treeOfferBook.getLevelCount(side), ladderOfferBook.getLevelCount(side), "Should have the same number of levels as the tree");
+
+            List<Long> treePrices = new ArrayList<>(), ladderPrices = new ArrayList<>();
+
+            treeOfferBook.getLevels(side).stream().filter(priceLevel -> !priceLevel.isEmpty()).forEach(priceLevel -> treePrices.add(priceLevel.getPriceTicks()));
+            ladderOfferBook.getLevels(side).stream().filter(priceLevel -> !priceLevel.isEmpty()).forEach(priceLevel -> ladderPrices.add(priceLevel.getPriceTicks()));
+
+            assertEquals(treePrices, ladderPrices, "Should visit the levels from the best to the worst price, like the tree");
+
+        }
+
+        // Moving the levels of the tree to a ladder keeps them and the priority of their offers
+        treeOfferBook.usePriceLadder(1000, 10);
+
+        for (OfferOperationType side : OfferOperationType.values()) {
+            assertEquals(ladderOfferBook.getDepth(side), treeOfferBook.getDepth(side), "Should keep every offer when moved to a ladder");
+            assertEquals(ladderOfferBook.getBestLevel(side).getPriceTicks(), treeOfferBook.getBestLevel(side).getPriceTicks(), "Should keep the best price when moved to a ladder");
+        }
+
+    }
+
+}
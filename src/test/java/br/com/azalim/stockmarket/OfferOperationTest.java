@@ -140,4 +140,72 @@ public class OfferOperationTest {
 
     }
 
+    @Test
+    public void testProcessWithPriceTimePriority() {
+
+        Broker buyer = StockMarketTest.createBroker("Buyer");
+        Broker expensiveSeller = StockMarketTest.createBroker("Expensive Seller");
+        Broker olderSeller = StockMarketTest.createBroker("Older Seller");
+        Broker newerSeller = StockMarketTest.createBroker("Newer Seller");
+
+        OperationBook operationBook = new OperationBook();
+
+        OfferOperation expensiveOfferOperation = new OfferOperation(expensiveSeller, asset, OfferOperationType.SELL, 10, 7);
+        OfferOperation olderOfferOperation = new OfferOperation(olderSeller, asset, OfferOperationType.SELL, 10, 5);
+        OfferOperation newerOfferOperation = new OfferOperation(newerSeller, asset, OfferOperationType.SELL, 10, 5);
+        OfferOperation buyOfferOperation = new OfferOperation(buyer, asset, OfferOperationType.BUY, 25, 10);
+
+        operationBook.register(expensiveOfferOperation);
+        operationBook.register(olderOfferOperation);
+        operationBook.register(newerOfferOperation);
+        operationBook.register(buyOfferOperation);
+
+        assertTrue(buyOfferOperation.process(stockMarket, operationBook), "Should process successfully");
+
+        assertEquals(OfferOperationStatus.EXECUTED, buyOfferOperation.getStatus(), "Should be executed");
+        assertEquals(OfferOperationStatus.EXECUTED, olderOfferOperation.getStatus(), "The older offer at the best price should be executed first");
+        assertEquals(OfferOperationStatus.EXECUTED, newerOfferOperation.getStatus(), "The newer offer at the best price should be executed next");
+        assertEquals(OfferOperationStatus.PARTIALLY_EXECUTED, expensiveOfferOperation.getStatus(), "The offer at the worst price should be executed last");
+
+        assertEquals(25, buyer.getWallet().getQuantity(asset), "Should have 25 shares");
+        assertEquals(-5, expensiveSeller.getWallet().getQuantity(asset), "Should have sold only the remaining 5 shares");
+
+        assertEquals(3, operationBook.getTradeTape().size(), "Should record every trade");
+        assertEquals(7, operationBook.getTradeTape().getLastPrice(), "Should trade at the resting offer price");
+
+        assertEquals(2, operationBook.getArchive().size(), "Executed resting offers should be archived");
+        assertFalse(operationBook.getOperations().contains(olderOfferOperation), "Executed resting offers should not be processed anymore");
+        assertTrue(operationBook.getOperations().contains(expensiveOfferOperation), "Partially executed offers should still be processed");
+
+    }
+
+    @Test
+    public void testProcessWithPriceTicks() {
+
+        Broker buyer = StockMarketTest.createBroker("Tick Buyer");
+        Broker seller = StockMarketTest.createBroker("Tick Seller");
+
+        OperationBook operationBook = new OperationBook();
+
+        // 0.1 + 0.2 is slightly more than 0.3 as a double, but it is the same number of ticks
+        OfferOperation sellOfferOperation = new OfferOperation(seller, asset, OfferOperationType.SELL, 10, 0.1 + 0.2);
+        OfferOperation buyOfferOperation = new OfferOperation(buyer, asset, OfferOperationType.BUY, 10, 0.3);
+
+        assertEquals(30, sellOfferOperation.getPriceTicks(), "Should convert the price to ticks of the asset");
+        assertEquals(0.3, sellOfferOperation.getPrice(), "Should convert the ticks back to the closest price");
+        assertThrows(IllegalArgumentException.class, () -> new OfferOperation(buyer, asset, OfferOperationType.BUY, 10, 0.305), "Should not accept a price between ticks");
+        assertThrows(IllegalArgumentException.class, () -> new OfferOperation(buyer, asset, OfferOperationType.BUY, 10, Double.NaN), "Should not accept a NaN price");
+        assertThrows(IllegalArgumentException.class, () -> new OfferOperation(buyer, asset, OfferOperationType.BUY, 10, Double.POSITIVE_INFINITY), "Should not accept an infinite price");
+        assertThrows(IllegalArgumentException.class, () -> asset.toTicks(Double.NaN), "Should not convert a NaN price to ticks");
+
+        operationBook.register(sellOfferOperation);
+        operationBook.register(buyOfferOperation);
+
+        assertTrue(buyOfferOperation.process(stockMarket, operationBook), "Should process successfully");
+
+        assertEquals(OfferOperationStatus.EXECUTED, buyOfferOperation.getStatus(), "Should match an offer at the same number of ticks");
+        assertEquals(0.3, operationBook.getTradeTape().getLastPrice(), "Should trade at the price of the resting offer");
+
+    }
+
 }
@@ -1,15 +1,23 @@
 package br.com.azalim.stockmarket;
 
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
 import br.com.azalim.stockmarket.observer.impl.OperationBookObserver;
 import br.com.azalim.stockmarket.operation.Operation;
 import br.com.azalim.stockmarket.operation.OperationBook;
 import br.com.azalim.stockmarket.operation.info.InfoOperation;
 import br.com.azalim.stockmarket.operation.offer.OfferOperation;
 import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,19 +44,39 @@ public class OperationBookTest {
 
     }
 
+    @Test
+    public void testBurstRegistry() {
+
+        OperationBook burstOperationBook = new OperationBook();
+        Broker broker = mock(Broker.class);
+        Asset asset = mock(Asset.class);
+
+        for (int index = 0; index < 1000; index++) {
+            burstOperationBook.register(new InfoOperation(broker, asset, Instant.now(), price -> {}));
+        }
+
+        assertEquals(1000, burstOperationBook.getOperations().size(), "Operations created in the same clock tick should all be kept");
+
+    }
+
     @Test
     public void testGetPriceAtInstant() {
 
         OfferOperation offerOperation = mock(OfferOperation.class);
 
         when(offerOperation.getStatus()).thenReturn(OfferOperationStatus.EXECUTED);
-        when(offerOperation.getInstant()).thenReturn(Instant.ofEpochMilli(2));
-        when(offerOperation.getPrice()).thenReturn(1D);
+        when(offerOperation.getTimestamp()).thenReturn(Utils.toEpochNanos(Instant.ofEpochMilli(2)));
+        when(offerOperation.getPrice()).thenReturn(2D);
 
         operationBook.register(offerOperation);
+        operationBook.getTradeTape().record(Utils.toEpochNanos(Instant.ofEpochMilli(2)), 1D, 100);
 
-        assertEquals(1, operationBook.getPriceAtInstant(Instant.ofEpochMilli(3)), "The price should be the same as the offer operation");
-        assertEquals(-1, operationBook.getPriceAtInstant(Instant.ofEpochMilli(1)), "The price should be -1 if there is no operation at the given instant");
+        assertEquals(1, operationBook.getPriceAtInstant(Instant.ofEpochMilli(3)), "The price should be the one of the last trade, not the one of the offer");
+        assertEquals(-1, operationBook.getPriceAtInstant(Instant.ofEpochMilli(1)), "The price should be -1 if there is no trade before the given instant");
+        assertEquals(1, operationBook.getPriceAtInstant(Instant.MAX), "The price should be the one of the last trade for instants past the nanosecond range");
+        assertEquals(-1, operationBook.getPriceAtInstant(Instant.MIN), "The price should be -1 for instants before the nanosecond range");
+        assertEquals(Long.MAX_VALUE, Utils.toEpochNanos(Instant.MAX), "Should clamp the instants past the nanosecond range");
+        assertEquals(Long.MIN_VALUE, Utils.toEpochNanos(Instant.MIN), "Should clamp the instants before the nanosecond range");
 
     }
 
@@ -70,6 +98,93 @@ public class OperationBookTest {
 
     }
 
+    @Test
+    public void testCompletedOperationsRetirement() {
+
+        OperationBook retiringOperationBook = new OperationBook();
+        InfoOperation infoOperation = new InfoOperation(mock(Broker.class), mock(Asset.class), Instant.now(), price -> {});
+
+        retiringOperationBook.register(infoOperation);
+        retiringOperationBook.processOperations(mock(StockMarket.class));
+
+        assertTrue(infoOperation.isCompleted(), "The operation should be completed");
+        assertFalse(retiringOperationBook.getOperations().contains(infoOperation), "Completed operations should not be processed anymore");
+        assertEquals(1, retiringOperationBook.getArchive().size(), "Completed operations should be archived");
+        assertTrue(retiringOperationBook.getArchive().getOperations(InfoOperation.class).contains(infoOperation), "Completed operations should be queryable");
+
+    }
+
+    @Test
+    public void testOffHeapArchive() {
+
+        Company company = mock(Company.class);
+
+        when(company.getSymbol()).thenReturn("HEAP");
+        when(company.getAssetTypes()).thenReturn(Set.of(AssetType.COMMON));
+
+        Asset asset = new Asset(company, AssetType.COMMON, MarketType.FRACTIONAL);
+        Broker buyer = StockMarketTest.createBroker("Off-heap Buyer");
+        Broker seller = StockMarketTest.createBroker("Off-heap Seller");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(buyer, seller));
+
+        OperationBook offHeapOperationBook = new OperationBook();
+        InfoOperation infoOperation = new InfoOperation(buyer, asset, Instant.now(), price -> {});
+
+        offHeapOperationBook.register(infoOperation);
+        offHeapOperationBook.processOperations(stockMarket);
+        offHeapOperationBook.useOffHeapArchive();
+
+        assertTrue(offHeapOperationBook.getArchive().isOffHeap(), "Should keep the retired offers off the heap");
+        assertTrue(offHeapOperationBook.getArchive().getOperations(InfoOperation.class).contains(infoOperation), "Should move the operations already archived");
+
+        OfferOperation sellOfferOperation = new OfferOperation(seller, asset, OfferOperationType.SELL, 10, 12.34);
+        OfferOperation buyOfferOperation = new OfferOperation(buyer, asset, OfferOperationType.BUY, 10, 12.34);
+
+        offHeapOperationBook.register(sellOfferOperation);
+        offHeapOperationBook.register(buyOfferOperation);
+        offHeapOperationBook.processOperations(stockMarket);
+
+        assertEquals(3, offHeapOperationBook.getArchive().size(), "Should archive both executed offers");
+        assertTrue(offHeapOperationBook.getArchive().getOffHeapBytes() > 0, "Should allocate the records off the heap");
+
+        List<OfferOperation> offerOperations = offHeapOperationBook.getArchive().getOperations(OfferOperation.class);
+
+        assertEquals(2, offerOperations.size(), "Should decode every archived offer");
+
+        for (OfferOperation offerOperation : offerOperations) {
+
+            OfferOperation original = offerOperation.getSequence() == sellOfferOperation.getSequence() ? sellOfferOperation : buyOfferOperation;
+
+            assertNotSame(original, offerOperation, "Should decode a copy of the offer");
+            assertEquals(original.getSequence(), offerOperation.getSequence(), "Should keep the sequence number");
+            assertEquals(original.getTimestamp(), offerOperation.getTimestamp(), "Should keep the timestamp");
+            assertEquals(original.getBroker(), offerOperation.getBroker(), "Should keep the broker");
+            assertEquals(original.getAsset(), offerOperation.getAsset(), "Should keep the asset");
+            assertEquals(original.getType(), offerOperation.getType(), "Should keep the type");
+            assertEquals(original.getKind(), offerOperation.getKind(), "Should keep the kind");
+            assertEquals(original.getQuantity(), offerOperation.getQuantity(), "Should keep the quantity");
+            assertEquals(original.getPriceTicks(), offerOperation.getPriceTicks(), "Should keep the price");
+            assertEquals(OfferOperationStatus.EXECUTED, offerOperation.getStatus(), "Should keep the final status");
+
+        }
+
+        InfoOperation lastInfoOperation = new InfoOperation(seller, asset, Instant.now(), price -> {});
+
+        offHeapOperationBook.register(lastInfoOperation);
+        offHeapOperationBook.processOperations(stockMarket);
+
+        assertEquals(List.of(infoOperation, lastInfoOperation), offHeapOperationBook.getArchive().getOperations(InfoOperation.class), "Should keep the other operations in the heap");
+
+        List<Operation> operations = offHeapOperationBook.getArchive().getOperations(Operation.class);
+
+        assertEquals(4, operations.size(), "Should list every archived operation");
+        assertSame(infoOperation, operations.get(0), "Should list the operations in retirement order");
+        assertInstanceOf(OfferOperation.class, operations.get(1), "Should list the off-heap offers in retirement order");
+        assertInstanceOf(OfferOperation.class, operations.get(2), "Should list the off-heap offers in retirement order");
+        assertSame(lastInfoOperation, operations.get(3), "Should list the operations in retirement order");
+
+    }
+
     @Test
     public void testObservableBehaviour() {
 
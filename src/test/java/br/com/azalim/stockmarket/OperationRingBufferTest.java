@@ -0,0 +1,130 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.engine.OperationRingBuffer;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class OperationRingBufferTest {
+
+    @Test
+    public void testConstructor() {
+
+        assertThrows(IllegalArgumentException.class, () -> new OperationRingBuffer(0), "Should not accept zero capacity");
+        assertThrows(IllegalArgumentException.class, () -> new OperationRingBuffer(3), "Should only accept powers of two");
+        assertEquals(8, new OperationRingBuffer(8).getCapacity(), "Should have the given capacity");
+
+    }
+
+    @Test
+    public void testBatchDraining() {
+
+        OperationRingBuffer ringBuffer = new OperationRingBuffer(4);
+        OperationBook operationBook = mock(OperationBook.class);
+        List<Operation> publishedOperations = new ArrayList<>(), drainedOperations = new ArrayList<>();
+
+        for (int index = 0; index < 3; index++) {
+            Operation operation = mock(Operation.class);
+            publishedOperations.add(operation);
+            ringBuffer.publish(operationBook, operation);
+        }
+
+        assertEquals(3, ringBuffer.size(), "Should have 3 pending operations");
+        assertEquals(2, ringBuffer.drain((book, operation) -> drainedOperations.add(operation), 2), "Should drain at most the batch size");
+        assertEquals(1, ringBuffer.drain((book, operation) -> drainedOperations.add(operation), 2), "Should drain the remaining operation");
+        assertEquals(0, ringBuffer.drain((book, operation) -> drainedOperations.add(operation), 2), "Should not drain anything when empty");
+        assertEquals(publishedOperations, drainedOperations, "Should drain in publishing order");
+
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+
+        OperationRingBuffer ringBuffer = new OperationRingBuffer(64);
+        OperationBook operationBook = mock(OperationBook.class);
+        Operation operation = mock(Operation.class);
+        AtomicInteger drainedOperations = new AtomicInteger();
+
+        int producers = 4, operationsPerProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+
+        for (int index = 0; index < producers; index++) {
+            Thread thread = new Thread(() -> {
+                for (int count = 0; count < operationsPerProducer; count++) {
+                    ringBuffer.publish(operationBook, operation);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        while (drainedOperations.get() < producers * operationsPerProducer) {
+            ringBuffer.drain((book, drainedOperation) -> drainedOperations.incrementAndGet(), 16);
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * operationsPerProducer, drainedOperations.get(), "Should drain every published operation");
+        assertEquals(0, ringBuffer.size(), "Should not have pending operations");
+
+    }
+
+    @Test
+    public void testFailingHandler() {
+
+        OperationRingBuffer ringBuffer = new OperationRingBuffer(2);
+        OperationBook operationBook = mock(OperationBook.class);
+
+        ringBuffer.publish(operationBook, mock(Operation.class));
+        ringBuffer.publish(operationBook, mock(Operation.class));
+
+        assertThrows(IllegalStateException.class, () -> ringBuffer.drain((book, operation) -> {
+            throw new IllegalStateException("Failing handler");
+        }, 2), "Should propagate the failure of the handler");
+
+        assertEquals(1, ringBuffer.size(), "Should release the slot of the failed operation");
+
+        ringBuffer.publish(operationBook, mock(Operation.class));
+
+        assertEquals(2, ringBuffer.drain((book, operation) -> {}, 2), "Should drain the operations after the failed one");
+
+    }
+
+    @Test
+    public void testClosedBuffer() throws InterruptedException {
+
+        OperationRingBuffer ringBuffer = new OperationRingBuffer(1);
+        OperationBook operationBook = mock(OperationBook.class);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ringBuffer.publish(operationBook, mock(Operation.class));
+
+        Thread producer = new Thread(() -> {
+            try {
+                ringBuffer.publish(operationBook, mock(Operation.class));
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        producer.start();
+        ringBuffer.close();
+        producer.join(5_000);
+
+        assertFalse(producer.isAlive(), "Should stop waiting for a free slot once the buffer is closed");
+        assertInstanceOf(IllegalStateException.class, failure.get(), "Should fail the waiting producer");
+        assertThrows(IllegalStateException.class, () -> ringBuffer.publish(operationBook, mock(Operation.class)), "Should not accept operations once closed");
+
+    }
+
+}
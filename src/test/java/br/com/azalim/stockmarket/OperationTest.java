@@ -6,8 +6,6 @@ import br.com.azalim.stockmarket.operation.Operation;
 import br.com.azalim.stockmarket.operation.OperationBook;
 import org.junit.jupiter.api.Test;
 
-import java.time.Instant;
-
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -34,12 +32,12 @@ public class OperationTest {
 
         when(operation.compareTo(otherOperation)).thenCallRealMethod();
 
-        when(operation.getInstant()).thenReturn(Instant.ofEpochMilli(1));
-        when(otherOperation.getInstant()).thenReturn(Instant.ofEpochMilli(2));
+        when(operation.getSequence()).thenReturn(1L);
+        when(otherOperation.getSequence()).thenReturn(2L);
 
         assertTrue(operation.compareTo(otherOperation) < 0, "The operation should be before the other operation");
 
-        when(otherOperation.getInstant()).thenReturn(Instant.ofEpochMilli(0));
+        when(otherOperation.getSequence()).thenReturn(0L);
 
         assertTrue(operation.compareTo(otherOperation) > 0, "The operation should be after the other operation");
 
@@ -0,0 +1,100 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.VirtualClock;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.replay.OrderFileReplayer;
+import br.com.azalim.stockmarket.replay.ReplayReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderFileReplayerTest {
+
+    private static final Company company = new Company() {
+        @Override
+        public String getSymbol() {
+            return "RPLY";
+        }
+
+        @Override
+        public String getName() {
+            return "Replay Company S.A.";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Replay company description";
+        }
+
+        @Override
+        public Set<AssetType> getAssetTypes() {
+            return Set.of(AssetType.COMMON);
+        }
+    };
+
+    private static final String ORDERS = """
+            timestamp,broker,symbol,side,quantity,price
+            1000,Seller,RPLY3,SELL,300,10.0
+            2000,Seller,RPLY3,SELL,100,11.0
+            3000,Buyer,RPLY3,BUY,200,12.0
+            4000,Buyer,RPLY3,BUY,200,11.5
+            4000,Buyer,RPLY3F,BUY,10,9.0
+            """;
+
+    @Test
+    public void testReplay() throws IOException {
+
+        StringBuilder trades = new StringBuilder();
+        ReplayReport report = this.replay(trades, 0);
+
+        assertEquals(5, report.orders(), "Should replay every order");
+        assertEquals(3, report.trades(), "Should execute the crossing orders");
+        assertEquals(3000, report.virtualDurationNanos(), "Should measure the recorded duration");
+        assertTrue(report.maxLatencyNanos() >= report.medianLatencyNanos(), "Should measure the latency of the orders");
+        assertEquals("""
+                3000,RPLY3,Seller,Buyer,200,10.0
+                4000,RPLY3,Seller,Buyer,100,10.0
+                4000,RPLY3,Seller,Buyer,100,11.0
+                """, trades.toString(), "Should write the trades with the virtual timestamps");
+
+        StringBuilder pacedTrades = new StringBuilder();
+        this.replay(pacedTrades, 1_000_000);
+
+        assertEquals(trades.toString(), pacedTrades.toString(), "Should execute the same trades on every replay");
+
+    }
+
+    @Test
+    public void testInvalidReplay() {
+
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of());
+        assertThrows(IllegalArgumentException.class, () -> new OrderFileReplayer(stockMarket, null), "Should require a virtual clock");
+
+        OrderFileReplayer orderFileReplayer = new OrderFileReplayer(new StockMarket(Set.of(company), Set.of(), new VirtualClock()), null);
+
+        assertThrows(IllegalArgumentException.class, () -> orderFileReplayer.replay(new BufferedReader(new StringReader("")), -1), "Should not accept a negative speed");
+        assertThrows(IllegalArgumentException.class, () -> orderFileReplayer.replay(new BufferedReader(new StringReader("1000,Unknown,RPLY3,BUY,100,10.0")), 0), "Should not accept unknown brokers");
+        assertThrows(IllegalArgumentException.class, () -> orderFileReplayer.replay(new BufferedReader(new StringReader("1000,RPLY3,BUY,100")), 0), "Should not accept incomplete lines");
+
+    }
+
+    private ReplayReport replay(StringBuilder trades, double speed) throws IOException {
+
+        Broker seller = StockMarketTest.createBroker("Seller"), buyer = StockMarketTest.createBroker("Buyer");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(seller, buyer), new VirtualClock());
+
+        ReplayReport report = new OrderFileReplayer(stockMarket, trades).replay(new BufferedReader(new StringReader(ORDERS)), speed);
+        stockMarket.stopProcessingOperations();
+
+        return report;
+
+    }
+
+}
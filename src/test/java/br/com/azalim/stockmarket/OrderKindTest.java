@@ -0,0 +1,129 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.marketdata.Quote;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderKindTest {
+
+    private Asset asset;
+
+    private Broker seller, buyer;
+
+    private OperationBook operationBook;
+
+    @BeforeEach
+    public void setUp() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("KIND");
+
+        this.asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        this.seller = mock(Broker.class);
+        this.buyer = mock(Broker.class);
+
+        when(this.seller.getWallet()).thenReturn(new Wallet());
+        when(this.buyer.getWallet()).thenReturn(new Wallet(true));
+
+        this.operationBook = new OperationBook();
+        this.operationBook.startContinuousProcessing(mock(StockMarket.class));
+
+    }
+
+    @Test
+    public void testImmediateOrCancel() {
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12));
+
+        OfferOperation offerOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.IMMEDIATE_OR_CANCEL, 300, 11);
+        this.operationBook.register(offerOperation);
+
+        assertEquals(OfferOperationStatus.CANCELED, offerOperation.getStatus(), "Should cancel the quantity that could not be executed");
+        assertEquals(200, offerOperation.getQuantity(), "Should keep the canceled quantity");
+        assertFalse(offerOperation.isInBook(), "Should never rest in the book");
+        assertNull(this.operationBook.getRestingOffer(offerOperation.getSequence()), "Should never be indexed");
+        assertFalse(this.operationBook.getOperations().contains(offerOperation), "Should retire the offer right away");
+        assertEquals(100, this.buyer.getWallet().getQuantity(this.asset), "Should execute against the crossing levels");
+        assertEquals(new Quote(-1, 0, 12, 100), this.operationBook.getTopOfBook().getQuote(), "Should not quote the canceled quantity");
+
+    }
+
+    @Test
+    public void testFillOrKill() {
+
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 11));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 12));
+
+        OfferOperation killedOfferOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.FILL_OR_KILL, 300, 11);
+        this.operationBook.register(killedOfferOperation);
+
+        assertEquals(OfferOperationStatus.CANCELED, killedOfferOperation.getStatus(), "Should kill an offer that cannot be filled completely");
+        assertEquals(300, killedOfferOperation.getQuantity(), "Should not execute any share of a killed offer");
+        assertEquals(300, this.operationBook.getOfferBook().getDepth(OfferOperationType.SELL) * 100, "Should leave the book untouched");
+
+        OfferOperation filledOfferOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.FILL_OR_KILL, 200, 11);
+        this.operationBook.register(filledOfferOperation);
+
+        assertEquals(OfferOperationStatus.EXECUTED, filledOfferOperation.getStatus(), "Should fill an offer that can be filled completely");
+        assertEquals(200, this.buyer.getWallet().getQuantity(this.asset), "Should execute the whole quantity");
+        assertFalse(this.operationBook.getOperations().contains(filledOfferOperation), "Should retire the filled offer");
+
+    }
+
+    @Test
+    public void testMarket() {
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 9));
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 1));
+
+        OfferOperation offerOperation = new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, OfferOperationKind.MARKET, 300, 50);
+        this.operationBook.register(offerOperation);
+
+        assertEquals(0, offerOperation.getPrice(), "Should ignore the price of a market offer");
+        assertEquals(OfferOperationStatus.CANCELED, offerOperation.getStatus(), "Should cancel the quantity the book could not absorb");
+        assertEquals(-200, this.seller.getWallet().getQuantity(this.asset), "Should execute against every price");
+        assertEquals(1, this.operationBook.getTradeTape().getLastPrice(), "Should execute at the resting prices");
+        assertEquals(new Quote(-1, 0, -1, 0), this.operationBook.getTopOfBook().getQuote(), "Should never rest in the book");
+
+        assertEquals(Double.POSITIVE_INFINITY, new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 100, -1).getPrice(), "Should cross every sell price");
+        assertThrows(IllegalArgumentException.class, () -> new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.IMMEDIATE_OR_CANCEL, 100, 0), "Should require a price for limited kinds");
+
+    }
+
+    @Test
+    public void testPolling() {
+
+        OperationBook operationBook = new OperationBook();
+
+        operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        OfferOperation offerOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.IMMEDIATE_OR_CANCEL, 200, 10);
+        operationBook.register(offerOperation);
+
+        assertFalse(offerOperation.isInBook(), "Should not rest in the book while waiting to be processed");
+        assertEquals(0, operationBook.getOfferBook().getDepth(OfferOperationType.BUY), "Should not rest in the book while waiting to be processed");
+
+        operationBook.processOperations(mock(StockMarket.class));
+
+        assertEquals(OfferOperationStatus.CANCELED, offerOperation.getStatus(), "Should cancel the remainder the first time it is processed");
+        assertTrue(operationBook.getOperations().isEmpty(), "Should leave nothing for the next pass to walk");
+
+    }
+
+}
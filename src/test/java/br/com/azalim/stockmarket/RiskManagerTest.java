@@ -0,0 +1,197 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.clock.VirtualClock;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.engine.MatchingShard;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.cancel.CancelOperation;
+import br.com.azalim.stockmarket.operation.cancel.ReplaceOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationKind;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.risk.RiskLimits;
+import br.com.azalim.stockmarket.risk.RiskManager;
+import br.com.azalim.stockmarket.risk.RiskViolation;
+import br.com.azalim.stockmarket.risk.RiskViolationException;
+import br.com.azalim.stockmarket.wallet.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RiskManagerTest {
+
+    private Asset asset;
+
+    private Broker seller, buyer;
+
+    private VirtualClock clock;
+
+    private RiskManager riskManager;
+
+    private OperationBook operationBook;
+
+    @BeforeEach
+    public void setUp() {
+
+        Company company = mock(Company.class);
+        when(company.getSymbol()).thenReturn("RISK");
+
+        this.asset = new Asset(company, AssetType.COMMON, MarketType.COMMON);
+        this.seller = mock(Broker.class);
+        this.buyer = mock(Broker.class);
+
+        when(this.seller.getWallet()).thenReturn(new Wallet());
+        when(this.buyer.getWallet()).thenReturn(new Wallet());
+
+        this.clock = new VirtualClock();
+        this.riskManager = new RiskManager(new RiskLimits(1000, 0, 10_000, 5));
+
+        this.operationBook = new OperationBook(this.clock);
+        this.operationBook.setRiskManager(this.riskManager);
+        this.operationBook.startContinuousProcessing(mock(StockMarket.class));
+
+    }
+
+    @Test
+    public void testPosition() {
+
+        RiskViolationException exception = assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10)),
+                "Should reject a sell the wallet cannot cover");
+
+        assertEquals(RiskViolation.POSITION, exception.getViolation(), "Should report the position limit");
+        assertTrue(this.operationBook.getOperations().isEmpty(), "Should not register a rejected offer");
+        assertEquals(1, this.operationBook.getMetrics().getRejections(), "Should count the rejection");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 600, 10));
+
+        assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 500, 9)),
+                "Should count the resting buy offers in the position");
+
+        this.riskManager.setLimits(this.seller, new RiskLimits(1000, 1000, 10_000, 5));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 400, 10));
+
+        assertEquals(400, this.buyer.getWallet().getQuantity(this.asset), "Should execute the offers that passed the check");
+        assertEquals(200, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should release the executed quantity");
+        assertEquals(0, this.riskManager.getReservedQuantity(this.seller, this.asset, OfferOperationType.SELL), "Should release the executed quantity");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 400, 9));
+
+    }
+
+    @Test
+    public void testRelease() {
+
+        OfferOperation offerOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 1000, 9);
+        this.operationBook.register(offerOperation);
+
+        assertEquals(1000, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should reserve the resting quantity");
+
+        this.operationBook.register(new CancelOperation(this.buyer, this.asset, offerOperation.getSequence()));
+        assertEquals(0, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should release the canceled quantity");
+
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.IMMEDIATE_OR_CANCEL, 1000, 9));
+        assertEquals(0, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should release the expired remainder");
+
+        OfferOperation replacedOfferOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 1000, 9);
+        this.operationBook.register(replacedOfferOperation);
+
+        ReplaceOperation replaceOperation = new ReplaceOperation(this.buyer, this.asset, replacedOfferOperation.getSequence(), 1000, 8);
+        this.operationBook.register(replaceOperation);
+
+        assertNotNull(replaceOperation.getReplacementOfferOperation(), "Should release the old offer before checking the new one");
+        assertEquals(1000, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should reserve the new offer");
+
+    }
+
+    @Test
+    public void testNotional() {
+
+        RiskViolationException exception = assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 200, 60)),
+                "Should reject an offer worth more than the limit");
+
+        assertEquals(RiskViolation.ORDER_NOTIONAL, exception.getViolation(), "Should report the notional limit");
+
+        this.riskManager.setLimits(this.seller, new RiskLimits(1000, 1000, 100_000, 5));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 200));
+
+        assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 100, 0)),
+                "Should value market offers at the best opposite price");
+
+    }
+
+    @Test
+    public void testMarketNotional() {
+
+        RiskViolationException exception = assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 100, 0)),
+                "Should reject a market offer against an empty side");
+
+        assertEquals(RiskViolation.ORDER_NOTIONAL, exception.getViolation(), "Should report the notional limit");
+
+        this.riskManager.setLimits(this.seller, new RiskLimits(1000, 1000, 100_000, 5));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 10));
+        this.operationBook.register(new OfferOperation(this.seller, this.asset, OfferOperationType.SELL, 100, 60));
+
+        assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 200, 0)),
+                "Should value market offers at the worst price their quantity would reach");
+
+        OfferOperation marketOfferOperation = new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 100, 0);
+        this.operationBook.register(marketOfferOperation);
+
+        assertEquals(0, marketOfferOperation.getQuantity(), "Should accept a market offer within the limit");
+        assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, OfferOperationKind.MARKET, 200, 0)),
+                "Should reject a market offer the book cannot fill");
+
+    }
+
+    @Test
+    public void testFailedPublish() {
+
+        MatchingShard shard = new MatchingShard("risk-shard", 16);
+        shard.shutdown();
+
+        OperationBook operationBook = new OperationBook(this.clock);
+        operationBook.setRiskManager(this.riskManager);
+        operationBook.startContinuousProcessing(mock(StockMarket.class), shard);
+
+        assertThrows(IllegalStateException.class,
+                () -> operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 10)),
+                "Should not publish to a shard that was shut down");
+
+        assertEquals(0, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should release the offers that were never published");
+
+    }
+
+    @Test
+    public void testOrderRate() {
+
+        for (int order = 0; order < 5; order++) {
+            this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 1));
+        }
+
+        RiskViolationException exception = assertThrows(RiskViolationException.class,
+                () -> this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 1)),
+                "Should reject the orders beyond the rate limit");
+
+        assertEquals(RiskViolation.ORDER_RATE, exception.getViolation(), "Should report the order rate limit");
+        assertEquals(500, this.riskManager.getReservedQuantity(this.buyer, this.asset, OfferOperationType.BUY), "Should not reserve rejected offers");
+
+        this.clock.advanceTo(1_000_000_000L);
+        this.operationBook.register(new OfferOperation(this.buyer, this.asset, OfferOperationType.BUY, 100, 1));
+
+    }
+
+}
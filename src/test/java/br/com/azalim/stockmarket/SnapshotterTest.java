@@ -0,0 +1,157 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.asset.AssetType;
+import br.com.azalim.stockmarket.asset.MarketType;
+import br.com.azalim.stockmarket.broker.Broker;
+import br.com.azalim.stockmarket.company.Company;
+import br.com.azalim.stockmarket.operation.Operation;
+import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
+import br.com.azalim.stockmarket.persistence.Journal;
+import br.com.azalim.stockmarket.persistence.JournalReplayer;
+import br.com.azalim.stockmarket.persistence.Snapshotter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotterTest {
+
+    private static final Company company = new Company() {
+        @Override
+        public String getSymbol() {
+            return "SNAP";
+        }
+
+        @Override
+        public String getName() {
+            return "Snapshot Company S.A.";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Snapshot company description";
+        }
+
+        @Override
+        public Set<AssetType> getAssetTypes() {
+            return Set.of(AssetType.PREFERRED);
+        }
+    };
+
+    private static final Asset asset = new Asset(company, AssetType.PREFERRED, MarketType.COMMON);
+
+    private static final Asset fractionalAsset = new Asset(asset, MarketType.FRACTIONAL);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecovery() throws IOException {
+
+        Path journalPath = this.directory.resolve("stockmarket.journal");
+        Path snapshotPath = this.directory.resolve("stockmarket.snapshot");
+
+        Broker seller = StockMarketTest.createBroker("Seller"), buyer = StockMarketTest.createBroker("Buyer");
+        StockMarket stockMarket = new StockMarket(Set.of(company), Set.of(seller, buyer));
+        Snapshotter snapshotter = new Snapshotter(stockMarket, snapshotPath);
+
+        assertThrows(IllegalStateException.class, snapshotter::take, "Should not snapshot a stock market that is not journaled");
+
+        try (Journal journal = new Journal(journalPath)) {
+
+            stockMarket.setJournal(journal);
+            stockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+            OperationBook operationBook = stockMarket.getOperationBook(asset);
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 300, 10));
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 11));
+            operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, 200, 12));
+            stockMarket.getOperationBook(fractionalAsset).register(new OfferOperation(buyer, fractionalAsset, OfferOperationType.BUY, 10, 9));
+
+            snapshotter.take();
+            assertTrue(Files.exists(snapshotPath), "Should write the snapshot file");
+
+            operationBook.register(new OfferOperation(buyer, asset, OfferOperationType.BUY, 200, 11));
+            operationBook.register(new OfferOperation(seller, asset, OfferOperationType.SELL, 100, 20));
+
+            stockMarket.stopProcessingOperations();
+
+        }
+
+        snapshotter.close();
+
+        Broker recoveredSeller = StockMarketTest.createBroker("Seller"), recoveredBuyer = StockMarketTest.createBroker("Buyer");
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(recoveredSeller, recoveredBuyer));
+        JournalReplayer journalReplayer = new JournalReplayer(recoveredStockMarket);
+
+        assertTrue(journalReplayer.loadSnapshot(snapshotPath), "Should load the snapshot");
+
+        OperationBook recoveredOperationBook = recoveredStockMarket.getOperationBook(asset);
+        List<OfferOperation> snapshotOfferOperations = List.copyOf(recoveredOperationBook.getOperations(OfferOperation.class));
+
+        assertEquals(2, snapshotOfferOperations.size(), "Should load the resting offers");
+        assertEquals(OfferOperationStatus.PARTIALLY_EXECUTED, snapshotOfferOperations.get(0).getStatus(), "Should load the status of the offers");
+        assertEquals(100, snapshotOfferOperations.get(0).getQuantity(), "Should load the remaining quantity of the offers");
+        assertEquals(10, recoveredOperationBook.getTradeTape().getLastPrice(), "Should load the last trade");
+        assertEquals(200, recoveredBuyer.getWallet().getQuantity(asset), "Should load the positions");
+        assertEquals(1, recoveredStockMarket.getOperationBook(fractionalAsset).getOperations().size(), "Should load the fractional book");
+
+        assertEquals(4, journalReplayer.replay(journalPath), "Should only replay the records after the snapshot");
+
+        List<OfferOperation> restingOfferOperations = List.copyOf(recoveredOperationBook.getOperations(OfferOperation.class));
+
+        assertEquals(1, restingOfferOperations.size(), "Should replay the offers after the snapshot");
+        assertEquals(20, restingOfferOperations.get(0).getPrice(), "Should replay the offers after the snapshot");
+        assertEquals(11, recoveredOperationBook.getTradeTape().getLastPrice(), "Should replay the trades after the snapshot");
+        assertEquals(400, recoveredBuyer.getWallet().getQuantity(asset), "Should replay the trades after the snapshot");
+        assertEquals(-400, recoveredSeller.getWallet().getQuantity(asset), "Should replay the trades after the snapshot");
+        assertEquals(buyer.getWallet().getPosition(asset).getAverageCost(), recoveredBuyer.getWallet().getPosition(asset).getAverageCost(), 1e-9, "Should rebuild the average cost");
+
+        StockMarket replayedStockMarket = new StockMarket(Set.of(company), Set.of(StockMarketTest.createBroker("Seller"), StockMarketTest.createBroker("Buyer")));
+
+        assertEquals(9, new JournalReplayer(replayedStockMarket).replay(journalPath), "Should replay the whole journal without a snapshot");
+        assertEquals(1, replayedStockMarket.getOperationBook(asset).getOperations().size(), "Should rebuild the same books without a snapshot");
+
+    }
+
+    @Test
+    public void testSequenceRecovery() throws IOException {
+
+        Path snapshotPath = this.directory.resolve("sequence.snapshot");
+        long lastSequence = Operation.getLastSequence() + 1_000_000;
+
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(snapshotPath))) {
+            output.writeInt(0x534E4150);
+            output.writeInt(2);
+            output.writeInt(0);
+            output.writeLong(lastSequence);
+        }
+
+        StockMarket recoveredStockMarket = new StockMarket(Set.of(company), Set.of(StockMarketTest.createBroker("Seller")));
+
+        assertTrue(new JournalReplayer(recoveredStockMarket).loadSnapshot(snapshotPath), "Should load the snapshot");
+        assertTrue(new OfferOperation(StockMarketTest.createBroker("Seller"), asset, OfferOperationType.SELL, 100, 10).getSequence() > lastSequence,
+                "Should not reuse the sequence numbers of the operations before the snapshot");
+
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(snapshotPath))) {
+            output.writeInt(0x534E4150);
+            output.writeInt(1);
+            output.writeInt(0);
+        }
+
+        assertThrows(IllegalStateException.class, () -> new JournalReplayer(recoveredStockMarket).loadSnapshot(snapshotPath), "Should reject snapshots of another version");
+
+    }
+
+}
@@ -7,11 +7,16 @@ import br.com.azalim.stockmarket.broker.Broker;
 import br.com.azalim.stockmarket.company.Company;
 import br.com.azalim.stockmarket.observer.impl.TransactionObserver;
 import br.com.azalim.stockmarket.operation.OperationBook;
+import br.com.azalim.stockmarket.operation.offer.OfferOperation;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationStatus;
+import br.com.azalim.stockmarket.operation.offer.OfferOperationType;
 import br.com.azalim.stockmarket.wallet.Wallet;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -106,6 +111,59 @@ public class StockMarketTest {
 
     }
 
+    @Test
+    public void testContinuousProcessing() {
+
+        StockMarket continuousStockMarket = new StockMarket(Set.of(company), Set.of(broker, anotherBroker));
+        OperationBook operationBook = continuousStockMarket.getOperationBook(asset);
+
+        continuousStockMarket.startProcessingOperations(ProcessingMode.CONTINUOUS);
+
+        assertEquals(ProcessingMode.CONTINUOUS, continuousStockMarket.getProcessingMode(), "Should be processing continuously");
+        assertThrows(IllegalStateException.class, () -> continuousStockMarket.startProcessingOperations(ProcessingMode.POLLING), "Should not start processing twice");
+
+        OfferOperation sellOfferOperation = new OfferOperation(anotherBroker, asset, OfferOperationType.SELL, 100, 10);
+        OfferOperation buyOfferOperation = new OfferOperation(broker, asset, OfferOperationType.BUY, 100, 10);
+
+        operationBook.register(sellOfferOperation);
+
+        assertEquals(OfferOperationStatus.OPEN, sellOfferOperation.getStatus(), "Should rest in the book until a matching offer arrives");
+
+        operationBook.register(buyOfferOperation);
+
+        assertEquals(OfferOperationStatus.EXECUTED, buyOfferOperation.getStatus(), "Should be executed as soon as it is registered");
+        assertEquals(OfferOperationStatus.EXECUTED, sellOfferOperation.getStatus(), "Should be executed as soon as the matching offer is registered");
+
+        continuousStockMarket.stopProcessingOperations();
+
+        assertNull(continuousStockMarket.getProcessingMode(), "Should not be processing anymore");
+
+    }
+
+    @Test
+    public void testShardedProcessing() throws InterruptedException {
+
+        StockMarket shardedStockMarket = new StockMarket(Set.of(company), Set.of(broker, anotherBroker));
+        OperationBook operationBook = shardedStockMarket.getOperationBook(asset);
+        CountDownLatch transactionLatch = new CountDownLatch(1);
+
+        shardedStockMarket.observe((from, to, asset, quantity, price) -> transactionLatch.countDown());
+        shardedStockMarket.startProcessingOperations(ProcessingMode.SHARDED, 2);
+
+        OfferOperation sellOfferOperation = new OfferOperation(anotherBroker, asset, OfferOperationType.SELL, 100, 10);
+        OfferOperation buyOfferOperation = new OfferOperation(broker, asset, OfferOperationType.BUY, 100, 10);
+
+        operationBook.register(sellOfferOperation);
+        operationBook.register(buyOfferOperation);
+
+        assertTrue(transactionLatch.await(5, TimeUnit.SECONDS), "Should be executed by the shard of the asset");
+        assertEquals(OfferOperationStatus.EXECUTED, buyOfferOperation.getStatus(), "Should be executed");
+        assertEquals(OfferOperationStatus.EXECUTED, sellOfferOperation.getStatus(), "Should be executed");
+
+        shardedStockMarket.stopProcessingOperations();
+
+    }
+
     public static Broker createBroker(String name) {
         return new Broker() {
 
@@ -0,0 +1,44 @@
+package br.com.azalim.stockmarket;
+
+import br.com.azalim.stockmarket.operation.TradeTape;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TradeTapeTest {
+
+    @Test
+    public void testGetPriceBefore() {
+
+        TradeTape tradeTape = new TradeTape();
+
+        assertEquals(-1, tradeTape.getPriceBefore(10), "Should return -1 when there are no trades");
+        assertEquals(-1, tradeTape.getLastPrice(), "Should return -1 when there are no trades");
+
+        for (int index = 1; index <= 5000; index++) {
+            tradeTape.record(index * 10L, index, 100);
+        }
+
+        assertEquals(5000, tradeTape.size(), "Should keep every trade");
+        assertEquals(-1, tradeTape.getPriceBefore(10), "Should not consider trades at the given timestamp");
+        assertEquals(1, tradeTape.getPriceBefore(11), "Should return the price of the last trade before the given timestamp");
+        assertEquals(2500, tradeTape.getPriceBefore(25005), "Should return the price of the last trade before the given timestamp");
+        assertEquals(5000, tradeTape.getPriceBefore(Long.MAX_VALUE), "Should return the price of the last trade");
+        assertEquals(5000, tradeTape.getLastPrice(), "Should return the price of the last trade");
+
+    }
+
+    @Test
+    public void testClockGoingBackwards() {
+
+        TradeTape tradeTape = new TradeTape();
+
+        tradeTape.record(20, 1, 100);
+        tradeTape.record(10, 2, 100);
+
+        assertEquals(-1, tradeTape.getPriceBefore(15), "Should move older timestamps forward to keep the tape sorted");
+        assertEquals(2, tradeTape.getPriceBefore(21), "Should return the price of the last recorded trade");
+
+    }
+
+}
@@ -3,8 +3,6 @@ package br.com.azalim.stockmarket;
 import br.com.azalim.stockmarket.wallet.Transaction;
 import org.junit.jupiter.api.Test;
 
-import java.time.Instant;
-
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -28,12 +26,12 @@ public class TransactionTest {
 
         when(transaction.compareTo(otherTransaction)).thenCallRealMethod();
 
-        when(transaction.getInstant()).thenReturn(Instant.ofEpochMilli(2));
-        when(otherTransaction.getInstant()).thenReturn(Instant.ofEpochMilli(3));
+        when(transaction.getSequence()).thenReturn(2L);
+        when(otherTransaction.getSequence()).thenReturn(3L);
 
         assertTrue(transaction.compareTo(otherTransaction) < 0, "The transaction should be before the other transaction");
 
-        when(otherTransaction.getInstant()).thenReturn(Instant.ofEpochMilli(1));
+        when(otherTransaction.getSequence()).thenReturn(1L);
 
         assertTrue(transaction.compareTo(otherTransaction) > 0, "The transaction should be after the other transaction");
 
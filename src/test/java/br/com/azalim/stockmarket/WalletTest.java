@@ -1,13 +1,13 @@
 package br.com.azalim.stockmarket;
 
 import br.com.azalim.stockmarket.asset.Asset;
+import br.com.azalim.stockmarket.wallet.Position;
 import br.com.azalim.stockmarket.wallet.Transaction;
 import br.com.azalim.stockmarket.wallet.Wallet;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +35,66 @@ public class WalletTest {
         assertDoesNotThrow(() -> wallet.registerTransaction(asset, new Transaction(-5, 10)), "Should not throw exception when debiting asset");
         assertEquals(5, wallet.getQuantity(asset), "Should return 5 after debiting 5 from the asset");
 
+        for (int index = 0; index < 1000; index++) {
+            wallet.registerTransaction(asset, new Transaction(1, 1));
+        }
+
+        assertEquals(1005, wallet.getQuantity(asset), "Transactions created in the same clock tick should all be kept");
+
+    }
+
+    @Test
+    public void testPosition() {
+
+        Wallet positionWallet = new Wallet();
+        Asset positionAsset = mock(Asset.class);
+
+        when(positionAsset.getParentAsset()).thenReturn(positionAsset);
+
+        assertEquals(0, positionWallet.getQuantity(positionAsset), "Should return 0 when there are no transactions");
+        assertNull(positionWallet.getPosition(positionAsset), "Should not have a position when there are no transactions");
+        assertThrows(IllegalArgumentException.class, () -> positionWallet.registerTransaction(positionAsset, 0, 1), "The quantity must be different than zero");
+
+        positionWallet.registerTransaction(positionAsset, 100, 10);
+        positionWallet.registerTransaction(positionAsset, 100, 20);
+
+        Position position = positionWallet.getPosition(positionAsset);
+
+        assertEquals(200, position.getQuantity(), "Should return 200 after buying 200 shares");
+        assertEquals(15, position.getAverageCost(), "Should weight the average cost by quantity");
+
+        positionWallet.registerTransaction(positionAsset, -50, 25);
+
+        assertEquals(150, position.getQuantity(), "Should return 150 after selling 50 shares");
+        assertEquals(15, position.getAverageCost(), "Selling should not change the average cost");
+        assertEquals(500, position.getRealizedProfit(), "Should realize the profit of the sold shares");
+
+        positionWallet.registerTransaction(positionAsset, -200, 30);
+
+        assertEquals(-50, position.getQuantity(), "Should return -50 after selling more than the position");
+        assertEquals(30, position.getAverageCost(), "Reversing the position should reset the average cost");
+        assertEquals(2750, position.getRealizedProfit(), "Should realize the profit of the closed shares only");
+
+        assertFalse(positionWallet.isKeepingHistory(), "Should not keep the history by default");
+        assertTrue(positionWallet.getTransactions(positionAsset).isEmpty(), "Should not keep the history by default");
+
+    }
+
+    @Test
+    public void testHistory() {
+
+        Wallet historyWallet = new Wallet(true);
+        Asset historyAsset = mock(Asset.class);
+
+        when(historyAsset.getParentAsset()).thenReturn(historyAsset);
+
+        historyWallet.registerTransaction(historyAsset, 10, 5);
+        historyWallet.registerTransaction(historyAsset, new Transaction(-5, 10));
+
+        assertTrue(historyWallet.isKeepingHistory(), "Should keep the history");
+        assertEquals(2, historyWallet.getTransactions(historyAsset).size(), "Should keep every transaction");
+        assertEquals(5, historyWallet.getQuantity(historyAsset), "Should return 5 after debiting 5 from the asset");
+
     }
 
 }